@@ -0,0 +1,32 @@
+package org.example.regicidegrafico_juliomalpica.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de los benchmarks.
+ * Ejecuta los benchmarks cuyo nombre coincida con la expresión indicada (todos por defecto)
+ * con el perfilador de GC activado, para informar de la tasa de asignación de memoria
+ * además del rendimiento. Los resultados se guardan también en jmh-result.json.
+ */
+public class EjecutarBenchmarks {
+
+    /**
+     * Lanza los benchmarks.
+     * @param args [expresión regular de los benchmarks a ejecutar]
+     * @throws RunnerException si falla la ejecución de JMH
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : ".*")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.regicidegrafico_juliomalpica.benchmark;
+
+import org.example.regicidegrafico_juliomalpica.AlmacenEstadisticas;
+import org.example.regicidegrafico_juliomalpica.EstadisticasController;
+import org.example.regicidegrafico_juliomalpica.RegistroEstadistica;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la carga de estadísticas de distintos tamaños, desde archivos CSV y desde
+ * el almacén binario con sus índices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EstadisticasBenchmark {
+    @Param({"10000", "1000000"})
+    public int filas;
+
+    private Path archivo;
+    private Path directorio;
+    private AlmacenEstadisticas almacen;
+    private LocalDate primerDia;
+
+    /**
+     * Genera un archivo CSV con el formato de estadisticas.csv y el número de filas indicado.
+     * @throws IOException si no se puede escribir el archivo
+     */
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        archivo = Files.createTempFile("estadisticas", ".csv");
+        Random aleatorio = new Random(1);
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo)) {
+            writer.write("Fecha||Cartas Jugadas||Vida Enemigo||Estado Mano||Resultado\n");
+            for (int i = 0; i < filas; i++) {
+                writer.write("2025-05-19 10:22:57||" + aleatorio.nextInt(40) + "||" + aleatorio.nextInt(40)
+                        + "||[{\"numero\":3,\"palo\":\"Treboles\"},{\"numero\":8,\"palo\":\"Diamantes\"}]||"
+                        + (aleatorio.nextInt(10) == 0 ? "Victoria" : "Derrota") + "\n");
+            }
+        }
+
+        //Las mismas partidas en el almacén binario, una por minuto
+        directorio = Files.createTempDirectory("estadisticas");
+        almacen = AlmacenEstadisticas.de(directorio.resolve("estadisticas.dat"));
+        //Las fechas son antiguas: sin esto los segmentos cerrados se borrarían
+        almacen.setDiasConservados(Integer.MAX_VALUE);
+        primerDia = LocalDate.of(2025, 5, 19);
+        long fecha = primerDia.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<RegistroEstadistica> lote = new ArrayList<>();
+        for (int i = 0; i < filas; i++) {
+            lote.add(new RegistroEstadistica(fecha + i * 60_000L, i % 2 == 0 ? "Ana" : "Simulador", aleatorio.nextInt(40),
+                    aleatorio.nextInt(40), aleatorio.nextLong(), aleatorio.nextInt(10) == 0, aleatorio.nextLong()));
+            if (lote.size() == 100_000) {
+                almacen.anadir(lote);
+                lote.clear();
+            }
+        }
+        almacen.anadir(lote);
+    }
+
+    /**
+     * Borra el archivo temporal.
+     * @throws IOException si no se puede borrar
+     */
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        Files.deleteIfExists(archivo);
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path ruta : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(ruta);
+            }
+        }
+    }
+
+    /**
+     * Carga todas las filas del archivo.
+     * @return número de filas cargadas
+     */
+    @Benchmark
+    public int cargarEstadisticas() {
+        return EstadisticasController.cargarEstadisticas(archivo.toString()).size();
+    }
+
+    /**
+     * Lee todos los registros del almacén binario.
+     * @return número de registros leídos
+     * @throws IOException si no se puede leer
+     */
+    @Benchmark
+    public int leerRegistros() throws IOException {
+        return almacen.leer(0, filas).size();
+    }
+
+    /**
+     * Busca las partidas de un día con el índice por fecha.
+     * @return número de registros encontrados
+     * @throws IOException si no se puede leer
+     */
+    @Benchmark
+    public int buscarPorFecha() throws IOException {
+        return almacen.buscarPorFecha(primerDia, primerDia).size();
+    }
+
+    /**
+     * Obtiene el resumen de todas las partidas, que no depende del número de registros.
+     * @return partidas del resumen
+     * @throws IOException si no se puede leer
+     */
+    @Benchmark
+    public long leerResumen() throws IOException {
+        return almacen.getResumen().getPartidas();
+    }
+}
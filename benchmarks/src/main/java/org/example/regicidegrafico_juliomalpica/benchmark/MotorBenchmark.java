@@ -0,0 +1,159 @@
+package org.example.regicidegrafico_juliomalpica.benchmark;
+
+import org.example.regicidegrafico_juliomalpica.Carta;
+import org.example.regicidegrafico_juliomalpica.CodigoCarta;
+import org.example.regicidegrafico_juliomalpica.Partida;
+import org.example.regicidegrafico_juliomalpica.PoliticaVoraz;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks del motor de la partida: preparación del reparto, validación de jugadas,
+ * efectos de cada palo al atacar y defensa contra el enemigo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MotorBenchmark {
+    /** Número de jugadas candidatas precalculadas (potencia de 2) */
+    private static final int CANDIDATAS = 1024;
+
+    private Random aleatorio;
+    private Partida partidaValidacion;
+    private List<List<Carta>> candidatas;
+    private int siguiente;
+
+    /**
+     * Prepara manos aleatorias de 8 cartas y, de cada una, un subconjunto aleatorio de 1 a 4 cartas.
+     */
+    @Setup(Level.Trial)
+    public void preparar() {
+        aleatorio = new Random(42);
+        partidaValidacion = new Partida("Benchmark");
+        candidatas = new ArrayList<>(CANDIDATAS);
+
+        List<Carta> baraja = new ArrayList<>();
+        for (int codigo = 0; codigo < CodigoCarta.TOTAL_CARTAS; codigo++) {
+            if (CodigoCarta.numero(codigo) <= 10) {
+                baraja.add(CodigoCarta.carta(codigo));
+            }
+        }
+        for (int i = 0; i < CANDIDATAS; i++) {
+            Collections.shuffle(baraja, aleatorio);
+            List<Carta> mano = new ArrayList<>(baraja.subList(0, 8));
+            candidatas.add(new ArrayList<>(mano.subList(0, 1 + aleatorio.nextInt(4))));
+        }
+    }
+
+    /**
+     * Genera la baraja y prepara todas las colecciones de una partida nueva.
+     * @return la partida preparada
+     */
+    @Benchmark
+    public Partida generarYPrepararColecciones() {
+        Partida partida = new Partida("Benchmark");
+        partida.setSimulacion(true);
+        partida.generarBaraja();
+        partida.prepararColecciones(aleatorio);
+        return partida;
+    }
+
+    /**
+     * Valida una jugada candidata tomada de manos aleatorias.
+     * @return si la jugada es válida
+     */
+    @Benchmark
+    public boolean jugadaValida() {
+        return partidaValidacion.jugadaValida(candidatas.get(siguiente++ & (CANDIDATAS - 1)));
+    }
+
+    /**
+     * Estado para atacar con una carta de un palo concreto contra un enemigo de otro palo,
+     * de forma que el efecto del palo siempre se active.
+     */
+    @State(Scope.Thread)
+    public static class EstadoAtaque {
+        @Param({"Picas", "Corazones", "Treboles", "Diamantes"})
+        public String palo;
+
+        Partida partida;
+        ArrayList<Integer> indices;
+
+        /**
+         * Crea una partida nueva antes de cada invocación porque jugarCarta la modifica.
+         */
+        @Setup(Level.Invocation)
+        public void preparar() {
+            partida = partidaPreparada(7);
+            int indicePalo = CodigoCarta.indicePalo(palo);
+            //Enemigo (Jota) de un palo distinto y carta de ataque del palo elegido
+            partida.getCastillo().set(0, CodigoCarta.carta(CodigoCarta.codificar(11, (indicePalo + 1) % 4)));
+            partida.getMano().set(0, CodigoCarta.carta(CodigoCarta.codificar(5, indicePalo)));
+            //Cartas en descartes para que el efecto Corazones tenga qué mover
+            for (int i = 0; i < 8; i++) {
+                partida.getMazoCartasDescartadas().add(partida.getMazoPosada().remove(partida.getMazoPosada().size() - 1));
+            }
+            indices = new ArrayList<>(List.of(0));
+        }
+    }
+
+    /**
+     * Juega una carta del palo parametrizado y aplica su efecto.
+     * @param estado partida preparada para el ataque
+     * @return la partida tras el ataque
+     */
+    @Benchmark
+    public Partida jugarCarta(EstadoAtaque estado) {
+        estado.partida.jugarCarta(estado.indices);
+        return estado.partida;
+    }
+
+    /**
+     * Estado para defenderse del ataque del primer enemigo.
+     */
+    @State(Scope.Thread)
+    public static class EstadoDefensa {
+        Partida partida;
+        ArrayList<Integer> defensa;
+
+        /**
+         * Crea una partida nueva antes de cada invocación porque manejarDefensa la modifica.
+         */
+        @Setup(Level.Invocation)
+        public void preparar() {
+            partida = partidaPreparada(11);
+            defensa = new PoliticaVoraz().elegirDefensa(partida);
+        }
+    }
+
+    /**
+     * Se defiende con el conjunto de cartas que elige la política voraz.
+     * @param estado partida preparada para la defensa
+     * @return si la defensa tuvo éxito
+     */
+    @Benchmark
+    public boolean manejarDefensa(EstadoDefensa estado) {
+        return estado.partida.manejarDefensa(estado.defensa, null);
+    }
+
+    /**
+     * Crea una partida en modo simulación con un reparto fijo.
+     * @param semilla semilla del reparto
+     * @return la partida preparada
+     */
+    static Partida partidaPreparada(long semilla) {
+        Partida partida = new Partida("Benchmark");
+        partida.setSimulacion(true);
+        partida.generarBaraja();
+        partida.prepararColecciones(new Random(semilla));
+        return partida;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.regicidegrafico_juliomalpica.benchmark;
+
+import org.example.regicidegrafico_juliomalpica.CodecPartida;
+import org.example.regicidegrafico_juliomalpica.Partida;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks del guardado y la carga de partidas, en JSON y en el formato binario de
+ * {@link CodecPartida} (el formato se elige por la extensión del archivo).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersistenciaBenchmark {
+    /** Extensión del archivo: json para Gson, dat para el formato binario */
+    @Param({"json", "dat"})
+    public String formato;
+
+    private Partida partida;
+    private Path archivo;
+    private byte[] codificada;
+
+    /**
+     * Prepara una partida a medio jugar y un archivo temporal donde guardarla.
+     * @throws IOException si no se puede crear el archivo temporal
+     */
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        partida = MotorBenchmark.partidaPreparada(3);
+        archivo = Files.createTempFile("partida", "." + formato);
+        partida.guardarPartida(archivo.toString());
+        codificada = CodecPartida.codificar(partida);
+    }
+
+    /**
+     * Borra el archivo temporal.
+     * @throws IOException si no se puede borrar
+     */
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    /**
+     * Guarda la partida en el archivo temporal.
+     */
+    @Benchmark
+    public void guardarPartida() {
+        partida.guardarPartida(archivo.toString());
+    }
+
+    /**
+     * Carga la partida desde el archivo temporal.
+     * @return la partida cargada
+     */
+    @Benchmark
+    public Partida cargarPartida() {
+        return Partida.cargarPartida(archivo.toString());
+    }
+
+    /**
+     * Guarda y vuelve a cargar la partida (ida y vuelta completa).
+     * @return la partida cargada
+     */
+    @Benchmark
+    public Partida guardarYCargarPartida() {
+        partida.guardarPartida(archivo.toString());
+        return Partida.cargarPartida(archivo.toString());
+    }
+
+    /**
+     * Codifica la partida en binario en memoria, sin escribir a disco.
+     * @return bytes de la partida
+     */
+    @Benchmark
+    public byte[] codificarBinario() {
+        return CodecPartida.codificar(partida);
+    }
+
+    /**
+     * Decodifica la partida binaria en memoria, sin leer de disco.
+     * @return la partida decodificada
+     */
+    @Benchmark
+    public Partida decodificarBinario() {
+        return CodecPartida.decodificar(codificada);
+    }
+}
@@ -0,0 +1,1007 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Almacén binario de estadísticas con registros de ancho fijo e índices aparte.
+ * <p>
+ * Cada partida ocupa {@value #TAMANIO_REGISTRO} bytes tras una cabecera de
+ * {@value #TAMANIO_CABECERA}, así que el registro n está en una posición conocida y se puede
+ * leer sin recorrer el archivo:
+ * </p>
+ * <ul>
+ *     <li>Fecha en milisegundos desde 1970 (8 bytes)</li>
+ *     <li>Semilla del reparto (8 bytes)</li>
+ *     <li>Máscara de 52 bits de la mano final, con la victoria en el bit más alto (8 bytes)</li>
+ *     <li>Número del jugador en el diccionario de jugadores, sin signo (2 bytes)</li>
+ *     <li>Enemigos derrotados (12 bits) y enemigo que ganó la partida (4 bits, 15 si ninguno) (2 bytes)</li>
+ *     <li>Cartas jugadas, sin signo, y vida del enemigo, con signo (2 bytes cada uno)</li>
+ * </ul>
+ * <p>
+ * Los registros se guardan por segmentos. Solo se escribe en el archivo indicado (el segmento
+ * activo), que se cierra al llegar a {@value #MAX_REGISTROS_SEGMENTO} registros o al cambiar de
+ * día y pasa al directorio {@code <archivo>.segmentos} como
+ * {@code segmento-<primer registro>-<registros>-<día>.dat}. Después, en segundo plano, los
+ * segmentos cerrados se comprimen con GZIP y los de hace más de {@link #DIAS_CONSERVADOS} días
+ * se borran: sus partidas siguen contando en el resumen, pero ya no se pueden consultar una a
+ * una. Las consultas recorren todos los segmentos que queden como si fueran un solo archivo.
+ * </p>
+ * <p>
+ * Junto al archivo, en el directorio {@code <archivo>.indices}, se guardan:
+ * el diccionario de jugadores ({@code jugadores}), un índice por día con el primer registro
+ * de cada día ({@code fechas}, los registros se añaden en orden de fecha), la lista de registros
+ * de cada jugador ({@code jugador-N}) y cuántos registros cubren los índices ({@code indexados}).
+ * Si una escritura se corta y los índices no cubren todos los registros, se reconstruyen al abrir.
+ * </p>
+ * <p>
+ * En {@code <archivo>.resumen} se guarda el {@link ResumenEstadisticas} de todos los registros,
+ * que se actualiza con cada lote; si no incluye todos los registros se completa al abrir.
+ * Las partidas del CSV antiguo se añaden una sola vez con {@link #incluirCsv(Path)}, y el
+ * resumen guarda que ya las incluye.
+ * </p>
+ * <p>
+ * Las escrituras de {@link #registrar(RegistroEstadistica)} se hacen en segundo plano con
+ * {@link ServicioPersistencia}: los registros de todas las partidas que terminen durante el
+ * intervalo de volcado se escriben juntos, con una sola escritura y un solo volcado a disco.
+ * Antes de leer hay que esperar con {@code vaciar}.
+ * </p>
+ * Varios procesos pueden usar el mismo almacén (por ejemplo, simuladores en paralelo): cada
+ * lote se escribe con un bloqueo exclusivo de {@code <archivo>.bloqueo}, tras ponerse al día con
+ * lo que hayan añadido los demás, y la cabecera solo la escribe quien crea el archivo.
+ */
+public final class AlmacenEstadisticas {
+    /** "RGDE" */
+    public static final int MAGIA = 0x52474445;
+    public static final int VERSION = 1;
+    public static final int TAMANIO_CABECERA = 16;
+    public static final int TAMANIO_REGISTRO = 32;
+    /** Registros de un segmento como máximo (1 MiB) */
+    public static final int MAX_REGISTROS_SEGMENTO = 32768;
+    /** Días que se conservan los registros de los segmentos cerrados, por defecto */
+    public static final int DIAS_CONSERVADOS = 90;
+    private static final long BIT_VICTORIA = 1L << 63;
+    /** Posición del número de jugador dentro del registro */
+    private static final int POSICION_JUGADOR = 24;
+    /** Máximo de jugadores distintos (el número se guarda en 2 bytes) */
+    private static final int MAX_JUGADORES = 0x10000;
+    private static final int SIN_ENEMIGO_FINAL = 0xF;
+    /** Registros que se leen de una vez al recorrer el archivo */
+    private static final int REGISTROS_POR_LECTURA = 4096;
+    private static final int TAMANIO_ENTRADA_FECHA = 12;
+    /** Tiempo que se juntan registros antes de escribirlos, por defecto */
+    public static final long INTERVALO_VOLCADO_MS = 200;
+    private static final int SIN_DIA = Integer.MIN_VALUE;
+    /** Bytes del resumen; detrás se guarda cuántos registros incluye y si incluye el CSV antiguo */
+    private static final int TAMANIO_RESUMEN = new ResumenEstadisticas().aBytes().length;
+
+    private static final Map<Path, AlmacenEstadisticas> ALMACENES = new ConcurrentHashMap<>();
+
+    private final Path ruta;
+    private final Path indices;
+    private final Path segmentos;
+    private final Path rutaResumen;
+    private final Path rutaBloqueo;
+    private final Queue<RegistroEstadistica> pendientes = new ConcurrentLinkedQueue<>();
+    private volatile long intervaloVolcado = INTERVALO_VOLCADO_MS;
+    private volatile int diasConservados = DIAS_CONSERVADOS;
+
+    private boolean abierto;
+    /** Registros añadidos desde que se creó el almacén, incluidos los ya borrados */
+    private long registros;
+    /** Número del primer registro del segmento activo */
+    private long base;
+    /** Día del primer registro del segmento activo */
+    private int diaActivo = SIN_DIA;
+    /** Segmentos cerrados que se conservan, en orden */
+    private final List<Segmento> cerrados = new ArrayList<>();
+    /** Fecha de modificación del directorio de segmentos al cargarlos */
+    private FileTime marcaSegmentos;
+    /** Último segmento cerrado leído, descomprimido */
+    private Segmento segmentoLeido;
+    private ByteBuffer contenidoLeido;
+    private final List<String> jugadores = new ArrayList<>();
+    private final Map<String, Integer> numeroJugador = new HashMap<>();
+    /** Índice por fecha: día (desde 1970) y primer registro de ese día */
+    private int[] dias = new int[16];
+    private long[] primeros = new long[16];
+    private int numDias;
+    private ResumenEstadisticas resumen;
+    /** Registros incluidos en el resumen */
+    private long resumidos;
+    /** Si el resumen incluye las partidas del CSV antiguo */
+    private boolean csvIncluido;
+
+    private AlmacenEstadisticas(Path ruta) {
+        this.ruta = ruta;
+        this.indices = ruta.resolveSibling(ruta.getFileName() + ".indices");
+        this.segmentos = ruta.resolveSibling(ruta.getFileName() + ".segmentos");
+        this.rutaResumen = ruta.resolveSibling(ruta.getFileName() + ".resumen");
+        this.rutaBloqueo = ruta.resolveSibling(ruta.getFileName() + ".bloqueo");
+    }
+
+    /**
+     * Obtiene el almacén de un archivo. Todas las partes de la aplicación que usan el mismo
+     * archivo comparten la misma instancia.
+     * @param ruta archivo de registros
+     * @return almacén del archivo
+     */
+    public static AlmacenEstadisticas de(Path ruta) {
+        return ALMACENES.computeIfAbsent(ruta.toAbsolutePath().normalize(), AlmacenEstadisticas::new);
+    }
+
+    /**
+     * Cambia cuánto tiempo se juntan registros antes de escribirlos. Con intervalos más largos
+     * se hacen menos escrituras cuando terminan muchas partidas a la vez.
+     * @param milisegundos intervalo de volcado (0 para escribir en cuanto se pueda)
+     */
+    public void setIntervaloVolcado(long milisegundos) {
+        if (milisegundos < 0) {
+            throw new IllegalArgumentException("Intervalo de volcado no válido: " + milisegundos);
+        }
+        intervaloVolcado = milisegundos;
+    }
+
+    /**
+     * Cambia durante cuántos días se conservan los registros de los segmentos cerrados.
+     * Los más antiguos se borran la próxima vez que se cierre un segmento.
+     * @param dias días que se conservan
+     */
+    public void setDiasConservados(int dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("Días conservados no válidos: " + dias);
+        }
+        diasConservados = dias;
+    }
+
+    /**
+     * Pide añadir un registro. Se escribe en segundo plano, junto con los demás pendientes,
+     * como mucho un intervalo de volcado después.
+     * @param registro registro a añadir
+     */
+    public void registrar(RegistroEstadistica registro) {
+        pendientes.add(registro);
+        ServicioPersistencia.getInstancia().ejecutar(ruta, this::volcar, intervaloVolcado);
+    }
+
+    /**
+     * Escribe todos los registros pendientes.
+     * @throws IOException si no se pueden escribir
+     */
+    private void volcar() throws IOException {
+        List<RegistroEstadistica> lote = new ArrayList<>();
+        for (RegistroEstadistica registro; (registro = pendientes.poll()) != null; ) {
+            lote.add(registro);
+        }
+        anadir(lote);
+    }
+
+    /**
+     * Añade registros al final del almacén y actualiza los índices, esperando a que termine.
+     * @param lote registros a añadir
+     * @throws IOException si no se pueden escribir
+     */
+    public synchronized void anadir(List<RegistroEstadistica> lote) throws IOException {
+        if (lote.isEmpty()) {
+            return;
+        }
+        boolean rotado = false;
+        try (FileChannel bloqueo = abrirBloqueo(); FileLock exclusivo = bloqueo.lock()) {
+            //Otro proceso puede haber añadido registros desde la última vez
+            if (!abierto || !alDia()) {
+                sincronizar();
+            }
+            ZoneId zona = ZoneId.systemDefault();
+            int desde = 0;
+            while (desde < lote.size()) {
+                int dia = dia(lote.get(desde), zona);
+                if (registros > base && (registros - base == MAX_REGISTROS_SEGMENTO || dia != diaActivo)) {
+                    rotar();
+                    rotado = true;
+                }
+                if (registros == base) {
+                    diaActivo = dia;
+                }
+                //Los registros seguidos del mismo día que caben en el segmento
+                int hasta = desde + 1;
+                while (hasta < lote.size() && registros - base + (hasta - desde) < MAX_REGISTROS_SEGMENTO
+                        && dia(lote.get(hasta), zona) == dia) {
+                    hasta++;
+                }
+                escribir(lote.subList(desde, hasta));
+                desde = hasta;
+            }
+            guardarResumen();
+        }
+        if (rotado) {
+            programarMantenimiento();
+        }
+    }
+
+    /**
+     * Escribe en el segmento activo un lote del mismo día, con el bloqueo ya tomado y el estado
+     * en memoria al día.
+     */
+    private void escribir(List<RegistroEstadistica> lote) throws IOException {
+        //Los jugadores nuevos se guardan antes que los registros que los usan
+        int[] numeros = new int[lote.size()];
+        ByteArrayOutputStream nuevos = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(nuevos);
+        for (int i = 0; i < lote.size(); i++) {
+            String jugador = lote.get(i).getJugador();
+            Integer numero = numeroJugador.get(jugador);
+            if (numero == null) {
+                if (jugadores.size() == MAX_JUGADORES) {
+                    throw new IllegalStateException("El almacén de estadísticas no admite más de " + MAX_JUGADORES + " jugadores");
+                }
+                numero = jugadores.size();
+                jugadores.add(jugador);
+                numeroJugador.put(jugador, numero);
+                salida.writeUTF(jugador);
+            }
+            numeros[i] = numero;
+        }
+        anadirAlFinal(indices.resolve("jugadores"), ByteBuffer.wrap(nuevos.toByteArray()).position(nuevos.size()));
+
+        ByteBuffer buffer = ByteBuffer.allocate(lote.size() * TAMANIO_REGISTRO);
+        for (int i = 0; i < lote.size(); i++) {
+            codificar(lote.get(i), numeros[i], buffer);
+        }
+        buffer.flip();
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.WRITE)) {
+            escribirTodo(canal, buffer, tamanioEsperado());
+            canal.force(false);
+        }
+
+        indexar(lote, numeros, registros);
+        registros += lote.size();
+        guardarIndexados();
+
+        for (RegistroEstadistica registro : lote) {
+            resumen.agregar(registro);
+        }
+        resumidos = registros;
+    }
+
+    /**
+     * Cierra el segmento activo, con el bloqueo ya tomado, y empieza uno vacío.
+     */
+    private void rotar() throws IOException {
+        Files.createDirectories(segmentos);
+        Segmento segmento = new Segmento(base, (int) (registros - base), diaActivo, false);
+        Files.move(ruta, segmentos.resolve(segmento.nombre()), StandardCopyOption.ATOMIC_MOVE);
+        cerrados.add(segmento);
+        base = registros;
+        diaActivo = SIN_DIA;
+        //Si esto no llega a escribirse, el número se deduce de los segmentos cerrados
+        ServicioPersistencia.escribirAtomico(segmentos.resolve("activo"), ByteBuffer.allocate(Long.BYTES).putLong(base).array());
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            prepararCabecera(canal);
+        }
+        marcaSegmentos = leerMarcaSegmentos();
+    }
+
+    /**
+     * Comprime los segmentos cerrados y borra los que han pasado el tiempo de conservación.
+     * Se hace en el hilo de persistencia, después de cerrar un segmento.
+     */
+    private synchronized void mantenerSegmentos() throws IOException {
+        try (FileChannel bloqueo = abrirBloqueo(); FileLock exclusivo = bloqueo.lock()) {
+            if (!abierto || !alDia()) {
+                sincronizar();
+            }
+            for (int i = 0; i < cerrados.size(); i++) {
+                if (!cerrados.get(i).comprimido) {
+                    cerrados.set(i, comprimir(cerrados.get(i)));
+                }
+            }
+            //Las partidas de los segmentos borrados ya están en el resumen
+            long limite = LocalDate.now().toEpochDay() - diasConservados;
+            int borrados = 0;
+            while (borrados < cerrados.size() && cerrados.get(borrados).dia < limite
+                    && cerrados.get(borrados).fin() <= resumidos) {
+                Files.deleteIfExists(segmentos.resolve(cerrados.get(borrados).nombre()));
+                borrados++;
+            }
+            if (borrados > 0) {
+                cerrados.subList(0, borrados).clear();
+                segmentoLeido = null;
+                reconstruirIndices();
+            }
+            marcaSegmentos = leerMarcaSegmentos();
+        }
+    }
+
+    private Segmento comprimir(Segmento segmento) throws IOException {
+        Path origen = segmentos.resolve(segmento.nombre());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(segmento.cantidad * TAMANIO_REGISTRO / 4);
+        try (OutputStream salida = new GZIPOutputStream(bytes)) {
+            Files.copy(origen, salida);
+        }
+        Segmento comprimido = new Segmento(segmento.primero, segmento.cantidad, segmento.dia, true);
+        ServicioPersistencia.escribirAtomico(segmentos.resolve(comprimido.nombre()), bytes.toByteArray());
+        Files.delete(origen);
+        return comprimido;
+    }
+
+    private boolean hayMantenimiento() {
+        long limite = LocalDate.now().toEpochDay() - diasConservados;
+        for (Segmento segmento : cerrados) {
+            if (!segmento.comprimido || segmento.dia < limite) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void programarMantenimiento() {
+        ServicioPersistencia.getInstancia().ejecutar(segmentos, this::mantenerSegmentos);
+    }
+
+    /**
+     * Obtiene el resumen de todos los registros, sin leerlos.
+     * @return copia del resumen
+     * @throws IOException si no se puede abrir el almacén
+     */
+    public synchronized ResumenEstadisticas getResumen() throws IOException {
+        abrir();
+        return resumen.copiar();
+    }
+
+    /**
+     * Añade al resumen las partidas del CSV antiguo, que son anteriores a todos los registros.
+     * Solo se hace una vez: el resumen guarda que ya las incluye.
+     * Si aún se conservan todos los registros, el resumen se rehace con las filas del CSV
+     * primero, así que las rachas quedan en orden; si ya se han borrado segmentos, las filas
+     * se añaden detrás.
+     * @param csv archivo CSV de estadísticas
+     * @throws IOException si no se puede leer el CSV o abrir el almacén
+     */
+    public synchronized void incluirCsv(Path csv) throws IOException {
+        abrir();
+        if (csvIncluido || !Files.exists(csv)) {
+            return;
+        }
+        try (FileChannel bloqueo = abrirBloqueo(); FileLock exclusivo = bloqueo.lock()) {
+            //Otro proceso puede haberlo incluido ya
+            sincronizar();
+            if (csvIncluido) {
+                return;
+            }
+            if (primerConservado() == 0) {
+                ResumenEstadisticas completo = new ResumenEstadisticas();
+                agregarCsv(csv, completo);
+                recorrer(0, resumidos, (numero, buffer) -> completo.agregar(decodificar(buffer)));
+                resumen = completo;
+            } else {
+                agregarCsv(csv, resumen);
+            }
+            csvIncluido = true;
+            guardarResumen();
+        }
+    }
+
+    private static void agregarCsv(Path csv, ResumenEstadisticas destino) throws IOException {
+        LectorCsvEstadisticas.recorrer(csv, fila -> destino.agregar(fila.getCartasJugadas(), fila.getVidaEnemigo(),
+                "Victoria".equals(fila.getResultado())));
+    }
+
+    /**
+     * Obtiene el número de registros que se pueden consultar (los que no se han borrado)
+     * @return número de registros
+     * @throws IOException si no se puede abrir el almacén
+     */
+    public synchronized long getNumRegistros() throws IOException {
+        abrir();
+        return registros - primerConservado();
+    }
+
+    /**
+     * Obtiene los jugadores que tienen registros, en orden de aparición
+     * @return nombres de los jugadores
+     * @throws IOException si no se puede abrir el almacén
+     */
+    public synchronized List<String> getJugadores() throws IOException {
+        abrir();
+        return new ArrayList<>(jugadores);
+    }
+
+    /**
+     * Lee registros consecutivos.
+     * @param desde posición del primer registro, de 0 a {@link #getNumRegistros()}
+     * @param cantidad número máximo de registros
+     * @return registros leídos (menos si se llega al final)
+     * @throws IOException si no se pueden leer
+     */
+    public synchronized List<RegistroEstadistica> leer(long desde, int cantidad) throws IOException {
+        abrir();
+        long primero = primerConservado() + Math.max(0, desde);
+        long hasta = Math.min(registros, primero + Math.max(0, cantidad));
+        List<RegistroEstadistica> resultado = new ArrayList<>((int) Math.max(0, hasta - primero));
+        recorrer(primero, hasta, (numero, buffer) -> resultado.add(decodificar(buffer)));
+        return resultado;
+    }
+
+    /**
+     * Busca los registros de un intervalo de días (hora local) usando el índice por fecha.
+     * @param desde primer día incluido
+     * @param hasta último día incluido
+     * @return registros de esos días
+     * @throws IOException si no se pueden leer
+     */
+    public synchronized List<RegistroEstadistica> buscarPorFecha(LocalDate desde, LocalDate hasta) throws IOException {
+        abrir();
+        List<RegistroEstadistica> resultado = new ArrayList<>();
+        int inicio = primerDia(desde.toEpochDay());
+        if (inicio == numDias) {
+            return resultado;
+        }
+        int fin = primerDia(hasta.toEpochDay() + 1);
+        long primero = Math.max(primeros[inicio], primerConservado());
+        long ultimo = fin == numDias ? registros : primeros[fin];
+        ZoneId zona = ZoneId.systemDefault();
+        recorrer(primero, ultimo, (numero, buffer) -> {
+            RegistroEstadistica registro = decodificar(buffer);
+            LocalDate dia = LocalDate.ofInstant(Instant.ofEpochMilli(registro.getFecha()), zona);
+            if (!dia.isBefore(desde) && !dia.isAfter(hasta)) {
+                resultado.add(registro);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Busca los registros de un jugador usando su índice, sin recorrer el resto.
+     * @param jugador nombre del jugador
+     * @return registros del jugador, en orden
+     * @throws IOException si no se pueden leer
+     */
+    public synchronized List<RegistroEstadistica> buscarPorJugador(String jugador) throws IOException {
+        abrir();
+        List<RegistroEstadistica> resultado = new ArrayList<>();
+        Integer numero = numeroJugador.get(jugador == null ? "" : jugador);
+        if (numero == null) {
+            return resultado;
+        }
+        byte[] lista = Files.readAllBytes(archivoJugador(numero));
+        ByteBuffer entradas = ByteBuffer.wrap(lista);
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_REGISTRO);
+        long primero = primerConservado();
+        int segmento = 0;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            while (entradas.remaining() >= Integer.BYTES) {
+                long registro = Integer.toUnsignedLong(entradas.getInt());
+                if (registro < primero || registro >= registros) {
+                    continue;
+                }
+                if (registro >= base) {
+                    buffer.clear();
+                    leerTodo(canal, buffer, posicionActiva(registro));
+                    buffer.flip();
+                    resultado.add(decodificar(buffer));
+                } else {
+                    //Las listas están en orden, así que los segmentos se recorren una vez
+                    while (cerrados.get(segmento).fin() <= registro) {
+                        segmento++;
+                    }
+                    Segmento cerrado = cerrados.get(segmento);
+                    ByteBuffer datos = contenido(cerrado);
+                    datos.position(TAMANIO_CABECERA + (int) (registro - cerrado.primero) * TAMANIO_REGISTRO);
+                    resultado.add(decodificar(datos));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Abre el almacén la primera vez que se usa y vuelve a cargarlo si otro proceso ha añadido
+     * registros o cambiado los segmentos desde entonces.
+     */
+    private void abrir() throws IOException {
+        if (abierto && alDia()) {
+            return;
+        }
+        try (FileChannel bloqueo = abrirBloqueo(); FileLock exclusivo = bloqueo.lock()) {
+            sincronizar();
+        }
+        if (hayMantenimiento()) {
+            programarMantenimiento();
+        }
+    }
+
+    private FileChannel abrirBloqueo() throws IOException {
+        Files.createDirectories(indices);
+        return FileChannel.open(rutaBloqueo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Indica si lo que hay en memoria corresponde a lo que hay en disco.
+     */
+    private boolean alDia() throws IOException {
+        long tamanio;
+        try {
+            tamanio = Files.size(ruta);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        return tamanio == tamanioEsperado() && Objects.equals(leerMarcaSegmentos(), marcaSegmentos);
+    }
+
+    private FileTime leerMarcaSegmentos() throws IOException {
+        try {
+            return Files.getLastModifiedTime(segmentos);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tamaño del segmento activo según lo que hay en memoria.
+     */
+    private long tamanioEsperado() {
+        return posicionActiva(registros);
+    }
+
+    private long posicionActiva(long registro) {
+        return TAMANIO_CABECERA + (registro - base) * TAMANIO_REGISTRO;
+    }
+
+    /**
+     * Número del primer registro que todavía se puede consultar.
+     */
+    private long primerConservado() {
+        return cerrados.isEmpty() ? base : cerrados.get(0).primero;
+    }
+
+    /**
+     * Carga el almacén desde disco, con el bloqueo ya tomado: lee los segmentos cerrados,
+     * escribe la cabecera si el segmento activo es nuevo, descarta un registro a medio escribir
+     * y reconstruye los índices si no cubren todos los registros.
+     */
+    private void sincronizar() throws IOException {
+        cargarSegmentos();
+        segmentoLeido = null;
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            prepararCabecera(canal);
+            registros = base + (canal.size() - TAMANIO_CABECERA) / TAMANIO_REGISTRO;
+            //Un registro incompleto al final es de una escritura cortada
+            if (canal.size() != tamanioEsperado()) {
+                canal.truncate(tamanioEsperado());
+            }
+            diaActivo = SIN_DIA;
+            if (registros > base) {
+                ByteBuffer fecha = ByteBuffer.allocate(Long.BYTES);
+                leerTodo(canal, fecha, TAMANIO_CABECERA);
+                diaActivo = dia(fecha.flip().getLong(), ZoneId.systemDefault());
+            }
+        }
+        cargarJugadores();
+        if (leerIndexados() == registros) {
+            cargarFechas();
+        } else {
+            reconstruirIndices();
+        }
+        cargarResumen();
+        marcaSegmentos = leerMarcaSegmentos();
+        abierto = true;
+    }
+
+    /**
+     * Escribe la cabecera si el archivo es nuevo (o se cortó al crearlo) o comprueba que es válida.
+     */
+    private void prepararCabecera(FileChannel canal) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+        if (canal.size() < TAMANIO_CABECERA) {
+            cabecera.putInt(MAGIA).putInt(VERSION).putInt(TAMANIO_REGISTRO).putInt(0).flip();
+            canal.truncate(0);
+            escribirTodo(canal, cabecera, 0);
+            canal.force(true);
+        } else {
+            leerTodo(canal, cabecera, 0);
+            cabecera.flip();
+            if (cabecera.getInt() != MAGIA || cabecera.getInt() != VERSION || cabecera.getInt() != TAMANIO_REGISTRO) {
+                throw new IOException("Almacén de estadísticas no válido: " + ruta);
+            }
+        }
+    }
+
+    /**
+     * Lee la lista de segmentos cerrados y el número del primer registro del activo.
+     */
+    private void cargarSegmentos() throws IOException {
+        cerrados.clear();
+        base = 0;
+        if (!Files.isDirectory(segmentos)) {
+            return;
+        }
+        try {
+            base = ByteBuffer.wrap(Files.readAllBytes(segmentos.resolve("activo"))).getLong();
+        } catch (NoSuchFileException | BufferUnderflowException e) {
+            base = 0;
+        }
+        TreeMap<Long, Segmento> porPrimero = new TreeMap<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(segmentos, "segmento-*")) {
+            for (Path archivo : archivos) {
+                Segmento segmento = Segmento.de(archivo.getFileName().toString());
+                if (segmento == null) {
+                    continue;
+                }
+                Segmento otro = porPrimero.put(segmento.primero, segmento);
+                if (otro != null) {
+                    //Se cortó la compresión después de escribir la copia comprimida
+                    Segmento sinComprimir = segmento.comprimido ? otro : segmento;
+                    Files.deleteIfExists(segmentos.resolve(sinComprimir.nombre()));
+                    porPrimero.put(segmento.primero, segmento.comprimido ? segmento : otro);
+                }
+            }
+        }
+        cerrados.addAll(porPrimero.values());
+        if (!cerrados.isEmpty()) {
+            base = Math.max(base, cerrados.get(cerrados.size() - 1).fin());
+        }
+    }
+
+    /**
+     * Carga el resumen y le añade los registros que le falten (si se cortó una escritura).
+     * Si se ha perdido después de borrar segmentos, solo puede rehacerse con los que quedan.
+     */
+    private void cargarResumen() throws IOException {
+        resumen = null;
+        if (Files.exists(rutaResumen)) {
+            try {
+                byte[] datos = Files.readAllBytes(rutaResumen);
+                resumen = ResumenEstadisticas.desdeBytes(datos);
+                resumidos = datos.length >= TAMANIO_RESUMEN + Long.BYTES
+                        ? ByteBuffer.wrap(datos, TAMANIO_RESUMEN, Long.BYTES).getLong() : resumen.getPartidas();
+                csvIncluido = datos.length > TAMANIO_RESUMEN + Long.BYTES && datos[TAMANIO_RESUMEN + Long.BYTES] != 0;
+            } catch (IOException e) {
+                System.err.println("Resumen de estadísticas no válido, se vuelve a calcular: " + e.getMessage());
+                resumen = null;
+            }
+        }
+        if (resumen == null || resumidos > registros) {
+            resumen = new ResumenEstadisticas();
+            resumidos = primerConservado();
+            csvIncluido = false;
+        }
+        if (resumidos < registros) {
+            recorrer(Math.max(resumidos, primerConservado()), registros, (numero, buffer) -> resumen.agregar(decodificar(buffer)));
+            resumidos = registros;
+            guardarResumen();
+        }
+    }
+
+    private void guardarResumen() throws IOException {
+        byte[] bytes = resumen.aBytes();
+        ServicioPersistencia.escribirAtomico(rutaResumen, ByteBuffer.allocate(bytes.length + Long.BYTES + 1)
+                .put(bytes).putLong(resumidos).put((byte) (csvIncluido ? 1 : 0)).array());
+    }
+
+    private void cargarJugadores() throws IOException {
+        jugadores.clear();
+        numeroJugador.clear();
+        Path archivo = indices.resolve("jugadores");
+        if (!Files.exists(archivo)) {
+            return;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            while (true) {
+                String jugador;
+                try {
+                    jugador = entrada.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                numeroJugador.put(jugador, jugadores.size());
+                jugadores.add(jugador);
+            }
+        }
+    }
+
+    private void cargarFechas() throws IOException {
+        numDias = 0;
+        Path archivo = indices.resolve("fechas");
+        if (!Files.exists(archivo)) {
+            return;
+        }
+        ByteBuffer entradas = ByteBuffer.wrap(Files.readAllBytes(archivo));
+        while (entradas.remaining() >= TAMANIO_ENTRADA_FECHA) {
+            anotarDia(entradas.getInt(), entradas.getLong());
+        }
+    }
+
+    private long leerIndexados() throws IOException {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(indices.resolve("indexados"))).getLong();
+        } catch (NoSuchFileException | BufferUnderflowException e) {
+            return -1;
+        }
+    }
+
+    private void guardarIndexados() throws IOException {
+        ServicioPersistencia.escribirAtomico(indices.resolve("indexados"), ByteBuffer.allocate(Long.BYTES).putLong(registros).array());
+    }
+
+    /**
+     * Vuelve a generar los índices por fecha y por jugador recorriendo los registros que se conservan.
+     */
+    private void reconstruirIndices() throws IOException {
+        numDias = 0;
+        Files.deleteIfExists(indices.resolve("fechas"));
+        try (DirectoryStream<Path> listas = Files.newDirectoryStream(indices, "jugador-*")) {
+            for (Path lista : listas) {
+                Files.delete(lista);
+            }
+        }
+        for (long desde = primerConservado(); desde < registros; desde += REGISTROS_POR_LECTURA) {
+            long primero = desde;
+            long hasta = Math.min(registros, desde + REGISTROS_POR_LECTURA);
+            List<RegistroEstadistica> lote = new ArrayList<>((int) (hasta - desde));
+            int[] numeros = new int[(int) (hasta - desde)];
+            recorrer(desde, hasta, (numero, buffer) -> {
+                numeros[(int) (numero - primero)] = Short.toUnsignedInt(buffer.getShort(buffer.position() + POSICION_JUGADOR));
+                lote.add(decodificar(buffer));
+            });
+            indexar(lote, numeros, desde);
+        }
+        guardarIndexados();
+    }
+
+    /**
+     * Añade al índice por fecha y a las listas de los jugadores unos registros ya escritos.
+     * @param lote registros
+     * @param numeros número de jugador de cada registro
+     * @param primero número del primer registro del lote
+     */
+    private void indexar(List<RegistroEstadistica> lote, int[] numeros, long primero) throws IOException {
+        ZoneId zona = ZoneId.systemDefault();
+        ByteBuffer fechas = ByteBuffer.allocate(lote.size() * TAMANIO_ENTRADA_FECHA);
+        Map<Integer, ByteBuffer> listas = new HashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            long registro = primero + i;
+            int dia = dia(lote.get(i), zona);
+            if (numDias == 0 || dia > dias[numDias - 1]) {
+                anotarDia(dia, registro);
+                fechas.putInt(dia).putLong(registro);
+            }
+            listas.computeIfAbsent(numeros[i], n -> ByteBuffer.allocate(lote.size() * Integer.BYTES)).putInt((int) registro);
+        }
+        anadirAlFinal(indices.resolve("fechas"), fechas);
+        for (Map.Entry<Integer, ByteBuffer> lista : listas.entrySet()) {
+            anadirAlFinal(archivoJugador(lista.getKey()), lista.getValue());
+        }
+    }
+
+    private void anotarDia(int dia, long primero) {
+        if (numDias == dias.length) {
+            dias = Arrays.copyOf(dias, numDias * 2);
+            primeros = Arrays.copyOf(primeros, numDias * 2);
+        }
+        dias[numDias] = dia;
+        primeros[numDias] = primero;
+        numDias++;
+    }
+
+    /**
+     * Búsqueda binaria del primer día del índice que no es anterior al indicado.
+     * @return posición en el índice, o numDias si todos son anteriores
+     */
+    private int primerDia(long dia) {
+        int bajo = 0;
+        int alto = numDias;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (dias[medio] < dia) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private Path archivoJugador(int numero) {
+        return indices.resolve("jugador-" + numero);
+    }
+
+    private static int dia(RegistroEstadistica registro, ZoneId zona) {
+        return dia(registro.getFecha(), zona);
+    }
+
+    private static int dia(long fecha, ZoneId zona) {
+        return (int) LocalDate.ofInstant(Instant.ofEpochMilli(fecha), zona).toEpochDay();
+    }
+
+    private static void codificar(RegistroEstadistica registro, int jugador, ByteBuffer buffer) {
+        buffer.putLong(registro.getFecha());
+        buffer.putLong(registro.getSemilla());
+        buffer.putLong(registro.getMascaraMano() | (registro.isVictoria() ? BIT_VICTORIA : 0));
+        buffer.putShort((short) jugador);
+        int enemigoFinal = registro.getEnemigoFinal() == RegistroEstadistica.SIN_ENEMIGO ? SIN_ENEMIGO_FINAL : registro.getEnemigoFinal();
+        buffer.putShort((short) (registro.getEnemigosDerrotados() | enemigoFinal << RegistroEstadistica.TOTAL_ENEMIGOS));
+        buffer.putShort((short) Math.min(Math.max(registro.getCartasJugadas(), 0), 0xFFFF));
+        buffer.putShort((short) Math.min(Math.max(registro.getVidaEnemigo(), Short.MIN_VALUE), Short.MAX_VALUE));
+    }
+
+    private RegistroEstadistica decodificar(ByteBuffer buffer) {
+        long fecha = buffer.getLong();
+        long semilla = buffer.getLong();
+        long mano = buffer.getLong();
+        int jugador = Short.toUnsignedInt(buffer.getShort());
+        int enemigos = Short.toUnsignedInt(buffer.getShort());
+        int cartasJugadas = Short.toUnsignedInt(buffer.getShort());
+        int vidaEnemigo = buffer.getShort();
+        int enemigoFinal = enemigos >>> RegistroEstadistica.TOTAL_ENEMIGOS;
+        if (enemigoFinal >= RegistroEstadistica.TOTAL_ENEMIGOS) {
+            enemigoFinal = RegistroEstadistica.SIN_ENEMIGO;
+        }
+        return new RegistroEstadistica(fecha, jugador < jugadores.size() ? jugadores.get(jugador) : "",
+                cartasJugadas, vidaEnemigo, mano, (mano & BIT_VICTORIA) != 0, semilla,
+                enemigos & RegistroEstadistica.MASCARA_ENEMIGOS, enemigoFinal);
+    }
+
+    /**
+     * Acción sobre cada registro de un recorrido. El buffer está colocado al principio del registro.
+     */
+    private interface Visitante {
+        void visitar(long numero, ByteBuffer buffer);
+    }
+
+    /**
+     * Recorre los registros [desde, hasta), pasando de un segmento a otro.
+     */
+    private void recorrer(long desde, long hasta, Visitante visitante) throws IOException {
+        for (Segmento segmento : cerrados) {
+            long inicio = Math.max(desde, segmento.primero);
+            long fin = Math.min(hasta, segmento.fin());
+            if (inicio < fin) {
+                ByteBuffer datos = contenido(segmento);
+                for (long numero = inicio; numero < fin; numero++) {
+                    datos.position(TAMANIO_CABECERA + (int) (numero - segmento.primero) * TAMANIO_REGISTRO);
+                    visitante.visitar(numero, datos);
+                }
+            }
+        }
+        long inicio = Math.max(desde, base);
+        if (inicio < hasta) {
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+                recorrerActivo(canal, inicio, hasta, visitante);
+            }
+        }
+    }
+
+    /**
+     * Recorre registros del segmento activo leyendo por bloques.
+     */
+    private void recorrerActivo(FileChannel canal, long desde, long hasta, Visitante visitante) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(hasta - desde, REGISTROS_POR_LECTURA) * TAMANIO_REGISTRO);
+        for (long bloque = desde; bloque < hasta; bloque += REGISTROS_POR_LECTURA) {
+            int numero = (int) Math.min(hasta - bloque, REGISTROS_POR_LECTURA);
+            buffer.clear().limit(numero * TAMANIO_REGISTRO);
+            leerTodo(canal, buffer, posicionActiva(bloque));
+            for (int i = 0; i < numero; i++) {
+                buffer.position(i * TAMANIO_REGISTRO);
+                visitante.visitar(bloque + i, buffer);
+            }
+        }
+    }
+
+    /**
+     * Obtiene el contenido de un segmento cerrado, descomprimido. Se guarda el último leído,
+     * porque las consultas suelen leer varias veces seguidas del mismo segmento.
+     */
+    private ByteBuffer contenido(Segmento segmento) throws IOException {
+        if (segmento == segmentoLeido) {
+            return contenidoLeido;
+        }
+        Path archivo = segmentos.resolve(segmento.nombre());
+        byte[] bytes;
+        try (InputStream entrada = segmento.comprimido
+                ? new GZIPInputStream(Files.newInputStream(archivo)) : Files.newInputStream(archivo)) {
+            bytes = entrada.readAllBytes();
+        } catch (NoSuchFileException e) {
+            //Otro proceso lo ha comprimido o borrado: la próxima consulta vuelve a cargar los segmentos
+            abierto = false;
+            throw e;
+        }
+        if (bytes.length < TAMANIO_CABECERA + (long) segmento.cantidad * TAMANIO_REGISTRO) {
+            throw new IOException("Segmento de estadísticas incompleto: " + archivo);
+        }
+        segmentoLeido = segmento;
+        contenidoLeido = ByteBuffer.wrap(bytes);
+        return contenidoLeido;
+    }
+
+    /**
+     * Segmento cerrado: sus registros y el día de todos ellos, que forman parte del nombre del archivo.
+     */
+    private static final class Segmento {
+        final long primero;
+        final int cantidad;
+        final int dia;
+        final boolean comprimido;
+
+        Segmento(long primero, int cantidad, int dia, boolean comprimido) {
+            this.primero = primero;
+            this.cantidad = cantidad;
+            this.dia = dia;
+            this.comprimido = comprimido;
+        }
+
+        long fin() {
+            return primero + cantidad;
+        }
+
+        String nombre() {
+            return "segmento-" + primero + "-" + cantidad + "-" + dia + (comprimido ? ".dat.gz" : ".dat");
+        }
+
+        /**
+         * Interpreta el nombre de un archivo de segmento.
+         * @return el segmento, o null si el nombre no es de un segmento (por ejemplo, un temporal)
+         */
+        static Segmento de(String nombre) {
+            boolean comprimido = nombre.endsWith(".dat.gz");
+            if (!comprimido && !nombre.endsWith(".dat")) {
+                return null;
+            }
+            String[] partes = nombre.substring("segmento-".length(), nombre.indexOf(".dat")).split("-", 3);
+            if (partes.length != 3) {
+                return null;
+            }
+            try {
+                return new Segmento(Long.parseLong(partes[0]), Integer.parseInt(partes[1]), Integer.parseInt(partes[2]), comprimido);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static void anadirAlFinal(Path archivo, ByteBuffer datos) throws IOException {
+        datos.flip();
+        if (!datos.hasRemaining()) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (datos.hasRemaining()) {
+                canal.write(datos);
+            }
+            canal.force(false);
+        }
+    }
+
+    private static void escribirTodo(FileChannel canal, ByteBuffer datos, long posicion) throws IOException {
+        while (datos.hasRemaining()) {
+            posicion += canal.write(datos, posicion);
+        }
+    }
+
+    private static void leerTodo(FileChannel canal, ByteBuffer datos, long posicion) throws IOException {
+        while (datos.hasRemaining()) {
+            int leidos = canal.read(datos, posicion);
+            if (leidos < 0) {
+                throw new EOFException("Almacén de estadísticas incompleto: " + canal);
+            }
+            posicion += leidos;
+        }
+    }
+}
@@ -21,12 +21,15 @@ public class Aplicacion extends Application {
      * Metodo de entrada de la aplicación JavaFX.
      * Carga la interfaz desde el archivo FXML (menu.fxml),
      * crea la escena, configura la ventana principal y la muestra.
+     * Las imágenes de las cartas se empiezan a cargar en segundo plano.
      *
      * @param stage El escenario principal proporcionado por JavaFX.
      * @throws IOException Si ocurre un error al cargar el archivo FXML.
      */
     @Override
     public void start(Stage stage) throws IOException {
+        //Decodificar las cartas mientras se muestra el menú
+        ImagenesCartas.precargar();
         FXMLLoader fxmlLoader = new FXMLLoader(Aplicacion.class.getResource("menu.fxml"));
         Scene scene = new Scene(fxmlLoader.load());
         stage.setTitle("REGICIDE");
@@ -35,6 +38,14 @@ public class Aplicacion extends Application {
         stage.show();
     }
 
+    /**
+     * Al cerrar la ventana, espera a que terminen los guardados y las estadísticas pendientes.
+     */
+    @Override
+    public void stop() {
+        ServicioPersistencia.getInstancia().vaciar(Partida.ESPERA_ESCRITURAS_MS);
+    }
+
     /**
      * Metodo principal que lanza la aplicación JavaFX.
      * @param args Argumentos de línea de comandos (no utilizados).
@@ -0,0 +1,189 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+import java.util.ArrayDeque;
+
+/**
+ * Avisos y preguntas de la pantalla de partida, dibujados dentro de la propia escena.
+ * <p>
+ * Sustituyen a los {@code Alert.showAndWait()}: no abren otra ventana ni bloquean la partida.
+ * Los avisos se encolan y se muestran de uno en uno durante {@link #DURACION_AVISO} sin recibir
+ * clics. La pregunta es un panel con uno o dos botones que se queda a la vista hasta que se
+ * responde, con el ratón o con {@link #aceptar()} y {@link #cancelar()} (Intro y Escape en la
+ * partida); mientras tanto se puede seguir jugando.
+ * </p>
+ * Se usa desde el hilo de JavaFX.
+ */
+public final class AvisosPartida {
+    /** Tiempo que se ve cada aviso */
+    static final Duration DURACION_AVISO = Duration.millis(1600);
+    /** Tiempo que tarda un aviso en aparecer o desaparecer */
+    static final Duration DURACION_FUNDIDO = Duration.millis(150);
+    /** Avisos en cola como mucho; si llegan más se descartan los más antiguos */
+    static final int MAX_AVISOS_PENDIENTES = 8;
+
+    private static final String ESTILO_PANEL = "-fx-background-color: rgba(0, 0, 0, 0.8); -fx-background-radius: 8; "
+            + "-fx-padding: 12 20 12 20;";
+    private static final String ESTILO_TEXTO = "-fx-text-fill: white; -fx-font-size: 16px;";
+
+    private final ArrayDeque<String> pendientes = new ArrayDeque<>();
+    private final Label aviso = new Label();
+    private final SequentialTransition animacion;
+
+    private final VBox panel;
+    private final Label pregunta = new Label();
+    private final Button btnAceptar = new Button();
+    private final Button btnCancelar = new Button();
+    private Runnable alAceptar, alCancelar;
+
+    /**
+     * Añade los avisos y el panel de preguntas encima del resto de la pantalla.
+     * @param raiz contenedor raíz de la pantalla de partida
+     */
+    public AvisosPartida(AnchorPane raiz) {
+        //Avisos: centrados entre el enemigo y la carta jugada, sin recoger clics
+        aviso.setStyle(ESTILO_PANEL + ESTILO_TEXTO);
+        aviso.setWrapText(true);
+        aviso.setMaxWidth(600);
+        aviso.setOpacity(0);
+        HBox capaAvisos = new HBox(aviso);
+        capaAvisos.setAlignment(Pos.CENTER);
+        capaAvisos.setMouseTransparent(true);
+        anclarAncho(capaAvisos);
+        AnchorPane.setTopAnchor(capaAvisos, 250.0);
+
+        FadeTransition aparecer = new FadeTransition(DURACION_FUNDIDO, aviso);
+        aparecer.setToValue(1);
+        FadeTransition desaparecer = new FadeTransition(DURACION_FUNDIDO, aviso);
+        desaparecer.setToValue(0);
+        animacion = new SequentialTransition(aparecer, new PauseTransition(DURACION_AVISO), desaparecer);
+        animacion.setOnFinished(event -> siguienteAviso());
+
+        //Pregunta: encima de la mano; solo el panel recoge clics, no el hueco de alrededor
+        pregunta.setStyle(ESTILO_TEXTO);
+        pregunta.setWrapText(true);
+        btnAceptar.setOnAction(event -> aceptar());
+        btnCancelar.setOnAction(event -> cancelar());
+        //Intro y Escape los gestiona la partida, los botones no deben quedarse con el foco
+        btnAceptar.setFocusTraversable(false);
+        btnCancelar.setFocusTraversable(false);
+        HBox botones = new HBox(10, btnAceptar, btnCancelar);
+        botones.setAlignment(Pos.CENTER);
+        panel = new VBox(10, pregunta, botones);
+        panel.setAlignment(Pos.CENTER);
+        panel.setStyle(ESTILO_PANEL);
+        panel.setMaxWidth(600);
+        panel.setVisible(false);
+        HBox capaPregunta = new HBox(panel);
+        capaPregunta.setAlignment(Pos.CENTER);
+        capaPregunta.setPickOnBounds(false);
+        anclarAncho(capaPregunta);
+        AnchorPane.setBottomAnchor(capaPregunta, 200.0);
+
+        raiz.getChildren().addAll(capaPregunta, capaAvisos);
+    }
+
+    private static void anclarAncho(HBox capa) {
+        AnchorPane.setLeftAnchor(capa, 0.0);
+        AnchorPane.setRightAnchor(capa, 0.0);
+    }
+
+    /**
+     * Encola un aviso. Si no se está mostrando otro aparece al momento.
+     * @param mensaje texto del aviso
+     */
+    public void avisar(String mensaje) {
+        if (pendientes.size() == MAX_AVISOS_PENDIENTES) {
+            pendientes.removeFirst();
+        }
+        pendientes.addLast(mensaje);
+        if (animacion.getStatus() != Animation.Status.RUNNING) {
+            siguienteAviso();
+        }
+    }
+
+    /**
+     * Muestra el siguiente aviso de la cola, o nada si está vacía.
+     */
+    private void siguienteAviso() {
+        String mensaje = pendientes.pollFirst();
+        if (mensaje == null) return;
+        aviso.setText(mensaje);
+        //Con más avisos esperando se acelera, para no ir por detrás de la partida
+        animacion.setRate(pendientes.isEmpty() ? 1 : 2);
+        animacion.playFromStart();
+    }
+
+    /**
+     * Muestra una pregunta, sustituyendo a la que hubiera.
+     * @param mensaje texto de la pregunta
+     * @param textoAceptar texto del botón de aceptar (Intro)
+     * @param alAceptar acción al aceptar
+     * @param textoCancelar texto del botón de cancelar (Escape), o null para no mostrarlo
+     * @param alCancelar acción al cancelar, o null si no hace nada más que cerrar la pregunta
+     */
+    public void preguntar(String mensaje, String textoAceptar, Runnable alAceptar,
+                          String textoCancelar, Runnable alCancelar) {
+        pregunta.setText(mensaje);
+        btnAceptar.setText(textoAceptar);
+        boolean conCancelar = textoCancelar != null;
+        btnCancelar.setText(conCancelar ? textoCancelar : "");
+        btnCancelar.setVisible(conCancelar);
+        btnCancelar.setManaged(conCancelar);
+        this.alAceptar = alAceptar;
+        this.alCancelar = alCancelar;
+        panel.setVisible(true);
+    }
+
+    /**
+     * Cierra la pregunta sin ejecutar ninguna acción.
+     */
+    public void cerrarPregunta() {
+        panel.setVisible(false);
+        alAceptar = null;
+        alCancelar = null;
+    }
+
+    /**
+     * @return si hay una pregunta a la vista
+     */
+    public boolean hayPregunta() {
+        return panel.isVisible();
+    }
+
+    /**
+     * Responde que sí a la pregunta a la vista.
+     * @return si había pregunta
+     */
+    public boolean aceptar() {
+        if (!hayPregunta()) return false;
+        Runnable accion = alAceptar;
+        //Se cierra antes de la acción, que puede abrir otra pregunta
+        cerrarPregunta();
+        if (accion != null) accion.run();
+        return true;
+    }
+
+    /**
+     * Responde que no a la pregunta a la vista. Si solo tiene el botón de aceptar no hace nada.
+     * @return si había pregunta que se pudiera cancelar
+     */
+    public boolean cancelar() {
+        if (!hayPregunta() || !btnCancelar.isVisible()) return false;
+        Runnable accion = alCancelar;
+        cerrarPregunta();
+        if (accion != null) accion.run();
+        return true;
+    }
+}
@@ -0,0 +1,469 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Jugador automático basado en Monte Carlo Tree Search.
+ * <p>
+ * Como el orden del mazo Posada (y de los enemigos del castillo del mismo rango) está oculto,
+ * cada iteración parte de una copia de la partida en la que esas cartas se barajan al azar
+ * (determinización) y recorre un árbol de decisiones compartido por todas las determinizaciones
+ * (ISMCTS). Las acciones del árbol se identifican por las cartas jugadas (máscara de códigos),
+ * no por su posición en la mano, para que sean las mismas en todas las determinizaciones.
+ * Al llegar a una hoja la partida se termina con jugadas aleatorias (rollout).
+ * </p>
+ * <p>
+ * La búsqueda se reparte entre un pool de hilos: cada hilo construye su propio árbol y al final
+ * se suman las visitas de las acciones de la raíz (paralelización en la raíz). El presupuesto
+ * puede ser de iteraciones o de tiempo por decisión, y se mide el número de rollouts por segundo.
+ * </p>
+ */
+public class BotMCTS implements PoliticaJugador, AutoCloseable {
+    /** Constante de exploración de UCB1 (las recompensas están entre 0 y 1) */
+    private static final double EXPLORACION = 0.7;
+    /** Número máximo de decisiones que se expanden en el árbol antes del rollout */
+    private static final int PROFUNDIDAD_MAXIMA = 6;
+
+    private final int hilos;
+    private final long iteraciones;
+    private final long tiempoMs;
+    private final long semilla;
+    private final Random semillas;
+    private final ExecutorService pool;
+
+    private long rolloutsTotales;
+    private long nanosTotales;
+
+    /**
+     * Crea un bot.
+     * @param hilos número de hilos de búsqueda
+     * @param iteraciones rollouts por decisión (0 = sin límite de iteraciones)
+     * @param tiempoMs tiempo máximo por decisión en milisegundos (0 = sin límite de tiempo)
+     * @param semilla semilla de las determinizaciones y los rollouts
+     */
+    public BotMCTS(int hilos, long iteraciones, long tiempoMs, long semilla) {
+        if (iteraciones <= 0 && tiempoMs <= 0) {
+            throw new IllegalArgumentException("Hay que indicar un presupuesto de iteraciones o de tiempo");
+        }
+        this.hilos = Math.max(1, hilos);
+        this.iteraciones = iteraciones;
+        this.tiempoMs = tiempoMs;
+        this.semilla = semilla;
+        this.semillas = new Random(semilla);
+        //Con un solo hilo se busca en el hilo que llama, sin pool
+        this.pool = this.hilos > 1 ? Executors.newFixedThreadPool(this.hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "mcts");
+            hilo.setDaemon(true);
+            return hilo;
+        }) : null;
+    }
+
+    /**
+     * Crea un bot con un presupuesto fijo de rollouts por decisión.
+     * @param iteraciones rollouts por decisión
+     * @param hilos número de hilos de búsqueda
+     * @param semilla semilla de la búsqueda
+     * @return el bot
+     */
+    public static BotMCTS porIteraciones(long iteraciones, int hilos, long semilla) {
+        return new BotMCTS(hilos, iteraciones, 0, semilla);
+    }
+
+    /**
+     * Crea un bot con un presupuesto de tiempo por decisión.
+     * @param tiempoMs milisegundos por decisión
+     * @param hilos número de hilos de búsqueda
+     * @param semilla semilla de la búsqueda
+     * @return el bot
+     */
+    public static BotMCTS porTiempo(long tiempoMs, int hilos, long semilla) {
+        return new BotMCTS(hilos, 0, tiempoMs, semilla);
+    }
+
+    @Override
+    public void nuevaPartida(long semillaPartida) {
+        semillas.setSeed(GeneradorAleatorio.mezclar(semilla ^ semillaPartida));
+    }
+
+    @Override
+    public List<Integer> elegirAtaque(Partida partida) {
+        return decidir(partida, false);
+    }
+
+    @Override
+    public ArrayList<Integer> elegirDefensa(Partida partida) {
+        return decidir(partida, true);
+    }
+
+    /**
+     * Obtiene el número de rollouts realizados desde que se creó el bot.
+     * @return rollouts totales
+     */
+    public long getRolloutsTotales() {
+        return rolloutsTotales;
+    }
+
+    /**
+     * Obtiene la velocidad media de búsqueda.
+     * @return rollouts por segundo
+     */
+    public double getRolloutsPorSegundo() {
+        return nanosTotales == 0 ? 0 : rolloutsTotales * 1e9 / nanosTotales;
+    }
+
+    /**
+     * Detiene los hilos de búsqueda.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Ejecuta la búsqueda desde la partida indicada y devuelve las posiciones de la mano elegidas.
+     */
+    private ArrayList<Integer> decidir(Partida partida, boolean defensa) {
+        long[] acciones = new long[EvaluadorJugadas.MAX_JUGADAS];
+        int numAcciones = accionesLegales(partida, defensa, acciones, new int[EvaluadorJugadas.MAX_JUGADAS]);
+        if (numAcciones == 0) {
+            //Sin defensa posible se entrega toda la mano; sin cartas no hay ataque
+            return defensa ? PoliticaVoraz.indices((1 << partida.getMano().size()) - 1, partida.getMano().size()) : new ArrayList<>();
+        }
+        if (numAcciones == 1) {
+            return posiciones(partida, acciones[0]);
+        }
+
+        long inicio = System.nanoTime();
+        long limite = tiempoMs > 0 ? inicio + tiempoMs * 1_000_000 : Long.MAX_VALUE;
+        long porHilo = iteraciones > 0 ? (iteraciones + hilos - 1) / hilos : Long.MAX_VALUE;
+
+        List<Trabajador> trabajadores = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            trabajadores.add(new Trabajador(partida, defensa, new Random(semillas.nextLong()), porHilo, limite));
+        }
+        List<Nodo> arboles = ejecutar(trabajadores);
+
+        //Sumar las visitas de la raíz de todos los árboles y elegir la acción más visitada
+        Map<Long, Long> visitas = new HashMap<>();
+        for (Nodo arbol : arboles) {
+            for (Nodo hijo : arbol.hijos) {
+                visitas.merge(hijo.accion, (long) hijo.visitas, Long::sum);
+            }
+        }
+        long mejor = acciones[0];
+        long mejorVisitas = -1;
+        for (Map.Entry<Long, Long> entrada : visitas.entrySet()) {
+            if (entrada.getValue() > mejorVisitas) {
+                mejor = entrada.getKey();
+                mejorVisitas = entrada.getValue();
+            }
+        }
+
+        nanosTotales += System.nanoTime() - inicio;
+        for (Trabajador trabajador : trabajadores) {
+            rolloutsTotales += trabajador.rollouts;
+        }
+        return posiciones(partida, mejor);
+    }
+
+    /**
+     * Ejecuta los trabajadores en el pool (o en este hilo si solo hay uno) y recoge sus árboles.
+     */
+    private List<Nodo> ejecutar(List<Trabajador> trabajadores) {
+        List<Nodo> arboles = new ArrayList<>();
+        try {
+            if (pool == null) {
+                for (Trabajador trabajador : trabajadores) {
+                    arboles.add(trabajador.call());
+                }
+                return arboles;
+            }
+            for (Future<Nodo> futuro : pool.invokeAll(trabajadores)) {
+                arboles.add(futuro.get());
+            }
+            return arboles;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Búsqueda interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error durante la búsqueda", e.getCause());
+        }
+    }
+
+    /**
+     * Escribe las acciones legales (máscaras de cartas) del estado.
+     * @return número de acciones
+     */
+    private static int accionesLegales(Partida estado, boolean defensa, long[] acciones, int[] subconjuntos) {
+        int n = defensa
+                ? EvaluadorJugadas.listarDefensas(estado, subconjuntos, true)
+                : EvaluadorJugadas.listarAtaques(estado, subconjuntos);
+        TablaJugadas tabla = estado.getTablaJugadas();
+        for (int i = 0; i < n; i++) {
+            acciones[i] = tabla.getCartas(subconjuntos[i]);
+        }
+        return n;
+    }
+
+    /**
+     * Convierte una máscara de cartas en posiciones de la mano.
+     */
+    private static ArrayList<Integer> posiciones(Partida estado, long cartas) {
+        ArrayList<Integer> indices = new ArrayList<>();
+        List<Carta> mano = estado.getMano();
+        for (int i = 0; i < mano.size(); i++) {
+            if ((cartas & (1L << mano.get(i).getCodigo())) != 0) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Aplica una acción al estado.
+     * @return true si la siguiente decisión es una defensa
+     */
+    private static boolean aplicar(Partida estado, boolean defensa, long cartas) {
+        if (defensa) {
+            estado.manejarDefensa(posiciones(estado, cartas), null);
+            return false;
+        }
+        estado.setEnemigoReciente(false);
+        estado.jugarCarta(posiciones(estado, cartas));
+        return !estado.isPartidaTerminada() && !estado.isEnemigoReciente() && estado.getDanioEnemigo() > 0;
+    }
+
+    /**
+     * Termina la partida cuando no hay ninguna acción legal (mano vacía o defensa insuficiente).
+     */
+    private static void perder(Partida estado, boolean defensa) {
+        if (defensa) {
+            estado.manejarDefensa(PoliticaVoraz.indices((1 << estado.getMano().size()) - 1, estado.getMano().size()), null);
+        } else {
+            estado.jugarCarta(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Recompensa de una partida terminada: 1 por victoria, y si no, una fracción según los enemigos derrotados.
+     */
+    private static double recompensa(Partida estado) {
+        if (estado.isVictoria()) {
+            return 1.0;
+        }
+        return 0.9 * (12 - estado.getCastillo().size()) / 12.0;
+    }
+
+    /**
+     * Baraja las cartas ocultas: el mazo Posada salvo las cartas de la cima que el jugador
+     * conoce (enemigos derrotados con daño exacto), y los enemigos del castillo del mismo rango
+     * (el enemigo actual es visible y no se mueve).
+     */
+    private static void determinizar(Partida estado, Random aleatorio) {
+        Mazo posada = estado.getMazoPosada();
+        Collections.shuffle(posada.subList(estado.getCartasConocidasPosada(), posada.size()), aleatorio);
+        List<Carta> castillo = estado.getCastillo();
+        int inicio = 1;
+        while (inicio < castillo.size()) {
+            int fin = inicio;
+            while (fin < castillo.size() && castillo.get(fin).getNumero() == castillo.get(inicio).getNumero()) {
+                fin++;
+            }
+            Collections.shuffle(castillo.subList(inicio, fin), aleatorio);
+            inicio = fin;
+        }
+    }
+
+    /**
+     * Nodo del árbol de búsqueda. La acción es la máscara de cartas que lleva a este nodo.
+     */
+    private static final class Nodo {
+        final long accion;
+        final List<Nodo> hijos = new ArrayList<>();
+        int visitas;
+        int disponibles;
+        double recompensa;
+
+        Nodo(long accion) {
+            this.accion = accion;
+        }
+    }
+
+    /**
+     * Búsqueda de un hilo sobre su propio árbol.
+     */
+    private static final class Trabajador implements Callable<Nodo> {
+        private final Partida raiz;
+        private final boolean defensaRaiz;
+        private final Random aleatorio;
+        private final long maxIteraciones;
+        private final long limite;
+        private final long[] acciones = new long[EvaluadorJugadas.MAX_JUGADAS];
+        private final int[] subconjuntos = new int[EvaluadorJugadas.MAX_JUGADAS];
+        private final Nodo[] encontrados = new Nodo[EvaluadorJugadas.MAX_JUGADAS];
+        private final List<Nodo> camino = new ArrayList<>();
+        long rollouts;
+
+        Trabajador(Partida raiz, boolean defensaRaiz, Random aleatorio, long maxIteraciones, long limite) {
+            this.raiz = raiz;
+            this.defensaRaiz = defensaRaiz;
+            this.aleatorio = aleatorio;
+            this.maxIteraciones = maxIteraciones;
+            this.limite = limite;
+        }
+
+        @Override
+        public Nodo call() {
+            Nodo arbol = new Nodo(0);
+            for (long i = 0; i < maxIteraciones && System.nanoTime() < limite; i++) {
+                Partida estado = raiz.copiar(aleatorio);
+                determinizar(estado, aleatorio);
+                boolean defensa = defensaRaiz;
+
+                //Selección y expansión
+                Nodo nodo = arbol;
+                camino.clear();
+                camino.add(nodo);
+                for (int profundidad = 0; profundidad < PROFUNDIDAD_MAXIMA && !estado.isPartidaTerminada(); profundidad++) {
+                    int n = accionesLegales(estado, defensa, acciones, subconjuntos);
+                    if (n == 0) {
+                        perder(estado, defensa);
+                        break;
+                    }
+                    Nodo hijo = seleccionar(nodo, n);
+                    defensa = aplicar(estado, defensa, hijo.accion);
+                    camino.add(hijo);
+                    nodo = hijo;
+                    if (hijo.visitas == 0) {
+                        break;
+                    }
+                }
+
+                //Rollout y retropropagación
+                double valor = simular(estado, defensa);
+                for (Nodo visitado : camino) {
+                    visitado.visitas++;
+                    visitado.recompensa += valor;
+                }
+                rollouts++;
+            }
+            return arbol;
+        }
+
+        /**
+         * Elige el hijo por el que bajar: una acción sin explorar si la hay, y si no, la de mayor UCB1
+         * entre las acciones disponibles en esta determinización.
+         */
+        private Nodo seleccionar(Nodo nodo, int n) {
+            int sinExplorar = 0;
+            for (int i = 0; i < n; i++) {
+                encontrados[i] = null;
+                for (Nodo hijo : nodo.hijos) {
+                    if (hijo.accion == acciones[i]) {
+                        encontrados[i] = hijo;
+                        hijo.disponibles++;
+                        break;
+                    }
+                }
+                if (encontrados[i] == null) {
+                    sinExplorar++;
+                }
+            }
+
+            if (sinExplorar > 0) {
+                int elegida = aleatorio.nextInt(sinExplorar);
+                for (int i = 0; i < n; i++) {
+                    if (encontrados[i] == null && elegida-- == 0) {
+                        Nodo nuevo = new Nodo(acciones[i]);
+                        nuevo.disponibles = 1;
+                        nodo.hijos.add(nuevo);
+                        return nuevo;
+                    }
+                }
+            }
+
+            Nodo mejor = null;
+            double mejorValor = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                Nodo hijo = encontrados[i];
+                double valor = hijo.recompensa / hijo.visitas
+                        + EXPLORACION * Math.sqrt(Math.log(hijo.disponibles) / hijo.visitas);
+                if (valor > mejorValor) {
+                    mejor = hijo;
+                    mejorValor = valor;
+                }
+            }
+            return mejor;
+        }
+
+        /**
+         * Termina la partida con jugadas aleatorias y devuelve su recompensa.
+         */
+        private double simular(Partida estado, boolean defensa) {
+            while (!estado.isPartidaTerminada()) {
+                int n = accionesLegales(estado, defensa, acciones, subconjuntos);
+                if (n == 0) {
+                    perder(estado, defensa);
+                    break;
+                }
+                defensa = aplicar(estado, defensa, acciones[aleatorio.nextInt(n)]);
+            }
+            return recompensa(estado);
+        }
+    }
+
+    /**
+     * Mide la velocidad de búsqueda y su escalado de 1 a N hilos sobre un mismo reparto.
+     * @param args [hilos máximos] [milisegundos por medida] [semilla]
+     */
+    public static void main(String[] args) {
+        int maxHilos = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long tiempoMs = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+
+        Partida partida = new Partida("MCTS", semilla);
+        partida.setSimulacion(true);
+        partida.generarBaraja();
+        partida.prepararColecciones();
+
+        //Calentamiento para que la primera medida no incluya la compilación JIT
+        try (BotMCTS bot = porTiempo(tiempoMs, 1, semilla)) {
+            bot.elegirAtaque(partida);
+        }
+
+        //Potencias de dos por debajo del máximo y después el máximo, aunque no sea potencia de dos
+        double base = medir(partida, tiempoMs, 1, semilla, 0);
+        for (int hilos = 2; hilos < maxHilos; hilos *= 2) {
+            medir(partida, tiempoMs, hilos, semilla, base);
+        }
+        if (maxHilos > 1) {
+            medir(partida, tiempoMs, maxHilos, semilla, base);
+        }
+    }
+
+    /**
+     * Mide la velocidad de búsqueda con un número de hilos y la muestra.
+     * @param base velocidad con un hilo, o 0 si es esta medida
+     * @return rollouts por segundo
+     */
+    private static double medir(Partida partida, long tiempoMs, int hilos, long semilla, double base) {
+        try (BotMCTS bot = porTiempo(tiempoMs, hilos, semilla)) {
+            bot.elegirAtaque(partida);
+            double velocidad = bot.getRolloutsPorSegundo();
+            System.out.printf("%d hilos: %.0f rollouts/s (x%.2f)%n", hilos, velocidad, velocidad / (base > 0 ? base : velocidad));
+            return velocidad;
+        }
+    }
+}
@@ -9,6 +9,8 @@ public abstract class Carta {
     protected int numero;
     protected String palo;
     protected boolean esCompanieroAnimal;
+    /** Código compacto de la carta (ver CodigoCarta); no se guarda en el JSON */
+    protected transient int codigo;
 
     /**
      * Constructor para crear una nueva carta
@@ -19,6 +21,7 @@ public abstract class Carta {
         this.numero = numero;
         this.palo = palo;
         this.esCompanieroAnimal = (numero == 1);
+        this.codigo = CodigoCarta.codificar(numero, palo);
     }
 
     /**
@@ -37,6 +40,22 @@ public abstract class Carta {
         return palo;
     }
 
+    /**
+     * Obtener el código compacto de la carta (0-51)
+     * @return código de la carta o CodigoCarta.SIN_CODIGO si no pertenece a la baraja
+     */
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtener el índice del palo de la carta (0-3)
+     * @return índice del palo, o -1 si la carta no pertenece a la baraja
+     */
+    public int getIndicePalo() {
+        return codigo == CodigoCarta.SIN_CODIGO ? -1 : CodigoCarta.palo(codigo);
+    }
+
     /**
      * Determina si esta carta es un compañero animal (As).
      * @return TRUE = si la carta es un As (número 1), FALSE = en caso contrario
@@ -1,27 +1,102 @@
 package org.example.regicidegrafico_juliomalpica;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
 
-public class CartaAdapter implements JsonSerializer<Carta>, JsonDeserializer<Carta> {
+/**
+ * Adaptador de Gson para las cartas. Lee y escribe directamente sobre el flujo JSON,
+ * sin reflexión ni árboles intermedios de {@code JsonElement}.
+ * El campo "type" indica la clase concreta de la carta, igual que en los guardados anteriores.
+ */
+public class CartaAdapter extends TypeAdapter<Carta> {
 
     @Override
-    public JsonElement serialize(Carta src, Type typeOfSrc, JsonSerializationContext context) {
-        JsonObject jsonObject = context.serialize(src).getAsJsonObject();
-        jsonObject.addProperty("type", src.getClass().getSimpleName());
-        return jsonObject;
+    public void write(JsonWriter out, Carta carta) throws IOException {
+        if (carta == null) {
+            out.nullValue();
+            return;
+        }
+        escribir(out, carta, true);
     }
 
     @Override
-    public Carta deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        JsonObject jsonObject = json.getAsJsonObject();
-        String type = jsonObject.get("type").getAsString();
+    public Carta read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int numero = 0;
+        String palo = null;
+        String type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "numero":
+                    numero = in.nextInt();
+                    break;
+                case "palo":
+                    palo = in.nextString();
+                    break;
+                case "type":
+                    type = in.nextString();
+                    break;
+                default:
+                    //esCompanieroAnimal se deduce del número
+                    in.skipValue();
+            }
+        }
+        in.endObject();
 
         if ("CartaNormal".equals(type)) {
-            return context.deserialize(json, CartaNormal.class);
+            //Usar la instancia compartida de la carta para que el motor disponga de su código
+            return CodigoCarta.carta(numero, palo);
         }
 
         throw new JsonParseException("Tipo desconocido de carta: " + type);
     }
+
+    /**
+     * Escribe una carta como objeto JSON.
+     * @param out destino
+     * @param carta carta a escribir
+     * @param conTipo si se añade el campo "type" (necesario para volver a leerla)
+     * @throws IOException si falla la escritura
+     */
+    static void escribir(JsonWriter out, Carta carta, boolean conTipo) throws IOException {
+        out.beginObject();
+        out.name("numero").value(carta.getNumero());
+        out.name("palo").value(carta.getPalo());
+        out.name("esCompanieroAnimal").value(carta.esCompanieroAnimal());
+        if (conTipo) {
+            out.name("type").value(carta.getClass().getSimpleName());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Convierte una lista de cartas en un array JSON sin el campo "type",
+     * el formato de la columna Estado Mano de las estadísticas.
+     * @param cartas cartas a convertir
+     * @return array JSON
+     */
+    static String aJsonSinTipo(List<Carta> cartas) {
+        StringWriter texto = new StringWriter(cartas.size() * 64 + 2);
+        try (JsonWriter out = new JsonWriter(texto)) {
+            out.beginArray();
+            for (Carta carta : cartas) {
+                escribir(out, carta, false);
+            }
+            out.endArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return texto.toString();
+    }
 }
@@ -0,0 +1,230 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Formato binario versionado para guardar partidas, más compacto y rápido que el JSON de Gson.
+ * <p>
+ * El archivo empieza con un número mágico y la versión del formato, de forma que
+ * {@link Partida#cargarPartida(String)} distingue solo si un archivo es binario o JSON.
+ * Los contadores se guardan como varints (enteros de longitud variable, con codificación
+ * zigzag para admitir negativos), la semilla y el estado del generador como 8 bytes, y cada
+ * mazo como su longitud seguida de un byte por carta (el código de {@link CodigoCarta}).
+ * Una partida típica ocupa unos 150 bytes, frente a los más de 8 KB del JSON.
+ * </p>
+ * Versión 2 (la 1 es igual sin el último campo):
+ * <ul>
+ *     <li>Magia (4 bytes) y versión (1 byte)</li>
+ *     <li>Nombre del jugador (longitud + 1 en varint, 0 si es null, y bytes UTF-8)</li>
+ *     <li>Semilla y estado del generador (8 bytes cada uno)</li>
+ *     <li>Vida, daño y reducción de daño del enemigo, cartas jugadas y comodines (varints)</li>
+ *     <li>Indicadores: terminada, victoria, enemigo reciente (1 byte)</li>
+ *     <li>Baraja, mano, castillo, posada, jugadas y descartes (longitud en varint y códigos)</li>
+ *     <li>Cartas conocidas de la cima de la posada (varint)</li>
+ * </ul>
+ */
+public final class CodecPartida {
+    /** "RGDP" */
+    public static final int MAGIA = 0x52474450;
+    public static final int VERSION = 2;
+
+    private CodecPartida() {
+    }
+
+    /**
+     * Codifica una partida en el formato binario.
+     * @param partida partida a codificar
+     * @return bytes de la partida
+     */
+    public static byte[] codificar(Partida partida) {
+        Salida salida = new Salida(128);
+        salida.escribirEntero(MAGIA);
+        salida.escribirByte(VERSION);
+        partida.escribirCampos(salida);
+        return salida.bytes();
+    }
+
+    /**
+     * Reconstruye una partida codificada con {@link #codificar(Partida)}.
+     * @param datos bytes de la partida
+     * @return partida decodificada
+     * @throws IllegalArgumentException si los datos no son una partida binaria válida
+     */
+    public static Partida decodificar(byte[] datos) {
+        if (!esBinario(datos)) {
+            throw new IllegalArgumentException("Los datos no son una partida en formato binario");
+        }
+        Entrada entrada = new Entrada(datos, 4);
+        int version = entrada.leerByte();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Versión de partida binaria no soportada: " + version);
+        }
+        try {
+            return Partida.leerCampos(entrada, version);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Partida binaria incompleta", e);
+        }
+    }
+
+    /**
+     * Comprueba si unos datos empiezan con la magia del formato binario.
+     * @param datos contenido de un archivo
+     * @return true si es una partida binaria
+     */
+    public static boolean esBinario(byte[] datos) {
+        return datos.length >= 5 && ((datos[0] & 0xFF) << 24 | (datos[1] & 0xFF) << 16
+                | (datos[2] & 0xFF) << 8 | (datos[3] & 0xFF)) == MAGIA;
+    }
+
+    /**
+     * Buffer de escritura que crece según hace falta.
+     */
+    static final class Salida {
+        private byte[] buffer;
+        private int tamanio;
+
+        Salida(int capacidad) {
+            buffer = new byte[capacidad];
+        }
+
+        void escribirByte(int valor) {
+            asegurar(1);
+            buffer[tamanio++] = (byte) valor;
+        }
+
+        void escribirEntero(int valor) {
+            asegurar(4);
+            buffer[tamanio++] = (byte) (valor >>> 24);
+            buffer[tamanio++] = (byte) (valor >>> 16);
+            buffer[tamanio++] = (byte) (valor >>> 8);
+            buffer[tamanio++] = (byte) valor;
+        }
+
+        void escribirLong(long valor) {
+            asegurar(8);
+            for (int desplazamiento = 56; desplazamiento >= 0; desplazamiento -= 8) {
+                buffer[tamanio++] = (byte) (valor >>> desplazamiento);
+            }
+        }
+
+        /**
+         * Entero con signo como varint zigzag (los valores pequeños ocupan un byte).
+         */
+        void escribirVarint(int valor) {
+            int zigzag = (valor << 1) ^ (valor >> 31);
+            asegurar(5);
+            while ((zigzag & ~0x7F) != 0) {
+                buffer[tamanio++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[tamanio++] = (byte) zigzag;
+        }
+
+        void escribirTexto(String texto) {
+            if (texto == null) {
+                escribirVarint(0);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(bytes.length + 1);
+            asegurar(bytes.length);
+            System.arraycopy(bytes, 0, buffer, tamanio, bytes.length);
+            tamanio += bytes.length;
+        }
+
+        void escribirCartas(List<Carta> cartas) {
+            int numero = cartas.size();
+            escribirVarint(numero);
+            asegurar(numero);
+            for (int i = 0; i < numero; i++) {
+                int codigo = cartas.get(i).getCodigo();
+                if (codigo == CodigoCarta.SIN_CODIGO) {
+                    throw new IllegalArgumentException("La carta no pertenece a la baraja: " + cartas.get(i));
+                }
+                buffer[tamanio++] = (byte) codigo;
+            }
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(buffer, tamanio);
+        }
+
+        private void asegurar(int bytes) {
+            if (tamanio + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, tamanio + bytes));
+            }
+        }
+    }
+
+    /**
+     * Lector secuencial sobre un array de bytes.
+     */
+    static final class Entrada {
+        private final byte[] datos;
+        private int posicion;
+
+        Entrada(byte[] datos, int posicion) {
+            this.datos = datos;
+            this.posicion = posicion;
+        }
+
+        int leerByte() {
+            return datos[posicion++] & 0xFF;
+        }
+
+        long leerLong() {
+            long valor = 0;
+            for (int i = 0; i < 8; i++) {
+                valor = (valor << 8) | (datos[posicion++] & 0xFF);
+            }
+            return valor;
+        }
+
+        int leerVarint() {
+            int zigzag = 0;
+            for (int desplazamiento = 0; ; desplazamiento += 7) {
+                if (desplazamiento > 28) {
+                    throw new IllegalArgumentException("Varint demasiado largo");
+                }
+                int b = datos[posicion++];
+                zigzag |= (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        String leerTexto() {
+            int longitud = leerVarint() - 1;
+            if (longitud < 0) {
+                return null;
+            }
+            if (longitud > datos.length - posicion) {
+                throw new IllegalArgumentException("Partida binaria incompleta");
+            }
+            String texto = new String(datos, posicion, longitud, StandardCharsets.UTF_8);
+            posicion += longitud;
+            return texto;
+        }
+
+        /**
+         * Lee un mazo y añade sus cartas a la lista indicada.
+         */
+        void leerCartas(List<Carta> destino) {
+            int numero = leerVarint();
+            if (numero < 0 || numero > CodigoCarta.TOTAL_CARTAS) {
+                throw new IllegalArgumentException("Tamaño de mazo no válido: " + numero);
+            }
+            for (int i = 0; i < numero; i++) {
+                int codigo = datos[posicion++];
+                if (codigo < 0 || codigo >= CodigoCarta.TOTAL_CARTAS) {
+                    throw new IllegalArgumentException("Código de carta no válido: " + codigo);
+                }
+                destino.add(CodigoCarta.carta(codigo));
+            }
+        }
+    }
+}
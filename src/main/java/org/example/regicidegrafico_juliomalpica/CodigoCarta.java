@@ -0,0 +1,187 @@
+package org.example.regicidegrafico_juliomalpica;
+
+/**
+ * Representación compacta de las 52 cartas para el motor del juego.
+ * Cada carta se codifica como un entero de 0 a 51 (palo * 13 + número - 1), de forma que
+ * una mano, un mazo o una jugada pueden guardarse como un byte por carta o como una
+ * máscara de bits de tipo long (bit = código de la carta).
+ * Las instancias de {@link Carta} se usan solo como vista para la interfaz y Gson: existe
+ * una única instancia por código, que se obtiene con {@link #carta(int)}.
+ */
+public final class CodigoCarta {
+    /** Índices de los palos, en el mismo orden en que se genera la baraja */
+    public static final int PICAS = 0;
+    public static final int CORAZONES = 1;
+    public static final int TREBOLES = 2;
+    public static final int DIAMANTES = 3;
+
+    /** Número total de cartas distintas */
+    public static final int TOTAL_CARTAS = 52;
+    /** Código usado para cartas que no pertenecen a la baraja */
+    public static final int SIN_CODIGO = -1;
+
+    /** Nombre de cada palo según su índice */
+    static final String[] PALOS = {"Picas", "Corazones", "Treboles", "Diamantes"};
+
+    /** Máscara con los cuatro ases (compañeros animales) */
+    public static final long MASCARA_ASES;
+    /** Máscaras con las 13 cartas de cada palo */
+    private static final long[] MASCARA_PALO = new long[4];
+    /** Máscaras con las 4 cartas de cada número (índice 1-13) */
+    private static final long[] MASCARA_NUMERO = new long[14];
+
+    private static final byte[] NUMERO = new byte[TOTAL_CARTAS];
+    private static final byte[] PALO = new byte[TOTAL_CARTAS];
+    private static final Carta[] CARTAS = new Carta[TOTAL_CARTAS];
+
+    static {
+        long ases = 0;
+        for (int palo = 0; palo < 4; palo++) {
+            for (int numero = 1; numero <= 13; numero++) {
+                int codigo = palo * 13 + numero - 1;
+                NUMERO[codigo] = (byte) numero;
+                PALO[codigo] = (byte) palo;
+                MASCARA_PALO[palo] |= 1L << codigo;
+                MASCARA_NUMERO[numero] |= 1L << codigo;
+                if (numero == 1) {
+                    ases |= 1L << codigo;
+                }
+            }
+        }
+        MASCARA_ASES = ases;
+        //Las cartas se crean después de rellenar las tablas porque su constructor las consulta
+        for (int codigo = 0; codigo < TOTAL_CARTAS; codigo++) {
+            CARTAS[codigo] = new CartaNormal(NUMERO[codigo], PALOS[PALO[codigo]]);
+        }
+    }
+
+    private CodigoCarta() {
+    }
+
+    /**
+     * Codifica una carta.
+     * @param numero número de la carta (1-13)
+     * @param palo índice del palo (0-3)
+     * @return código de la carta (0-51)
+     */
+    public static int codificar(int numero, int palo) {
+        return palo * 13 + numero - 1;
+    }
+
+    /**
+     * Obtiene el código de una carta a partir de su número y el nombre de su palo.
+     * @param numero número de la carta (1-13)
+     * @param palo nombre del palo
+     * @return código de la carta o {@link #SIN_CODIGO} si no es una carta de la baraja
+     */
+    public static int codificar(int numero, String palo) {
+        int indice = indicePalo(palo);
+        if (indice < 0 || numero < 1 || numero > 13) {
+            return SIN_CODIGO;
+        }
+        return codificar(numero, indice);
+    }
+
+    /**
+     * Obtiene el número (1-13) de una carta codificada.
+     * @param codigo código de la carta
+     * @return número de la carta
+     */
+    public static int numero(int codigo) {
+        return NUMERO[codigo];
+    }
+
+    /**
+     * Obtiene el índice del palo (0-3) de una carta codificada.
+     * @param codigo código de la carta
+     * @return índice del palo
+     */
+    public static int palo(int codigo) {
+        return PALO[codigo];
+    }
+
+    /**
+     * Convierte el nombre de un palo en su índice.
+     * @param palo nombre del palo (se acepta "Tréboles" con tilde)
+     * @return índice del palo o -1 si no es un palo conocido
+     */
+    public static int indicePalo(String palo) {
+        if (palo == null) {
+            return -1;
+        }
+        switch (palo) {
+            case "Picas":
+                return PICAS;
+            case "Corazones":
+                return CORAZONES;
+            case "Treboles":
+            case "Tréboles":
+                return TREBOLES;
+            case "Diamantes":
+                return DIAMANTES;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Obtiene el nombre de un palo a partir de su índice.
+     * @param palo índice del palo
+     * @return nombre del palo
+     */
+    public static String nombrePalo(int palo) {
+        return PALOS[palo];
+    }
+
+    /**
+     * Obtiene la máscara de las cartas de un palo.
+     * @param palo índice del palo
+     * @return máscara con las 13 cartas del palo
+     */
+    public static long mascaraPalo(int palo) {
+        return MASCARA_PALO[palo];
+    }
+
+    /**
+     * Obtiene la máscara de las cartas de un número.
+     * @param numero número (1-13)
+     * @return máscara con las 4 cartas de ese número
+     */
+    public static long mascaraNumero(int numero) {
+        return MASCARA_NUMERO[numero];
+    }
+
+    /**
+     * Obtiene la instancia compartida de una carta codificada.
+     * @param codigo código de la carta
+     * @return carta correspondiente
+     */
+    public static Carta carta(int codigo) {
+        return CARTAS[codigo];
+    }
+
+    /**
+     * Obtiene la instancia compartida de una carta. Si la carta no pertenece a la baraja
+     * se devuelve una carta nueva con esos valores.
+     * @param numero número de la carta
+     * @param palo nombre del palo
+     * @return carta correspondiente
+     */
+    public static Carta carta(int numero, String palo) {
+        int codigo = codificar(numero, palo);
+        return codigo == SIN_CODIGO ? new CartaNormal(numero, palo) : CARTAS[codigo];
+    }
+
+    /**
+     * Calcula la máscara de bits de una lista de cartas.
+     * @param cartas cartas a codificar
+     * @return máscara con un bit por carta
+     */
+    public static long mascara(Iterable<? extends Carta> cartas) {
+        long mascara = 0;
+        for (Carta carta : cartas) {
+            mascara |= 1L << carta.getCodigo();
+        }
+        return mascara;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.List;
+
+/**
+ * Oyente que escribe por consola los eventos de la partida, con los mismos mensajes
+ * que mostraba el juego en modo texto.
+ */
+public class ConsolaPartida implements OyentePartida {
+
+    @Override
+    public void cartasJugadas(List<Carta> cartas, int danio, int vidaEnemigo) {
+        System.out.println("Daño causado al enemigo: " + danio);
+        System.out.println("Vida restante enemigo: " + vidaEnemigo);
+    }
+
+    @Override
+    public void efectoAplicado(int palo, int valor) {
+        switch (palo) {
+            case CodigoCarta.CORAZONES:
+                System.out.println("¡Efecto Corazones! Movidas " + valor + " cartas de descartes a posada");
+                break;
+            case CodigoCarta.DIAMANTES:
+                System.out.println("¡Efecto Diamantes! Robadas " + valor + " cartas");
+                break;
+            case CodigoCarta.PICAS:
+                System.out.println("¡Efecto Picas! Reducción de daño aumentada en " + valor);
+                break;
+            case CodigoCarta.TREBOLES:
+                System.out.println("¡Efecto Tréboles! Daño duplicado a " + valor);
+                break;
+        }
+    }
+
+    @Override
+    public void enemigoDerrotado(Carta enemigo, boolean capturado) {
+        if (capturado) {
+            System.out.println("Carta enemiga añadida al mazo Posada: " + enemigo);
+        } else {
+            System.out.println("Carta enemiga descartada: " + enemigo);
+        }
+    }
+
+    @Override
+    public void nuevoEnemigo(Carta enemigo, int vida) {
+        System.out.println("\n¡Nuevo enemigo aparece! " + enemigo + " (Vida: " + vida + ")");
+    }
+
+    @Override
+    public void defensaResuelta(boolean exito, int defensa, int danio) {
+        //El resto de defensas fallidas ya las anuncia quien pide las cartas
+        if (!exito && defensa == 0) {
+            System.out.println("¡No tienes cartas para defenderte! Has perdido.");
+        }
+    }
+
+    @Override
+    public void coleccionesActualizadas(Partida partida) {
+        mostrarColecciones(partida);
+    }
+
+    /**
+     * Muestra el número de cartas de cada mazo de la partida.
+     * @param partida partida a mostrar
+     */
+    static void mostrarColecciones(Partida partida) {
+        System.out.println("\nEstado colecciones: ");
+        System.out.println("\t- Castillo: " + partida.getCastillo().size() + " enemigos");
+        System.out.println("\t- Mazo de Posada: " + partida.getMazoPosada().size() + " cartas");
+        System.out.println("\t- Mazo de Cartas Jugadas: " + partida.getMazoCartasJugadas().size() + " cartas");
+        System.out.println("\t- Mazo de Descartes: " + partida.getMazoCartasDescartadas().size() + " cartas");
+    }
+}
@@ -77,6 +77,8 @@ public class ControladorPrincipal {
                 Partida partida = new Partida(nombreJugador);
                 partida.generarBaraja();
                 partida.prepararColecciones();
+                //Anotar las jugadas en el diario en lugar de reescribir la partida al guardar
+                partida.iniciarDiario();
 
                 //pasar al controlador de la vista partida
                 PartidaController controller = fxmlLoader.getController();
@@ -99,7 +101,7 @@ public class ControladorPrincipal {
     @FXML
     protected void cargarPartida(){
         try {
-            Partida partida = Partida.cargarPartida();
+            Partida partida = Partida.cargarUltimaPartida();
             if (partida == null) {
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
                 alert.setTitle("No hay partida guardada");
@@ -116,7 +118,7 @@ public class ControladorPrincipal {
 
             //Obtener el controlador y pasarle la partida
             PartidaController controller = fxmlLoader.getController();
-            controller.cargarUltimaPartida();
+            controller.setPartida(partida);
 
             Stage stage = (Stage) btnCargarPartida.getScene().getWindow();
             if (stage != null) {
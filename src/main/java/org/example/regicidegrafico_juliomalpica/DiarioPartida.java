@@ -0,0 +1,362 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diario binario de solo añadir con las jugadas de una partida.
+ * <p>
+ * En lugar de reescribir toda la partida en JSON, cada jugada se anota como un registro de
+ * tamaño fijo de 2 bytes (tipo y dato) al final del archivo. La partida se reconstruye
+ * repartiendo de nuevo con la semilla de la cabecera y reproduciendo las jugadas; como el
+ * generador es determinista, el resultado es exactamente la misma partida. Para que la
+ * reproducción no crezca sin límite, cada {@link #INTERVALO_INSTANTANEAS} jugadas se guarda una
+ * instantánea (la partida con {@link CodecPartida} y el número de registros que incluye) en un archivo aparte,
+ * y al cargar solo se reproducen los registros posteriores a ella.
+ * </p>
+ * Formato del diario:
+ * <ul>
+ *     <li>Cabecera: magia (int), versión (short), desde reparto (boolean), semilla (long), nombre del jugador (UTF)</li>
+ *     <li>Registros: tipo (byte) y dato (byte): máscara de posiciones de la mano, posición o 0</li>
+ * </ul>
+ */
+public class DiarioPartida implements Closeable {
+    /** "RGDJ" */
+    static final int MAGIA = 0x5247444A;
+    /** "RGDI" */
+    static final int MAGIA_INSTANTANEA = 0x52474449;
+    static final short VERSION = 1;
+    static final int TAMANIO_REGISTRO = 2;
+    /** Jugadas entre dos instantáneas */
+    public static final int INTERVALO_INSTANTANEAS = 64;
+
+    /** Ataque: dato = máscara de posiciones de la mano jugadas */
+    static final byte ATAQUE = 1;
+    /** Defensa completa (modo consola): dato = máscara de posiciones de la mano */
+    static final byte DEFENSA = 2;
+    /** Descarte de una carta para defenderse (interfaz gráfica): dato = posición en la mano */
+    static final byte DEFENSA_CARTA = 3;
+    /** Uso de un comodín */
+    static final byte COMODIN = 4;
+    /** Derrota declarada (rendición o sin cartas) */
+    static final byte DERROTA = 5;
+
+    private final Path ruta;
+    private final Path rutaInstantanea;
+    private final FileChannel canal;
+    private final ByteBuffer registro = ByteBuffer.allocate(TAMANIO_REGISTRO);
+    private long numRegistros;
+
+    private DiarioPartida(Path ruta, FileChannel canal, long numRegistros) {
+        this.ruta = ruta;
+        this.rutaInstantanea = rutaInstantanea(ruta);
+        this.canal = canal;
+        this.numRegistros = numRegistros;
+    }
+
+    /**
+     * Crea un diario nuevo para la partida (sustituye al que hubiera en la ruta) y lo asocia a ella.
+     * Si la partida no está recién repartida se guarda una instantánea inicial, ya que
+     * no se podría reconstruir solo con la semilla.
+     * @param ruta archivo del diario
+     * @param partida partida cuyas jugadas se anotarán
+     * @return diario abierto
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static DiarioPartida crear(String ruta, Partida partida) throws IOException {
+        Path archivo = Path.of(ruta);
+        boolean desdeReparto = partida.getCartasJugadas() == 0 && partida.getMazoCartasJugadas().isEmpty()
+                && partida.getMazoCartasDescartadas().isEmpty()
+                && partida.getComodinesDisponibles() == Partida.COMODINES_INICIALES;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream cabecera = new DataOutputStream(bytes)) {
+            cabecera.writeInt(MAGIA);
+            cabecera.writeShort(VERSION);
+            cabecera.writeBoolean(desdeReparto);
+            cabecera.writeLong(partida.getSemilla());
+            cabecera.writeUTF(partida.getNombreJugador() == null ? "" : partida.getNombreJugador());
+        }
+        //Que ninguna instantánea pendiente del diario anterior llegue después de borrarla
+        ServicioPersistencia.getInstancia().vaciar(Partida.ESPERA_ESCRITURAS_MS);
+        Files.deleteIfExists(rutaInstantanea(archivo));
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        canal.write(ByteBuffer.wrap(bytes.toByteArray()));
+
+        DiarioPartida diario = new DiarioPartida(archivo, canal, 0);
+        if (!desdeReparto) {
+            diario.guardarInstantanea(partida);
+        }
+        cerrarAnterior(partida);
+        partida.setDiario(diario);
+        return diario;
+    }
+
+    /**
+     * Reconstruye la partida de un diario sin modificarlo.
+     * @param ruta archivo del diario
+     * @return partida en el estado de la última jugada anotada
+     * @throws IOException si no se puede leer el diario
+     */
+    public static Partida reproducir(String ruta) throws IOException {
+        Path archivo = Path.of(ruta);
+        Lectura lectura = leer(archivo);
+        return reconstruir(archivo, lectura);
+    }
+
+    /**
+     * Reconstruye la partida de un diario y la deja asociada a él para seguir anotando jugadas.
+     * Si el diario terminaba con un registro incompleto (cierre inesperado), se descarta.
+     * @param ruta archivo del diario
+     * @return partida reconstruida
+     * @throws IOException si no se puede leer o abrir el diario
+     */
+    public static Partida continuar(String ruta) throws IOException {
+        Path archivo = Path.of(ruta);
+        Lectura lectura = leer(archivo);
+        Partida partida = reconstruir(archivo, lectura);
+
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE);
+        canal.truncate(lectura.inicioRegistros + (long) lectura.registros.length);
+        canal.position(canal.size());
+        partida.setDiario(new DiarioPartida(archivo, canal, lectura.registros.length / TAMANIO_REGISTRO));
+        return partida;
+    }
+
+    /**
+     * Anota una jugada ya aplicada a la partida. Cada {@link #INTERVALO_INSTANTANEAS} jugadas
+     * guarda además una instantánea.
+     * @param tipo tipo de registro
+     * @param dato dato del registro (0-255)
+     * @param partida partida tras aplicar la jugada
+     * @throws IOException si no se puede escribir
+     */
+    void anotar(byte tipo, int dato, Partida partida) throws IOException {
+        registro.clear();
+        registro.put(tipo).put((byte) dato).flip();
+        while (registro.hasRemaining()) {
+            canal.write(registro);
+        }
+        numRegistros++;
+        if (numRegistros % INTERVALO_INSTANTANEAS == 0) {
+            guardarInstantanea(partida);
+        }
+    }
+
+    /**
+     * Guarda una instantánea de la partida y cierra el diario (al salir de la partida).
+     * @param partida partida asociada al diario
+     */
+    public void cerrar(Partida partida) {
+        guardarInstantanea(partida);
+        cerrar();
+    }
+
+    /**
+     * Cierra el diario sin guardar instantánea.
+     */
+    public void cerrar() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el diario: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (canal.isOpen()) {
+            canal.force(false);
+            canal.close();
+        }
+    }
+
+    /**
+     * Obtiene el número de jugadas anotadas
+     * @return número de registros
+     */
+    public long getNumRegistros() {
+        return numRegistros;
+    }
+
+    /**
+     * Obtiene el archivo del diario
+     * @return ruta del diario
+     */
+    public Path getRuta() {
+        return ruta;
+    }
+
+    /**
+     * Convierte posiciones de la mano en la máscara de un registro.
+     * @param posiciones posiciones de la mano (0-7)
+     * @return máscara de 8 bits
+     */
+    static int mascaraPosiciones(List<Integer> posiciones) {
+        int mascara = 0;
+        for (int posicion : posiciones) {
+            if (posicion < 0 || posicion >= TablaJugadas.MAX_MANO) {
+                throw new IllegalArgumentException("Posición de la mano fuera de rango: " + posicion);
+            }
+            mascara |= 1 << posicion;
+        }
+        return mascara;
+    }
+
+    /**
+     * Pide guardar una instantánea en segundo plano. Se escribe en un temporal y se renombra,
+     * así que una instantánea a medio escribir nunca sustituye a la anterior; si no llega a
+     * escribirse, la anterior sigue siendo válida porque el diario tiene todas las jugadas.
+     */
+    private void guardarInstantanea(Partida partida) {
+        Partida copia = partida.instantanea();
+        long registros = numRegistros;
+        ServicioPersistencia.getInstancia().reemplazar(rutaInstantanea, () -> {
+            byte[] datos = copia.aBytes();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(datos.length + 16);
+            try (DataOutputStream salida = new DataOutputStream(bytes)) {
+                salida.writeInt(MAGIA_INSTANTANEA);
+                salida.writeLong(registros);
+                salida.writeInt(datos.length);
+                salida.write(datos);
+            }
+            return bytes.toByteArray();
+        });
+    }
+
+    /**
+     * Reconstruye la partida desde la instantánea (si existe y es válida) o desde el reparto.
+     */
+    private static Partida reconstruir(Path archivo, Lectura lectura) throws IOException {
+        int totalRegistros = lectura.registros.length / TAMANIO_REGISTRO;
+        Partida partida = null;
+        long desde = 0;
+
+        Path instantanea = rutaInstantanea(archivo);
+        ServicioPersistencia.getInstancia().vaciar(Partida.ESPERA_ESCRITURAS_MS);
+        if (Files.exists(instantanea)) {
+            try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(instantanea)))) {
+                if (entrada.readInt() != MAGIA_INSTANTANEA) {
+                    throw new IOException("Instantánea no válida: " + instantanea);
+                }
+                long registros = entrada.readLong();
+                byte[] datos = new byte[entrada.readInt()];
+                entrada.readFully(datos);
+                Partida guardada = Partida.desdeBytes(datos);
+                //Ignorar instantáneas de otra partida o con jugadas que el diario no tiene
+                if (registros <= totalRegistros && guardada.getSemilla() == lectura.semilla) {
+                    partida = guardada;
+                    desde = registros;
+                }
+            }
+        }
+        if (partida == null) {
+            if (!lectura.desdeReparto) {
+                throw new IllegalStateException("El diario no empieza en el reparto y no tiene instantánea válida");
+            }
+            partida = new Partida(lectura.nombreJugador, lectura.semilla);
+            partida.generarBaraja();
+            partida.prepararColecciones();
+        }
+
+        //Reproducir sin registrar estadísticas de nuevo
+        boolean simulacion = partida.isSimulacion();
+        partida.setSimulacion(true);
+        for (long i = desde; i < totalRegistros; i++) {
+            int posicion = (int) i * TAMANIO_REGISTRO;
+            aplicar(partida, lectura.registros[posicion], lectura.registros[posicion + 1] & 0xFF);
+        }
+        partida.setSimulacion(simulacion);
+        return partida;
+    }
+
+    /**
+     * Aplica un registro a la partida con la misma operación que lo generó.
+     */
+    private static void aplicar(Partida partida, byte tipo, int dato) {
+        switch (tipo) {
+            case ATAQUE:
+                partida.setEnemigoReciente(false);
+                partida.jugarCarta(posiciones(dato));
+                break;
+            case DEFENSA:
+                partida.manejarDefensa(posiciones(dato), null);
+                break;
+            case DEFENSA_CARTA:
+                partida.descartarParaDefensa(dato);
+                break;
+            case COMODIN:
+                partida.usarComodin();
+                break;
+            case DERROTA:
+                partida.declararDerrota();
+                break;
+            default:
+                throw new IllegalStateException("Registro de diario desconocido: " + tipo);
+        }
+    }
+
+    private static ArrayList<Integer> posiciones(int mascara) {
+        ArrayList<Integer> posiciones = new ArrayList<>(Integer.bitCount(mascara));
+        for (int resto = mascara; resto != 0; resto &= resto - 1) {
+            posiciones.add(Integer.numberOfTrailingZeros(resto));
+        }
+        return posiciones;
+    }
+
+    /**
+     * Lee la cabecera y los registros completos del diario.
+     */
+    private static Lectura leer(Path archivo) throws IOException {
+        byte[] contenido = Files.readAllBytes(archivo);
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(contenido));
+        if (contenido.length < 4 || entrada.readInt() != MAGIA) {
+            throw new IOException("No es un diario de partida: " + archivo);
+        }
+        short version = entrada.readShort();
+        if (version != VERSION) {
+            throw new IOException("Versión de diario no soportada: " + version);
+        }
+        Lectura lectura = new Lectura();
+        lectura.desdeReparto = entrada.readBoolean();
+        lectura.semilla = entrada.readLong();
+        lectura.nombreJugador = entrada.readUTF();
+        lectura.inicioRegistros = contenido.length - entrada.available();
+
+        int completos = (contenido.length - lectura.inicioRegistros) / TAMANIO_REGISTRO * TAMANIO_REGISTRO;
+        lectura.registros = new byte[completos];
+        System.arraycopy(contenido, lectura.inicioRegistros, lectura.registros, 0, completos);
+        return lectura;
+    }
+
+    private static Path rutaInstantanea(Path diario) {
+        return diario.resolveSibling(diario.getFileName() + ".instantanea");
+    }
+
+    /**
+     * Si la partida ya llevaba otro diario, lo cierra.
+     */
+    private static void cerrarAnterior(Partida partida) {
+        if (partida.getDiario() != null) {
+            partida.getDiario().cerrar();
+        }
+    }
+
+    /**
+     * Contenido leído de un diario.
+     */
+    private static final class Lectura {
+        boolean desdeReparto;
+        long semilla;
+        String nombreJugador;
+        int inicioRegistros;
+        byte[] registros;
+    }
+}
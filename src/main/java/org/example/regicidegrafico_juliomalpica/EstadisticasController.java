@@ -6,22 +6,27 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.Tooltip;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * Controlador de la vista de estadísticas para la aplicación "REGICIDE".
  * Esta clase se encarga de cargar y mostrar en una tabla los datos de partidas anteriores
- * guardadas en un archivo CSV. También gestiona el botón para volver al menú principal.
+ * guardadas en el almacén binario de estadísticas ({@link AlmacenEstadisticas}) y en el
+ * archivo CSV de versiones anteriores. También gestiona el botón para volver al menú principal.
  *
- * El archivo debe tener el siguiente formato, separado por "||" y con cabecera:
- * Fecha || CartasJugadas || VidaEnemigo || EstadoMano || Resultado
+ * El archivo CSV debe tener el siguiente formato, separado por "||" y con cabecera:
+ * Fecha || CartasJugadas || VidaEnemigo || EstadoMano || Resultado || Semilla
+ * (las filas antiguas no tienen la columna Semilla)
  */
 
 public class EstadisticasController {
@@ -38,13 +43,20 @@ public class EstadisticasController {
     @FXML
     private TableColumn<EstadisticaPartida, String> colResultado;
     @FXML
+    private TableColumn<EstadisticaPartida, String> colSemilla;
+    @FXML
+    private Label lblResumen;
+    @FXML
     private Button btnVolver;
 
     private static final String ARCHIVO_ESTADISTICAS = "src/main/resources/estadisticas.csv";
+    private static final String ARCHIVO_REGISTROS = "src/main/resources/estadisticas.dat";
+
+    private ListaEstadisticas lista;
 
     /**
      * Inicializa los componentes de la interfaz gráfica y carga los datos de estadísticas
-     * desde el archivo CSV.
+     * del archivo CSV y del almacén binario.
      */
     @FXML
     public void initialize() {
@@ -53,18 +65,51 @@ public class EstadisticasController {
         colVidaEnemigo.setCellValueFactory(new PropertyValueFactory<>("vidaEnemigo"));
         colEstadoMano.setCellValueFactory(new PropertyValueFactory<>("estadoMano"));
         colResultado.setCellValueFactory(new PropertyValueFactory<>("resultado"));
+        colSemilla.setCellValueFactory(new PropertyValueFactory<>("semilla"));
 
-        //Cargar los datos
-        tablaEstadisticas.setItems(cargarEstadisticas());
+        //La lista se carga por páginas y no admite reordenarla entera
+        for (TableColumn<EstadisticaPartida, ?> columna : tablaEstadisticas.getColumns()) {
+            columna.setSortable(false);
+        }
+
+        //Cargar los datos en segundo plano; las filas aparecen a medida que se encuentran
+        AlmacenEstadisticas almacen = AlmacenEstadisticas.de(Path.of(ARCHIVO_REGISTROS));
+        lista = new ListaEstadisticas(Path.of(ARCHIVO_ESTADISTICAS), almacen);
+        tablaEstadisticas.setPlaceholder(new Label("Cargando estadísticas..."));
+        tablaEstadisticas.setItems(lista);
+        lista.cargar(() -> {
+            tablaEstadisticas.setPlaceholder(new Label("No hay partidas registradas"));
+            mostrarResumen(almacen);
+        });
 
         //Boton de volver
         btnVolver.setOnAction(event -> volverMenuPrincipal());
     }
 
+    /**
+     * Muestra el resumen de todas las partidas del almacén, que se lee sin recorrer los registros.
+     * El detalle (vida restante y resultados contra cada enemigo) aparece al pasar el ratón.
+     * @param almacen almacén de estadísticas
+     */
+    private void mostrarResumen(AlmacenEstadisticas almacen) {
+        try {
+            ResumenEstadisticas resumen = almacen.getResumen();
+            lblResumen.setText(resumen.getTextoResumen());
+            if (resumen.getPartidas() > 0) {
+                Tooltip detalle = new Tooltip(resumen.getTextoDetalle());
+                detalle.setFont(Font.font("Monospaced", 12));
+                lblResumen.setTooltip(detalle);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cargar el resumen de estadísticas: " + e.getMessage());
+        }
+    }
+
     /**
      * Cambia la escena actual para volver al menú principal.
      */
     private void volverMenuPrincipal() {
+        lista.cerrar();
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("menu.fxml"));
             Stage stage = (Stage) btnVolver.getScene().getWindow();
@@ -79,27 +124,36 @@ public class EstadisticasController {
     }
     /**
      * Carga las estadísticas de partidas desde el archivo CSV especificado.
+     * @param ruta ruta del archivo CSV
      * @return Una lista observable de objetos (EstadisticaPartida).
      */
-    private ObservableList<EstadisticaPartida> cargarEstadisticas() {
+    public static ObservableList<EstadisticaPartida> cargarEstadisticas(String ruta) {
         ObservableList<EstadisticaPartida> datos = FXCollections.observableArrayList();
+        if (!new File(ruta).exists()) {
+            return datos;
+        }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(ARCHIVO_ESTADISTICAS))) {
-            String linea = br.readLine(); //Saltar la cabecera
-
-            while ((linea = br.readLine()) != null) {
-                String[] partes = linea.split("\\|\\|");
-                if (partes.length >= 5) {
-                    datos.add(new EstadisticaPartida(
-                            partes[0].trim(),
-                            Integer.parseInt(partes[1].trim()),
-                            Integer.parseInt(partes[2].trim()),
-                            partes[3].trim(),
-                            partes[4].trim()
-                    ));
-                }
+        try {
+            datos.setAll(LectorCsvEstadisticas.leer(Path.of(ruta)));
+        } catch (IOException e) {
+            System.err.println("Error al cargar estadísticas: " + e.getMessage());
+        }
+        return datos;
+    }
+
+    /**
+     * Carga las estadísticas de partidas desde el almacén binario indicado.
+     * @param ruta ruta del archivo de registros
+     * @return Una lista observable de objetos (EstadisticaPartida).
+     */
+    public static ObservableList<EstadisticaPartida> cargarRegistros(String ruta) {
+        ObservableList<EstadisticaPartida> datos = FXCollections.observableArrayList();
+        try {
+            AlmacenEstadisticas almacen = AlmacenEstadisticas.de(Path.of(ruta));
+            for (RegistroEstadistica registro : almacen.leer(0, (int) Math.min(almacen.getNumRegistros(), Integer.MAX_VALUE))) {
+                datos.add(EstadisticaPartida.de(registro));
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             System.err.println("Error al cargar estadísticas: " + e.getMessage());
         }
         return datos;
@@ -115,6 +169,7 @@ public class EstadisticasController {
         private final int vidaEnemigo;
         private final String estadoMano;
         private final String resultado;
+        private final String semilla;
 
         /**
          * Constructor de la clase EstadisticaPartida.
@@ -126,11 +181,42 @@ public class EstadisticasController {
          * @param resultado Resultado de la partida (Victoria o Derrota).
          */
         public EstadisticaPartida(String fecha, int cartasJugadas, int vidaEnemigo, String estadoMano, String resultado) {
+            this(fecha, cartasJugadas, vidaEnemigo, estadoMano, resultado, "");
+        }
+
+        /**
+         * Constructor de la clase EstadisticaPartida con la semilla del reparto.
+         *
+         * @param fecha Fecha en la que se jugó la partida.
+         * @param cartasJugadas Número de cartas jugadas durante la partida.
+         * @param vidaEnemigo Vida restante del enemigo al finalizar la partida.
+         * @param estadoMano Estado de la mano del jugador al finalizar la partida.
+         * @param resultado Resultado de la partida (Victoria o Derrota).
+         * @param semilla Semilla del reparto (vacía en partidas antiguas).
+         */
+        public EstadisticaPartida(String fecha, int cartasJugadas, int vidaEnemigo, String estadoMano, String resultado, String semilla) {
             this.fecha = fecha;
             this.cartasJugadas = cartasJugadas;
             this.vidaEnemigo = vidaEnemigo;
             this.estadoMano = estadoMano;
             this.resultado = resultado;
+            this.semilla = semilla;
+        }
+
+        /**
+         * Crea la fila de un registro del almacén binario.
+         * @param registro registro de la partida
+         * @return fila con los mismos formatos que las del CSV
+         */
+        public static EstadisticaPartida de(RegistroEstadistica registro) {
+            return new EstadisticaPartida(
+                    registro.getFechaTexto(),
+                    registro.getCartasJugadas(),
+                    registro.getVidaEnemigo(),
+                    registro.getEstadoMano(),
+                    registro.getResultado(),
+                    String.valueOf(registro.getSemilla())
+            );
         }
 
         /**
@@ -158,5 +244,10 @@ public class EstadisticasController {
          * @return el resultado de la partida como cadena de texto
          */
         public String getResultado() { return resultado; }
+        /**
+         * Obtiene la semilla con la que se repartió la partida.
+         * @return la semilla, o cadena vacía si la partida es anterior a guardarla
+         */
+        public String getSemilla() { return semilla; }
     }
 }
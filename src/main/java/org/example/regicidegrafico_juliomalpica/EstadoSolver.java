@@ -0,0 +1,308 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.List;
+
+/**
+ * Estado compacto de una partida para el solucionador de repartos.
+ * Todas las cartas se guardan como códigos de un byte (ver {@link CodigoCarta}) y la copia de un
+ * estado solo copia unos pocos arrays pequeños. Las transiciones reproducen exactamente
+ * las de {@link Partida#jugarCarta} y {@link Partida#manejarDefensa}, incluida la elección al azar
+ * de los descartes del efecto Corazones a partir del estado del {@link GeneradorAleatorio}.
+ * El orden de la mano y de los mazos se conserva porque influye en las elecciones posteriores.
+ */
+final class EstadoSolver {
+    private static final int CAPACIDAD = 64;
+    private static final int MASCARA = CAPACIDAD - 1;
+
+    /** Orden de los enemigos del castillo (compartido por todos los estados de un reparto) */
+    final byte[] castillo;
+    int enemigo;
+
+    final byte[] mano;
+    int numMano;
+    final byte[] jugadas;
+    int numJugadas;
+    /** Mazo Posada como buffer circular: la cima es la posición inicioPosada */
+    final byte[] posada;
+    int inicioPosada;
+    int numPosada;
+    /** Descartes como buffer circular: la posición 0 es inicioDescartes */
+    final byte[] descartes;
+    int inicioDescartes;
+    int numDescartes;
+
+    int vidaEnemigo;
+    int danioEnemigo;
+    int escudo;
+    long aleatorio;
+    boolean defensaPendiente;
+    boolean terminada;
+    boolean victoria;
+
+    private EstadoSolver(byte[] castillo) {
+        this.castillo = castillo;
+        this.mano = new byte[TablaJugadas.MAX_MANO];
+        this.jugadas = new byte[CodigoCarta.TOTAL_CARTAS];
+        this.posada = new byte[CAPACIDAD];
+        this.descartes = new byte[CAPACIDAD];
+    }
+
+    /**
+     * Construye el estado a partir de una partida en fase de ataque.
+     * @param partida partida cuyo generador es un {@link GeneradorAleatorio}
+     * @return estado equivalente
+     */
+    static EstadoSolver desde(Partida partida) {
+        if (!(partida.getAleatorio() instanceof GeneradorAleatorio)) {
+            throw new IllegalArgumentException("La partida debe usar un GeneradorAleatorio para poder resolverse");
+        }
+        List<Carta> enemigos = partida.getCastillo();
+        byte[] castillo = new byte[enemigos.size()];
+        for (int i = 0; i < castillo.length; i++) {
+            castillo[i] = (byte) enemigos.get(i).getCodigo();
+        }
+        EstadoSolver estado = new EstadoSolver(castillo);
+        for (Carta carta : partida.getMano()) {
+            estado.mano[estado.numMano++] = (byte) carta.getCodigo();
+        }
+        for (Carta carta : partida.getMazoCartasJugadas()) {
+            estado.jugadas[estado.numJugadas++] = (byte) carta.getCodigo();
+        }
+        for (Carta carta : partida.getMazoPosada()) {
+            estado.agregarPosadaFondo(carta.getCodigo());
+        }
+        for (Carta carta : partida.getMazoCartasDescartadas()) {
+            estado.agregarDescarteFinal(carta.getCodigo());
+        }
+        estado.vidaEnemigo = partida.getVidaEnemigo();
+        if (castillo.length > 0) {
+            estado.danioEnemigo = danioBase(castillo[0]);
+            estado.escudo = estado.danioEnemigo - partida.getDanioEnemigo();
+        }
+        estado.aleatorio = ((GeneradorAleatorio) partida.getAleatorio()).getEstado();
+        estado.terminada = partida.isPartidaTerminada();
+        estado.victoria = partida.isVictoria();
+        return estado;
+    }
+
+    /**
+     * Crea una copia independiente del estado.
+     * @return copia
+     */
+    EstadoSolver copiar() {
+        EstadoSolver copia = new EstadoSolver(castillo);
+        copia.enemigo = enemigo;
+        System.arraycopy(mano, 0, copia.mano, 0, numMano);
+        copia.numMano = numMano;
+        System.arraycopy(jugadas, 0, copia.jugadas, 0, numJugadas);
+        copia.numJugadas = numJugadas;
+        System.arraycopy(posada, 0, copia.posada, 0, CAPACIDAD);
+        copia.inicioPosada = inicioPosada;
+        copia.numPosada = numPosada;
+        System.arraycopy(descartes, 0, copia.descartes, 0, CAPACIDAD);
+        copia.inicioDescartes = inicioDescartes;
+        copia.numDescartes = numDescartes;
+        copia.vidaEnemigo = vidaEnemigo;
+        copia.danioEnemigo = danioEnemigo;
+        copia.escudo = escudo;
+        copia.aleatorio = aleatorio;
+        copia.defensaPendiente = defensaPendiente;
+        copia.terminada = terminada;
+        copia.victoria = victoria;
+        return copia;
+    }
+
+    /**
+     * Daño efectivo del enemigo actual tras restar el escudo de Picas.
+     * @return daño a defender
+     */
+    int danioEfectivo() {
+        return Math.max(0, danioEnemigo - escudo);
+    }
+
+    /**
+     * Carta de la posada en una posición desde la cima.
+     */
+    int posada(int i) {
+        return posada[(inicioPosada + i) & MASCARA];
+    }
+
+    /**
+     * Carta de los descartes en una posición.
+     */
+    int descarte(int i) {
+        return descartes[(inicioDescartes + i) & MASCARA];
+    }
+
+    /**
+     * Ataca con un subconjunto de posiciones de la mano (jugada válida), igual que Partida.jugarCarta.
+     * @param subconjunto posiciones de la mano
+     */
+    void atacar(int subconjunto) {
+        if (numMano == 0) {
+            terminar(false);
+            return;
+        }
+        //Las cartas pasan a jugadas en orden de posición
+        long jugada = 0;
+        for (int i = 0; i < numMano; i++) {
+            if ((subconjunto & (1 << i)) != 0) {
+                jugadas[numJugadas++] = mano[i];
+                jugada |= 1L << mano[i];
+            }
+        }
+        //Quitar de la mano conservando el orden del resto
+        int quedan = 0;
+        for (int i = 0; i < numMano; i++) {
+            if ((subconjunto & (1 << i)) == 0) {
+                mano[quedan++] = mano[i];
+            }
+        }
+        numMano = quedan;
+
+        int paloInmune = enemigo < castillo.length ? CodigoCarta.palo(castillo[enemigo]) : -1;
+        int palos = ReglasJugada.palosActivos(jugada, paloInmune);
+        int danio = ReglasJugada.danioBase(jugada);
+
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.CORAZONES)) {
+            int mover = Math.min(danio, numDescartes);
+            for (int i = 0; i < mover; i++) {
+                agregarPosadaFondo(quitarDescarteAleatorio());
+            }
+        }
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.DIAMANTES)) {
+            int robar = Math.min(danio, TablaJugadas.MAX_MANO - numMano);
+            for (int i = 0; i < robar && numPosada > 0; i++) {
+                mano[numMano++] = (byte) quitarPosadaCima();
+            }
+        }
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.PICAS)) {
+            escudo += danio;
+        }
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.TREBOLES)) {
+            danio *= 2;
+        }
+
+        vidaEnemigo -= danio;
+        if (vidaEnemigo > 0) {
+            defensaPendiente = danioEfectivo() > 0;
+            return;
+        }
+
+        int derrotado = castillo[enemigo++];
+        if (vidaEnemigo == 0) {
+            agregarPosadaCima(derrotado);
+        } else {
+            agregarDescartePrincipio(derrotado);
+        }
+        for (int i = 0; i < numJugadas; i++) {
+            agregarDescarteFinal(jugadas[i]);
+        }
+        numJugadas = 0;
+
+        if (enemigo == castillo.length) {
+            terminar(true);
+            return;
+        }
+        vidaEnemigo = vidaBase(castillo[enemigo]);
+        danioEnemigo = danioBase(castillo[enemigo]);
+        escudo = 0;
+        defensaPendiente = false;
+    }
+
+    /**
+     * Se defiende con un subconjunto de posiciones de la mano, igual que Partida.manejarDefensa.
+     * @param subconjunto posiciones de la mano
+     */
+    void defender(int subconjunto) {
+        defensaPendiente = false;
+        int total = 0;
+        for (int i = 0; i < numMano; i++) {
+            if ((subconjunto & (1 << i)) != 0) {
+                total += CodigoCarta.numero(mano[i]);
+            }
+        }
+        if (numMano == 0 || total < danioEfectivo()) {
+            terminar(false);
+            return;
+        }
+        //Partida descarta de la última posición a la primera
+        for (int i = numMano - 1; i >= 0; i--) {
+            if ((subconjunto & (1 << i)) != 0) {
+                agregarDescarteFinal(mano[i]);
+            }
+        }
+        int quedan = 0;
+        for (int i = 0; i < numMano; i++) {
+            if ((subconjunto & (1 << i)) == 0) {
+                mano[quedan++] = mano[i];
+            }
+        }
+        numMano = quedan;
+    }
+
+    /**
+     * Termina la partida.
+     */
+    void terminar(boolean victoria) {
+        terminada = true;
+        this.victoria = victoria;
+        defensaPendiente = false;
+    }
+
+    /**
+     * Paso de la pasada parcial de Fisher–Yates de {@link Mazo#moverAleatorias}: elige un
+     * descarte, lo cambia por el último y lo quita.
+     */
+    private int quitarDescarteAleatorio() {
+        aleatorio += GeneradorAleatorio.GAMMA;
+        int j = GeneradorAleatorio.acotar(GeneradorAleatorio.mezclar(aleatorio), numDescartes);
+        int ultima = (inicioDescartes + numDescartes - 1) & MASCARA;
+        int elegida = (inicioDescartes + j) & MASCARA;
+        byte codigo = descartes[elegida];
+        descartes[elegida] = descartes[ultima];
+        numDescartes--;
+        return codigo;
+    }
+
+    private void agregarPosadaFondo(int codigo) {
+        posada[(inicioPosada + numPosada++) & MASCARA] = (byte) codigo;
+    }
+
+    private void agregarPosadaCima(int codigo) {
+        inicioPosada = (inicioPosada - 1) & MASCARA;
+        posada[inicioPosada] = (byte) codigo;
+        numPosada++;
+    }
+
+    private int quitarPosadaCima() {
+        int codigo = posada[inicioPosada];
+        inicioPosada = (inicioPosada + 1) & MASCARA;
+        numPosada--;
+        return codigo;
+    }
+
+    private void agregarDescarteFinal(int codigo) {
+        descartes[(inicioDescartes + numDescartes++) & MASCARA] = (byte) codigo;
+    }
+
+    private void agregarDescartePrincipio(int codigo) {
+        inicioDescartes = (inicioDescartes - 1) & MASCARA;
+        descartes[inicioDescartes] = (byte) codigo;
+        numDescartes++;
+    }
+
+    /**
+     * Vida inicial de un enemigo (J = 20; Q = 30; K = 40).
+     */
+    static int vidaBase(int codigo) {
+        return 20 + 10 * (CodigoCarta.numero(codigo) - 11);
+    }
+
+    /**
+     * Ataque de un enemigo (J = 10; Q = 15; K = 20).
+     */
+    static int danioBase(int codigo) {
+        return 10 + 5 * (CodigoCarta.numero(codigo) - 11);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.regicidegrafico_juliomalpica;
+
+/**
+ * Generador de jugadas y evaluador sin efectos secundarios.
+ * Lista los ataques y defensas legales de una partida y predice lo que haría cada jugada
+ * (daño tras Tréboles, escudo de Picas, robos de Diamantes, reciclaje de Corazones y derrota o
+ * captura del enemigo) sin modificar la partida, sin escribir por consola y sin crear objetos:
+ * las jugadas se escriben en arrays y las predicciones en un {@link PrediccionJugada} reutilizable.
+ * Las jugadas se expresan como subconjuntos de posiciones de la mano (ver {@link TablaJugadas}).
+ */
+public final class EvaluadorJugadas {
+    /** Tamaño necesario de los arrays de destino (todos los subconjuntos de una mano de 8) */
+    public static final int MAX_JUGADAS = (1 << TablaJugadas.MAX_MANO) - 1;
+
+    private EvaluadorJugadas() {
+    }
+
+    /**
+     * Escribe en el array los ataques legales de la mano actual.
+     * @param partida partida a evaluar
+     * @param destino array de al menos {@link #MAX_JUGADAS} posiciones
+     * @return número de ataques escritos
+     */
+    public static int listarAtaques(Partida partida, int[] destino) {
+        TablaJugadas tabla = partida.getTablaJugadas();
+        int n = 0;
+        for (int jugada = tabla.primeraJugada(); jugada >= 0; jugada = tabla.siguienteJugada(jugada)) {
+            destino[n++] = jugada;
+        }
+        return n;
+    }
+
+    /**
+     * Escribe en el array las defensas que cubren el daño actual del enemigo.
+     * @param partida partida a evaluar
+     * @param destino array de al menos {@link #MAX_JUGADAS} posiciones
+     * @param soloMinimas si es true solo se listan las defensas que dejan de bastar al quitar cualquier carta
+     * @return número de defensas escritas (0 si ninguna combinación basta)
+     */
+    public static int listarDefensas(Partida partida, int[] destino, boolean soloMinimas) {
+        TablaJugadas tabla = partida.getTablaJugadas();
+        int danio = partida.getDanioEnemigo();
+        int n = 0;
+        for (int s = 1; s < (1 << tabla.getTamanio()); s++) {
+            int total = tabla.getDanio(s);
+            if (total < danio) {
+                continue;
+            }
+            if (soloMinimas && total - menorValor(tabla, s) >= danio) {
+                continue;
+            }
+            destino[n++] = s;
+        }
+        return n;
+    }
+
+    /**
+     * Predice el resultado de atacar con un subconjunto de la mano.
+     * @param partida partida a evaluar (no se modifica)
+     * @param jugada subconjunto de posiciones de la mano; debe ser una jugada válida
+     * @param salida objeto donde se escribe la predicción
+     */
+    public static void predecirAtaque(Partida partida, int jugada, PrediccionJugada salida) {
+        TablaJugadas tabla = partida.getTablaJugadas();
+        salida.limpiar();
+
+        int paloInmune = partida.getCastillo().isEmpty() ? -1 : partida.getCastillo().get(0).getIndicePalo();
+        int palos = tabla.getPalosActivos(jugada, paloInmune);
+        int danio = tabla.getDanio(jugada);
+        salida.danioBase = danio;
+        salida.palosActivos = palos;
+
+        int enMano = tabla.getTamanio() - Integer.bitCount(jugada);
+        int posada = partida.getMazoPosada().size();
+
+        //Mismo orden de efectos que Partida.jugarCarta
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.CORAZONES)) {
+            salida.cartasRecicladas = Math.min(danio, partida.getMazoCartasDescartadas().size());
+            posada += salida.cartasRecicladas;
+        }
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.DIAMANTES)) {
+            salida.cartasRobadas = Math.min(Math.min(danio, TablaJugadas.MAX_MANO - enMano), posada);
+            enMano += salida.cartasRobadas;
+        }
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.PICAS)) {
+            salida.escudo = danio;
+        }
+        if (ReglasJugada.tienePalo(palos, CodigoCarta.TREBOLES)) {
+            danio *= 2;
+        }
+
+        salida.danioTotal = danio;
+        salida.vidaEnemigoRestante = partida.getVidaEnemigo() - danio;
+        salida.enemigoDerrotado = salida.vidaEnemigoRestante <= 0;
+        salida.capturaExacta = salida.vidaEnemigoRestante == 0;
+        salida.victoria = salida.enemigoDerrotado && partida.getCastillo().size() == 1;
+        salida.danioEnemigoRestante = salida.enemigoDerrotado ? 0 : Math.max(0, partida.getDanioEnemigo() - salida.escudo);
+        salida.cartasEnManoTras = enMano;
+    }
+
+    /**
+     * Predice el resultado de defenderse con un subconjunto de la mano.
+     * @param partida partida a evaluar (no se modifica)
+     * @param defensa subconjunto de posiciones de la mano
+     * @param salida objeto donde se escribe la predicción
+     */
+    public static void predecirDefensa(Partida partida, int defensa, PrediccionJugada salida) {
+        TablaJugadas tabla = partida.getTablaJugadas();
+        salida.limpiar();
+        salida.defensaTotal = tabla.getDanio(defensa);
+        salida.defensaExitosa = salida.defensaTotal >= partida.getDanioEnemigo();
+        salida.vidaEnemigoRestante = partida.getVidaEnemigo();
+        salida.cartasEnManoTras = tabla.getTamanio() - Integer.bitCount(defensa);
+    }
+
+    /**
+     * Obtiene el menor valor de carta de un subconjunto.
+     */
+    private static int menorValor(TablaJugadas tabla, int subconjunto) {
+        int menor = Integer.MAX_VALUE;
+        for (int resto = subconjunto; resto != 0; resto &= resto - 1) {
+            menor = Math.min(menor, tabla.getDanio(resto & -resto));
+        }
+        return menor;
+    }
+}
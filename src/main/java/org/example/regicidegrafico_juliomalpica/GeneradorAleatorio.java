@@ -0,0 +1,128 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.Random;
+
+/**
+ * Generador pseudoaleatorio SplitMix64 con estado de 64 bits.
+ * <p>
+ * Extiende {@link Random} para poder usarse con {@code Collections.shuffle} y con la API de
+ * Partida, pero a diferencia de Random su estado completo es un único long: se puede copiar,
+ * guardar y restaurar, y dividir en flujos independientes para otros hilos. Esto permite
+ * reproducir exactamente una partida a partir de su semilla y que el solucionador de repartos
+ * prediga los barajados del efecto Corazones.
+ * </p>
+ * No es seguro para hilos: cada hilo debe usar su propia instancia (ver {@link #dividir()}).
+ */
+public class GeneradorAleatorio extends Random {
+    /** Incremento de SplitMix64 (parte fraccionaria de la razón áurea) */
+    static final long GAMMA = 0x9E3779B97F4A7C15L;
+    /** Constante con la que se separan los flujos divididos del flujo padre */
+    private static final long SEPARADOR = 0xD1B54A32D192ED03L;
+
+    private long estado;
+
+    /**
+     * Crea un generador a partir de una semilla.
+     * @param semilla semilla de 64 bits
+     */
+    public GeneradorAleatorio(long semilla) {
+        super(0);
+        this.estado = semilla;
+    }
+
+    /**
+     * Obtiene el estado interno del generador.
+     * @return estado de 64 bits
+     */
+    public long getEstado() {
+        return estado;
+    }
+
+    /**
+     * Restaura el estado interno del generador.
+     * @param estado estado obtenido con {@link #getEstado()}
+     */
+    public void setEstado(long estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * Crea un generador con el mismo estado que este.
+     * @return copia independiente
+     */
+    public GeneradorAleatorio copiar() {
+        return new GeneradorAleatorio(estado);
+    }
+
+    /**
+     * Crea un generador nuevo cuya secuencia es independiente de la de este.
+     * Sirve para dar a cada hilo o a cada partida su propio flujo reproducible.
+     * @return generador dividido
+     */
+    public GeneradorAleatorio dividir() {
+        return new GeneradorAleatorio(mezclar(nextLong() ^ SEPARADOR));
+    }
+
+    /**
+     * Semilla del flujo dividido número {@code indice} de un generador, sin tener que
+     * crear los anteriores: es la semilla que daría la llamada {@code indice + 1} a
+     * {@link #dividir()} sobre {@code new GeneradorAleatorio(semillaBase)}. Permite repartir
+     * flujos independientes por partida de forma que el resultado no dependa del hilo que la juegue.
+     * @param semillaBase semilla del generador padre
+     * @param indice número del flujo (desde 0)
+     * @return semilla del flujo
+     */
+    public static long semillaFlujo(long semillaBase, long indice) {
+        return mezclar(mezclar(semillaBase + (indice + 1) * GAMMA) ^ SEPARADOR);
+    }
+
+    /**
+     * Establece la semilla (el constructor de Random también la llama).
+     * @param semilla nueva semilla
+     */
+    @Override
+    public void setSeed(long semilla) {
+        this.estado = semilla;
+    }
+
+    @Override
+    public long nextLong() {
+        estado += GAMMA;
+        return mezclar(estado);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser positivo");
+        }
+        return acotar(nextLong(), limite);
+    }
+
+    /**
+     * Función de mezcla de SplitMix64.
+     * @param z valor a mezclar
+     * @return valor mezclado
+     */
+    static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Reduce un valor aleatorio de 64 bits al intervalo [0, limite) con una multiplicación.
+     * Es la misma operación que {@link #nextInt(int)}, expuesta para quien avance el estado por su cuenta.
+     * @param valor valor aleatorio
+     * @param limite límite superior exclusivo
+     * @return valor en el intervalo
+     */
+    static int acotar(long valor, int limite) {
+        return (int) (((valor >>> 32) * limite) >>> 32);
+    }
+}
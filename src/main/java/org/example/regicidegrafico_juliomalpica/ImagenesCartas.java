@@ -0,0 +1,366 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.stage.Screen;
+import javafx.stage.Window;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caché compartida de las imágenes de las cartas, indexada por código de carta.
+ * <p>
+ * Cada imagen se decodifica una sola vez y se reutiliza en todas las actualizaciones de la
+ * partida. Los JPEG originales miden 744x1039 píxeles (unos 3 MB cada uno ya decodificados),
+ * así que nunca se cargan a tamaño completo: se reducen a los píxeles que ocupan en pantalla,
+ * teniendo en cuenta la escala de la pantalla (por ejemplo, el doble en pantallas de alta densidad).
+ * </p>
+ * <p>
+ * Por defecto todas las imágenes se juntan en un atlas: una sola imagen de
+ * {@value #COLUMNAS_ATLAS}x{@value #FILAS_ATLAS} celdas que se muestra en cada {@link ImageView}
+ * con un viewport distinto, así que se decodifica un solo archivo y se sube una sola textura.
+ * Las celdas tienen el tamaño de la vista más grande ({@value #ANCHO_CELDA}x{@value #ALTO_CELDA}
+ * por la escala) y las vistas más pequeñas (mano, mazos) reducen la misma textura al dibujarla:
+ * un atlas por cada tamaño de vista ocuparía más que uno solo. Hay un atlas por escala de
+ * pantalla, que se genera la primera vez a partir de los JPEG y se guarda como
+ * {@code cartas.atlas@<escala>x.png} en {@value #DIRECTORIO_ATLAS} (si cambian las imágenes hay
+ * que borrarlos). Con {@code -Dregicide.atlas=false} se usa una imagen por carta, cargada al
+ * tamaño de cada vista.
+ * </p>
+ * Al arrancar la aplicación, {@link #precargar()} carga las imágenes en un hilo en segundo plano
+ * para que la primera partida no tenga que esperar. Los atlas se cargan o generan siempre en ese
+ * hilo: si una vista se muestra antes de que esté listo el atlas de su escala, enseña el reverso
+ * y cambia a su carta cuando termina, sin bloquear el hilo de JavaFX. Si falta la imagen de una
+ * carta o no se puede leer, se usa la del reverso ({@code tapa.jpg}).
+ */
+public final class ImagenesCartas {
+    /** Tamaño de cada carta en el atlas a escala 1, el más grande con que se muestra (mantiene la proporción de los JPEG) */
+    static final int ANCHO_CELDA = 165;
+    static final int ALTO_CELDA = 230;
+    static final int COLUMNAS_ATLAS = 8;
+    static final int FILAS_ATLAS = 7;
+    /** Celdas que siguen a las 52 cartas */
+    private static final int CELDA_REVERSO = CodigoCarta.TOTAL_CARTAS;
+    private static final int CELDA_COMODIN = CodigoCarta.TOTAL_CARTAS + 1;
+    private static final int TOTAL_CELDAS = CELDA_COMODIN + 1;
+    /** Las escalas se redondean hacia arriba a cuartos (1, 1.25, 1.5...) para no generar un atlas por cada valor */
+    private static final int PASO_ESCALA = 25;
+    static final String DIRECTORIO_ATLAS = "src/main/resources";
+    private static final boolean USAR_ATLAS = !"false".equals(System.getProperty("regicide.atlas"));
+    private static final String RUTA_CARTAS = "/org/example/regicidegrafico_juliomalpica/cartas/";
+    private static final String RUTA_REVERSO = "/org/example/regicidegrafico_juliomalpica/imagenes/tapa.jpg";
+    private static final String RUTA_COMODIN = "/org/example/regicidegrafico_juliomalpica/imagenes/Comodin.jpg";
+
+    /** Imágenes sueltas, por celda y alto en píxeles (ver {@link #clave(int, int)}) */
+    private static final Map<Long, Image> IMAGENES = new ConcurrentHashMap<>();
+    /** Atlas por escala en centésimas, cargándose o cargados; terminan con null si no se pudo generar */
+    private static final Map<Integer, CompletableFuture<Atlas>> ATLAS = new ConcurrentHashMap<>();
+    private static final AtomicBoolean PRECARGADAS = new AtomicBoolean();
+    /** Hilo en segundo plano que carga los atlas y precarga las imágenes */
+    private static final ExecutorService CARGADOR = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "imagenes-cartas");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MIN_PRIORITY);
+        return hilo;
+    });
+    /** Propiedad de la vista con la última celda pedida, para no cambiarla al llegar un atlas tarde */
+    private static final String PROPIEDAD_CELDA = "regicide.celda";
+
+    private ImagenesCartas() {
+    }
+
+    /**
+     * Empieza a cargar en segundo plano el atlas de la pantalla principal (o las imágenes
+     * sueltas de las vistas más grandes). Solo tiene efecto la primera vez. Se llama desde el
+     * hilo de JavaFX.
+     */
+    public static void precargar() {
+        if (!PRECARGADAS.compareAndSet(false, true)) {
+            return;
+        }
+        int escala = redondearEscala(Screen.getPrimary().getOutputScaleX());
+        CompletableFuture<Atlas> atlas = USAR_ATLAS ? getAtlas(escala) : CompletableFuture.completedFuture(null);
+        atlas.thenAcceptAsync(cargado -> {
+            if (cargado != null) return;
+            try {
+                int alto = escalar(ALTO_CELDA, escala);
+                for (int celda = 0; celda < TOTAL_CELDAS; celda++) {
+                    imagen(celda, alto);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Error al precargar imágenes de cartas: " + e.getMessage());
+            }
+        }, CARGADOR);
+    }
+
+    /**
+     * Muestra una carta en una vista, con el atlas si está disponible.
+     * @param vista vista de la carta
+     * @param carta carta a mostrar, o null para dejar la vista vacía
+     */
+    public static void mostrar(ImageView vista, Carta carta) {
+        if (carta == null) {
+            vista.getProperties().remove(PROPIEDAD_CELDA);
+            vista.setImage(null);
+            return;
+        }
+        int codigo = carta.getCodigo() != CodigoCarta.SIN_CODIGO
+                ? carta.getCodigo() : CodigoCarta.codificar(carta.getNumero(), carta.getPalo());
+        mostrarCelda(vista, codigo == CodigoCarta.SIN_CODIGO ? CELDA_REVERSO : codigo);
+    }
+
+    /**
+     * Muestra el reverso de las cartas en una vista.
+     * @param vista vista del mazo
+     */
+    public static void mostrarReverso(ImageView vista) {
+        mostrarCelda(vista, CELDA_REVERSO);
+    }
+
+    /**
+     * Muestra la carta de comodín en una vista.
+     * @param vista vista del comodín
+     */
+    public static void mostrarComodin(ImageView vista) {
+        mostrarCelda(vista, CELDA_COMODIN);
+    }
+
+    private static void mostrarCelda(ImageView vista, int celda) {
+        vista.getProperties().put(PROPIEDAD_CELDA, celda);
+        int escala = escala(vista);
+        if (!USAR_ATLAS) {
+            mostrarSuelta(vista, celda, escala);
+            return;
+        }
+        CompletableFuture<Atlas> atlas = getAtlas(escala);
+        if (atlas.isDone()) {
+            mostrarAtlas(vista, celda, escala, atlas.join());
+            return;
+        }
+        //Mientras se genera el atlas se ve el reverso, y después la carta si la vista no ha cambiado
+        mostrarSuelta(vista, CELDA_REVERSO, escala);
+        Image provisional = vista.getImage();
+        atlas.thenAccept(cargado -> Platform.runLater(() -> {
+            if (vista.getImage() == provisional && Integer.valueOf(celda).equals(vista.getProperties().get(PROPIEDAD_CELDA))) {
+                mostrarAtlas(vista, celda, escala, cargado);
+            }
+        }));
+    }
+
+    /**
+     * Muestra una celda del atlas, o la imagen suelta si el atlas no se pudo generar.
+     */
+    private static void mostrarAtlas(ImageView vista, int celda, int escala, Atlas atlas) {
+        if (atlas == null) {
+            mostrarSuelta(vista, celda, escala);
+            return;
+        }
+        vista.setViewport(atlas.celdas[celda]);
+        vista.setImage(atlas.imagen);
+    }
+
+    /**
+     * Muestra la imagen suelta de una celda, cargada a los píxeles que ocupa en la vista.
+     */
+    private static void mostrarSuelta(ImageView vista, int celda, int escala) {
+        double alto = vista.getFitHeight() > 0 ? vista.getFitHeight() : ALTO_CELDA;
+        if (vista.getFitWidth() > 0) {
+            alto = Math.min(alto, vista.getFitWidth() * ALTO_CELDA / ANCHO_CELDA);
+        }
+        vista.setViewport(null);
+        vista.setImage(imagen(celda, (int) Math.ceil(alto * escala / 100)));
+    }
+
+    /**
+     * Escala de la pantalla en la que está la vista (o de la principal si aún no se muestra),
+     * en centésimas y redondeada a {@value #PASO_ESCALA}.
+     */
+    private static int escala(ImageView vista) {
+        Window ventana = vista.getScene() == null ? null : vista.getScene().getWindow();
+        return redondearEscala(ventana != null && ventana.isShowing()
+                ? ventana.getOutputScaleX() : Screen.getPrimary().getOutputScaleX());
+    }
+
+    private static int redondearEscala(double escala) {
+        return Math.max(100, (int) Math.ceil(escala * 100 / PASO_ESCALA) * PASO_ESCALA);
+    }
+
+    private static int escalar(int medida, int escala) {
+        return (medida * escala + 50) / 100;
+    }
+
+    /**
+     * Obtiene la imagen suelta de una celda, decodificándola si aún no está en la caché.
+     * Si dos hilos la piden a la vez, ambos pueden decodificarla, pero se guarda solo una.
+     * @param alto alto en píxeles
+     */
+    private static Image imagen(int celda, int alto) {
+        long clave = clave(celda, alto);
+        Image imagen = IMAGENES.get(clave);
+        if (imagen != null) {
+            return imagen;
+        }
+        String ruta = ruta(celda);
+        URL url = ImagenesCartas.class.getResource(ruta);
+        if (url == null) {
+            if (celda == CELDA_REVERSO) {
+                throw new IllegalStateException("No se encontró tapa.jpg en el classpath");
+            }
+            System.err.println("No se encontró la imagen: " + ruta);
+            imagen = imagen(CELDA_REVERSO, alto);
+        } else {
+            //El ancho se deja libre: con la proporción se calcula a partir del alto
+            imagen = new Image(url.toExternalForm(), 0, alto, true, true);
+            if (imagen.isError() && celda != CELDA_REVERSO) {
+                System.err.println("Error al cargar imagen de carta: " + ruta);
+                imagen = imagen(CELDA_REVERSO, alto);
+            }
+        }
+        Image anterior = IMAGENES.putIfAbsent(clave, imagen);
+        return anterior != null ? anterior : imagen;
+    }
+
+    private static long clave(int celda, int alto) {
+        return (long) alto * TOTAL_CELDAS + celda;
+    }
+
+    private static String ruta(int celda) {
+        switch (celda) {
+            case CELDA_REVERSO:
+                return RUTA_REVERSO;
+            case CELDA_COMODIN:
+                return RUTA_COMODIN;
+            default:
+                return RUTA_CARTAS + CodigoCarta.numero(celda) + "_" + CodigoCarta.nombrePalo(CodigoCarta.palo(celda)) + ".jpg";
+        }
+    }
+
+    /**
+     * Obtiene el atlas de una escala. La primera vez empieza a cargarlo o generarlo en
+     * segundo plano, y las siguientes devuelve la misma carga.
+     * @param escala escala en centésimas
+     * @return carga del atlas, que termina con null si no se pudo generar
+     */
+    private static CompletableFuture<Atlas> getAtlas(int escala) {
+        return ATLAS.computeIfAbsent(escala, e -> CompletableFuture.supplyAsync(() -> cargarAtlas(e), CARGADOR));
+    }
+
+    /**
+     * Lee el atlas de una escala, o lo genera a partir de los JPEG si no existe o no tiene el tamaño esperado.
+     * @param escala escala en centésimas
+     * @return atlas, o null si no se pudo generar
+     */
+    private static Atlas cargarAtlas(int escala) {
+        int ancho = escalar(ANCHO_CELDA, escala);
+        int alto = escalar(ALTO_CELDA, escala);
+        Path archivo = Path.of(DIRECTORIO_ATLAS, "cartas.atlas@" + (escala % 100 == 0 ? escala / 100 + "" : escala / 100.0) + "x.png");
+        Atlas atlas = null;
+        try {
+            Image imagen = null;
+            if (Files.exists(archivo)) {
+                imagen = new Image(archivo.toUri().toString());
+                if (imagen.isError() || imagen.getWidth() != COLUMNAS_ATLAS * ancho || imagen.getHeight() != FILAS_ATLAS * alto) {
+                    imagen = null;
+                }
+            }
+            if (imagen == null) {
+                ServicioPersistencia.escribirAtomico(archivo, generarAtlas(ancho, alto));
+                imagen = new Image(archivo.toUri().toString());
+                if (imagen.isError()) {
+                    throw new IOException("no se pudo leer " + archivo);
+                }
+            }
+            atlas = new Atlas(imagen, ancho, alto);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo generar el atlas de cartas, se usan imágenes sueltas: " + e.getMessage());
+        }
+        return atlas;
+    }
+
+    /**
+     * Dibuja todas las imágenes reducidas en sus celdas.
+     * @return atlas en formato PNG
+     */
+    private static byte[] generarAtlas(int ancho, int alto) throws IOException {
+        BufferedImage lienzo = new BufferedImage(COLUMNAS_ATLAS * ancho, FILAS_ATLAS * alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = lienzo.createGraphics();
+        try {
+            BufferedImage imagenReverso = leer(RUTA_REVERSO);
+            if (imagenReverso == null) {
+                throw new IOException("No se encontró tapa.jpg en el classpath");
+            }
+            for (int celda = 0; celda < TOTAL_CELDAS; celda++) {
+                BufferedImage imagen = celda == CELDA_REVERSO ? imagenReverso : leer(ruta(celda));
+                if (imagen == null) {
+                    imagen = imagenReverso;
+                }
+                grafico.drawImage(reducir(imagen, ancho, alto), celda % COLUMNAS_ATLAS * ancho, celda / COLUMNAS_ATLAS * alto, null);
+            }
+        } finally {
+            grafico.dispose();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(lienzo, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    private static BufferedImage leer(String ruta) throws IOException {
+        URL url = ImagenesCartas.class.getResource(ruta);
+        if (url == null) {
+            System.err.println("No se encontró la imagen: " + ruta);
+            return null;
+        }
+        return ImageIO.read(url);
+    }
+
+    /**
+     * Reduce una imagen al tamaño de una celda a mitades sucesivas, para que el filtrado
+     * bilineal no pierda detalle al reducir tanto de una vez.
+     */
+    private static BufferedImage reducir(BufferedImage imagen, int anchoCelda, int altoCelda) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        do {
+            ancho = Math.max(ancho / 2, anchoCelda);
+            alto = Math.max(alto / 2, altoCelda);
+            BufferedImage menor = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+            Graphics2D grafico = menor.createGraphics();
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.drawImage(imagen, 0, 0, ancho, alto, null);
+            grafico.dispose();
+            imagen = menor;
+        } while (ancho > anchoCelda || alto > altoCelda);
+        return imagen;
+    }
+
+    /**
+     * Atlas cargado de una escala y la posición de cada celda.
+     */
+    private static final class Atlas {
+        final Image imagen;
+        final Rectangle2D[] celdas = new Rectangle2D[TOTAL_CELDAS];
+
+        Atlas(Image imagen, int ancho, int alto) {
+            this.imagen = imagen;
+            for (int celda = 0; celda < TOTAL_CELDAS; celda++) {
+                celdas[celda] = new Rectangle2D(celda % COLUMNAS_ATLAS * ancho, celda / COLUMNAS_ATLAS * alto, ancho, alto);
+            }
+        }
+    }
+}
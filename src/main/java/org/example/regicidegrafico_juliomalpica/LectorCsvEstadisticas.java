@@ -0,0 +1,422 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import org.example.regicidegrafico_juliomalpica.EstadisticasController.EstadisticaPartida;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+/**
+ * Lector rápido del archivo estadisticas.csv de versiones anteriores.
+ * <p>
+ * Proyecta el archivo en memoria y lo reparte en bloques que empiezan y terminan en un salto de
+ * línea; cada bloque se analiza en un hilo distinto y los resultados se entregan en el orden del
+ * archivo, con como mucho unos pocos bloques por procesador en memoria a la vez. Los campos
+ * separados por "||" se buscan directamente en los bytes: no se crea un String por línea ni se
+ * usan expresiones regulares, y los números se leen sin pasar por texto.
+ * </p>
+ * Se salta la primera línea (la cabecera) y las filas que no tienen al menos cinco campos o cuyas
+ * cartas jugadas o vida no son números, igual que hacía la lectura línea a línea. También se
+ * descartan las líneas de más de {@value #MAX_LINEA} bytes, que nunca son filas válidas.
+ */
+public final class LectorCsvEstadisticas {
+    /** Longitud máxima de una fila, en bytes */
+    static final int MAX_LINEA = 1 << 20;
+    private static final long MIN_BLOQUE = 1 << 20;
+    private static final long MAX_BLOQUE = 64 << 20;
+    private static final int CAMPOS = 6;
+    private static final byte SALTO = '\n';
+    private static final byte SEPARADOR = '|';
+
+    private LectorCsvEstadisticas() {
+    }
+
+    /**
+     * Lee todas las filas válidas del archivo.
+     * @param ruta archivo CSV
+     * @return filas en el orden del archivo
+     * @throws IOException si no se puede leer el archivo
+     */
+    public static List<EstadisticaPartida> leer(Path ruta) throws IOException {
+        List<EstadisticaPartida> filas = new ArrayList<>();
+        recorrerBloques(ruta, Analizador::filas, bloque -> {
+            filas.addAll(bloque);
+            return true;
+        });
+        return filas;
+    }
+
+    /**
+     * Entrega las filas válidas del archivo una a una, en orden y sin tenerlas todas en memoria.
+     * @param ruta archivo CSV
+     * @param destino recibe cada fila
+     * @throws IOException si no se puede leer el archivo
+     */
+    public static void recorrer(Path ruta, Consumer<EstadisticaPartida> destino) throws IOException {
+        recorrerBloques(ruta, Analizador::filas, filas -> {
+            filas.forEach(destino);
+            return true;
+        });
+    }
+
+    /**
+     * Entrega la posición en el archivo de cada fila válida, en orden, sin leer sus campos de texto.
+     * @param ruta archivo CSV
+     * @param destino recibe cada posición y devuelve false para dejar de recorrer
+     * @throws IOException si no se puede leer el archivo
+     */
+    public static void recorrerInicios(Path ruta, LongPredicate destino) throws IOException {
+        recorrerBloques(ruta, Analizador::inicios, inicios -> {
+            for (long inicio : inicios) {
+                if (!destino.test(inicio)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Lee filas válidas a partir de una posición, por ejemplo una de {@link #recorrerInicios}.
+     * @param ruta archivo CSV
+     * @param inicio posición del principio de una línea
+     * @param cantidad número máximo de filas
+     * @param filas lista a la que se añaden las filas leídas
+     * @throws IOException si no se puede leer el archivo
+     */
+    public static void leer(Path ruta, long inicio, int cantidad, List<EstadisticaPartida> filas) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (inicio >= tamanio) {
+                return;
+            }
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(tamanio - inicio, Integer.MAX_VALUE));
+            Analizador analizador = new Analizador(datos, inicio, inicio + datos.limit() == tamanio);
+            int objetivo = filas.size() + cantidad;
+            analizador.recorrerLineas(0, datos.limit(), (desde, hasta) -> {
+                if (analizador.analizar(desde, hasta)) {
+                    filas.add(analizador.fila());
+                }
+                return filas.size() < objetivo;
+            });
+        }
+    }
+
+    /**
+     * Trabajo que se hace sobre cada bloque, en paralelo.
+     */
+    @FunctionalInterface
+    private interface Procesador<T> {
+        T procesar(Analizador analizador, int desde, int hasta);
+    }
+
+    /**
+     * Recibe en orden el resultado de cada bloque y devuelve false para dejar de recorrer.
+     */
+    @FunctionalInterface
+    private interface Destino<T> {
+        boolean recibir(T resultado);
+    }
+
+    @FunctionalInterface
+    private interface Linea {
+        boolean aceptar(int desde, int hasta);
+    }
+
+    /**
+     * Reparte el archivo en bloques, los procesa en paralelo y entrega los resultados en orden.
+     * Solo hay unos pocos bloques en curso a la vez para no llenar la memoria con los resultados.
+     */
+    private static <T> void recorrerBloques(Path ruta, Procesador<T> procesador, Destino<T> destino) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            int hilos = Runtime.getRuntime().availableProcessors();
+            long bloque = Math.clamp(tamanio / (hilos * 4L), MIN_BLOQUE, MAX_BLOQUE);
+            long bloques = (tamanio + bloque - 1) / bloque;
+            int maxEnCurso = hilos * 2;
+
+            ArrayDeque<Future<T>> enCurso = new ArrayDeque<>();
+            long siguiente = 0;
+            try {
+                while (siguiente < bloques || !enCurso.isEmpty()) {
+                    while (siguiente < bloques && enCurso.size() < maxEnCurso) {
+                        long desde = siguiente * bloque;
+                        long hasta = Math.min(desde + bloque, tamanio);
+                        enCurso.add(ForkJoinPool.commonPool().submit(() -> procesarBloque(canal, tamanio, desde, hasta, procesador)));
+                        siguiente++;
+                    }
+                    if (!destino.recibir(esperar(enCurso.poll()))) {
+                        return;
+                    }
+                }
+            } finally {
+                for (Future<T> pendiente : enCurso) {
+                    pendiente.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Procesa las líneas que empiezan entre desde y hasta. La primera línea del archivo es la
+     * cabecera y cualquier otro bloque empieza a mitad de la línea anterior; en los dos casos se
+     * empieza después del primer salto de línea. Las líneas del final pueden pasar de hasta, así
+     * que se proyecta también lo que pueda ocupar la última.
+     */
+    private static <T> T procesarBloque(FileChannel canal, long tamanio, long desde, long hasta, Procesador<T> procesador) {
+        try {
+            long inicioProyeccion = Math.max(0, desde - 1);
+            long finProyeccion = Math.min(tamanio, hasta + MAX_LINEA + 1);
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, inicioProyeccion, finProyeccion - inicioProyeccion);
+            Analizador analizador = new Analizador(datos, inicioProyeccion, finProyeccion == tamanio);
+            int primera = analizador.buscarSalto(0, datos.limit()) + 1;
+            if (primera == 0) {
+                return procesador.procesar(analizador, 0, 0);
+            }
+            return procesador.procesar(analizador, primera, (int) (hasta - inicioProyeccion));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T esperar(Future<T> resultado) throws IOException {
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lectura de estadísticas interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Analiza las líneas de una parte proyectada del archivo. Cada hilo usa el suyo.
+     */
+    private static final class Analizador {
+        private final ByteBuffer datos;
+        /** Posición en el archivo del primer byte de datos */
+        private final long base;
+        /** Si los datos llegan hasta el final del archivo */
+        private final boolean hastaElFinal;
+        private final int[] iniciosCampo = new int[CAMPOS];
+        private final int[] finesCampo = new int[CAMPOS];
+        private int campos;
+        private int cartasJugadas;
+        private int vidaEnemigo;
+        private byte[] texto = new byte[256];
+
+        Analizador(ByteBuffer datos, long base, boolean hastaElFinal) {
+            this.datos = datos;
+            this.base = base;
+            this.hastaElFinal = hastaElFinal;
+        }
+
+        List<EstadisticaPartida> filas(int desde, int hasta) {
+            List<EstadisticaPartida> filas = new ArrayList<>();
+            recorrerLineas(desde, hasta, (inicio, fin) -> {
+                if (analizar(inicio, fin)) {
+                    filas.add(fila());
+                }
+                return true;
+            });
+            return filas;
+        }
+
+        long[] inicios(int desde, int hasta) {
+            LongStream.Builder inicios = LongStream.builder();
+            recorrerLineas(desde, hasta, (inicio, fin) -> {
+                if (analizar(inicio, fin)) {
+                    inicios.add(base + inicio);
+                }
+                return true;
+            });
+            return inicios.build().toArray();
+        }
+
+        /**
+         * Entrega cada línea que empieza antes de hasta, sin el salto de línea.
+         */
+        void recorrerLineas(int desde, int hasta, Linea linea) {
+            int limite = datos.limit();
+            int posicion = desde;
+            while (posicion < hasta) {
+                int salto = buscarSalto(posicion, limite);
+                int fin = salto;
+                if (salto < 0) {
+                    if (!hastaElFinal) {
+                        return; //Línea demasiado larga que sigue fuera de lo proyectado
+                    }
+                    fin = limite; //Última línea sin salto de línea
+                }
+                if (fin - posicion <= MAX_LINEA && !linea.aceptar(posicion, fin)) {
+                    return;
+                }
+                if (salto < 0) {
+                    return;
+                }
+                posicion = salto + 1;
+            }
+        }
+
+        int buscarSalto(int desde, int hasta) {
+            for (int i = desde; i < hasta; i++) {
+                if (datos.get(i) == SALTO) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Separa los campos de una línea y lee los números.
+         * @return true si la línea es una fila válida
+         */
+        boolean analizar(int desde, int hasta) {
+            if (hasta > desde && datos.get(hasta - 1) == '\r') {
+                hasta--;
+            }
+            //Como String.split, los campos vacíos del final no cuentan: hace falta un campo
+            //con algo a partir del quinto
+            boolean completa = false;
+            campos = 0;
+            int inicioCampo = desde;
+            int i = desde;
+            while (i < hasta) {
+                if (datos.get(i) == SEPARADOR && i + 1 < hasta && datos.get(i + 1) == SEPARADOR) {
+                    completa |= cerrarCampo(inicioCampo, i);
+                    i += 2;
+                    inicioCampo = i;
+                    if (campos == CAMPOS) {
+                        //Los campos siguientes no se usan; basta con saber si alguno tiene algo
+                        completa |= hayContenido(i, hasta);
+                        break;
+                    }
+                } else {
+                    i++;
+                }
+            }
+            if (campos < CAMPOS) {
+                completa |= cerrarCampo(inicioCampo, hasta);
+            }
+            if (!completa) {
+                return false;
+            }
+            long cartas = entero(1);
+            long vida = entero(2);
+            if (cartas == Long.MIN_VALUE || vida == Long.MIN_VALUE) {
+                return false;
+            }
+            cartasJugadas = (int) cartas;
+            vidaEnemigo = (int) vida;
+            return true;
+        }
+
+        /**
+         * Indica si entre desde y hasta hay algo más que separadores.
+         */
+        private boolean hayContenido(int desde, int hasta) {
+            int i = desde;
+            while (i < hasta) {
+                if (datos.get(i) != SEPARADOR || i + 1 == hasta || datos.get(i + 1) != SEPARADOR) {
+                    return true;
+                }
+                i += 2;
+            }
+            return false;
+        }
+
+        /**
+         * Guarda los límites de un campo sin los espacios de los extremos.
+         * @return true si el campo cuenta para tener cinco campos
+         */
+        private boolean cerrarCampo(int desde, int hasta) {
+            boolean cuenta = campos >= 4 && hasta > desde;
+            while (desde < hasta && (datos.get(desde) & 0xFF) <= ' ') {
+                desde++;
+            }
+            while (hasta > desde && (datos.get(hasta - 1) & 0xFF) <= ' ') {
+                hasta--;
+            }
+            iniciosCampo[campos] = desde;
+            finesCampo[campos] = hasta;
+            campos++;
+            return cuenta;
+        }
+
+        /**
+         * Lee un campo como Integer.parseInt.
+         * @return el número, o Long.MIN_VALUE si no es un int
+         */
+        private long entero(int campo) {
+            int i = iniciosCampo[campo];
+            int fin = finesCampo[campo];
+            boolean negativo = false;
+            if (i < fin && (datos.get(i) == '-' || datos.get(i) == '+')) {
+                negativo = datos.get(i) == '-';
+                i++;
+            }
+            if (i == fin) {
+                return Long.MIN_VALUE;
+            }
+            long valor = 0;
+            for (; i < fin; i++) {
+                int digito = datos.get(i) - '0';
+                if (digito < 0 || digito > 9 || valor > Integer.MAX_VALUE) {
+                    return Long.MIN_VALUE;
+                }
+                valor = valor * 10 + digito;
+            }
+            valor = negativo ? -valor : valor;
+            return valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE ? Long.MIN_VALUE : valor;
+        }
+
+        /**
+         * Crea la fila de la última línea analizada con éxito.
+         */
+        EstadisticaPartida fila() {
+            String resultado = igual(4, "Victoria") ? "Victoria" : igual(4, "Derrota") ? "Derrota" : texto(4);
+            return new EstadisticaPartida(texto(0), cartasJugadas, vidaEnemigo, texto(3), resultado,
+                    campos > 5 ? texto(5) : "");
+        }
+
+        private boolean igual(int campo, String valor) {
+            int inicio = iniciosCampo[campo];
+            if (finesCampo[campo] - inicio != valor.length()) {
+                return false;
+            }
+            for (int i = 0; i < valor.length(); i++) {
+                if (datos.get(inicio + i) != valor.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String texto(int campo) {
+            int inicio = iniciosCampo[campo];
+            int longitud = finesCampo[campo] - inicio;
+            if (longitud > texto.length) {
+                texto = new byte[Math.max(longitud, texto.length * 2)];
+            }
+            datos.get(inicio, texto, 0, longitud);
+            return new String(texto, 0, longitud, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+import org.example.regicidegrafico_juliomalpica.EstadisticasController.EstadisticaPartida;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lista de estadísticas para la tabla que carga las filas por páginas en segundo plano.
+ * <p>
+ * Contiene primero las filas del CSV de versiones anteriores y después los registros del
+ * almacén binario. Al abrir la pantalla, una tarea recorre el CSV apuntando dónde empieza cada
+ * página y la lista va creciendo a medida que las encuentra, así que la primera página se ve
+ * enseguida. Las filas solo se leen cuando la tabla las pide al mostrarlas: mientras una página
+ * se está leyendo sus filas son null (la tabla las deja vacías) y al llegar se avisa a la tabla.
+ * Solo se guardan en memoria las {@value #MAX_PAGINAS} páginas usadas más recientemente.
+ * </p>
+ * Todos los métodos, salvo las tareas de lectura, se usan desde el hilo de JavaFX.
+ */
+public class ListaEstadisticas extends ObservableListBase<EstadisticaPartida> {
+    /** Filas por página */
+    static final int TAMANIO_PAGINA = 256;
+    /** Páginas que se mantienen en memoria */
+    static final int MAX_PAGINAS = 64;
+    /** Tiempo mínimo entre avisos de filas nuevas del CSV mientras se recorre */
+    private static final long INTERVALO_AVISOS_MS = 100;
+
+    private final Path csv;
+    private final AlmacenEstadisticas almacen;
+    /** Lecturas de páginas, de una en una y en orden de petición */
+    private final ExecutorService lector = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "estadisticas-paginas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final Map<Integer, List<EstadisticaPartida>> paginas = new LinkedHashMap<>(MAX_PAGINAS, 0.75f, true);
+    private final Set<Integer> pendientes = new HashSet<>();
+    private Task<Void> indexado;
+
+    /** Posición en el CSV de la primera fila de cada página (solo se añaden posiciones) */
+    private long[] iniciosCsv = new long[0];
+    private int filasCsv;
+    private int tamanio;
+
+    /**
+     * Crea la lista vacía. Las filas aparecen al llamar a {@link #cargar(Runnable)}.
+     * @param csv archivo CSV de versiones anteriores (puede no existir)
+     * @param almacen almacén binario de estadísticas
+     */
+    public ListaEstadisticas(Path csv, AlmacenEstadisticas almacen) {
+        this.csv = csv;
+        this.almacen = almacen;
+    }
+
+    /**
+     * Empieza a buscar las filas en segundo plano.
+     * @param alTerminar se ejecuta en el hilo de JavaFX cuando se conocen todas las filas
+     */
+    public void cargar(Runnable alTerminar) {
+        indexado = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                //Esperar a las estadísticas que aún se estén escribiendo
+                ServicioPersistencia.getInstancia().vaciar(Partida.ESPERA_ESCRITURAS_MS);
+                if (Files.exists(csv)) {
+                    indexarCsv(this);
+                    //La primera vez, contar también en el resumen las partidas del CSV
+                    almacen.incluirCsv(csv);
+                }
+                long total = almacen.getNumRegistros();
+                Platform.runLater(() -> anadirRegistros(total));
+                return null;
+            }
+        };
+        indexado.setOnSucceeded(evento -> alTerminar.run());
+        indexado.setOnFailed(evento -> {
+            System.err.println("Error al cargar estadísticas: " + indexado.getException().getMessage());
+            alTerminar.run();
+        });
+        Thread hilo = new Thread(indexado, "estadisticas-indice");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Detiene la carga y las lecturas pendientes al salir de la pantalla.
+     */
+    public void cerrar() {
+        if (indexado != null) {
+            indexado.cancel();
+        }
+        lector.shutdownNow();
+    }
+
+    @Override
+    public int size() {
+        return tamanio;
+    }
+
+    /**
+     * Obtiene una fila. Si su página no está en memoria se pide en segundo plano y,
+     * mientras tanto, se devuelve null.
+     * @param indice posición de la fila
+     * @return fila, o null si todavía se está leyendo
+     */
+    @Override
+    public EstadisticaPartida get(int indice) {
+        Objects.checkIndex(indice, tamanio);
+        int pagina = indice / TAMANIO_PAGINA;
+        List<EstadisticaPartida> filas = paginas.get(pagina);
+        if (filas == null) {
+            pedir(pagina);
+            return null;
+        }
+        //Adelantar la siguiente página mientras se recorre la tabla
+        if (indice % TAMANIO_PAGINA >= TAMANIO_PAGINA / 2 && (pagina + 1) * TAMANIO_PAGINA < tamanio) {
+            pedir(pagina + 1);
+        }
+        return filas.get(indice - pagina * TAMANIO_PAGINA);
+    }
+
+    /**
+     * Pide leer una página si no está ya en memoria ni pedida.
+     */
+    private void pedir(int pagina) {
+        if (paginas.containsKey(pagina) || !pendientes.add(pagina)) {
+            return;
+        }
+        int desde = pagina * TAMANIO_PAGINA;
+        int hasta = Math.min(desde + TAMANIO_PAGINA, tamanio);
+        //Datos de la página tomados ahora, en el hilo de JavaFX
+        int finCsv = Math.min(hasta, filasCsv);
+        long inicioCsv = desde < filasCsv ? iniciosCsv[pagina] : 0;
+        lector.execute(() -> {
+            try {
+                List<EstadisticaPartida> filas = new ArrayList<>(hasta - desde);
+                if (desde < finCsv) {
+                    LectorCsvEstadisticas.leer(csv, inicioCsv, finCsv - desde, filas);
+                }
+                if (hasta > filasCsv) {
+                    long primerRegistro = Math.max(desde, filasCsv) - filasCsv;
+                    for (RegistroEstadistica registro : almacen.leer(primerRegistro, hasta - Math.max(desde, filasCsv))) {
+                        filas.add(EstadisticaPartida.de(registro));
+                    }
+                }
+                Platform.runLater(() -> recibir(pagina, filas));
+            } catch (IOException e) {
+                System.err.println("Error al cargar estadísticas: " + e.getMessage());
+                Platform.runLater(() -> pendientes.remove(pagina));
+            }
+        });
+    }
+
+    /**
+     * Guarda una página recién leída, descarta la menos usada si sobran y avisa a la tabla.
+     */
+    private void recibir(int pagina, List<EstadisticaPartida> filas) {
+        if (!pendientes.remove(pagina)) {
+            return;
+        }
+        int desde = pagina * TAMANIO_PAGINA;
+        int hasta = Math.min(desde + filas.size(), tamanio);
+        paginas.put(pagina, filas);
+        Iterator<Integer> antiguas = paginas.keySet().iterator();
+        while (paginas.size() > MAX_PAGINAS) {
+            antiguas.next();
+            antiguas.remove();
+        }
+        beginChange();
+        for (int i = desde; i < hasta; i++) {
+            nextUpdate(i);
+        }
+        endChange();
+    }
+
+    /**
+     * Añade al final las filas del CSV encontradas hasta ahora.
+     */
+    private void anadirFilasCsv(long[] inicios, int filas) {
+        iniciosCsv = inicios;
+        filasCsv = filas;
+        crecer(filas);
+    }
+
+    /**
+     * Añade al final los registros del almacén, cuando ya se conocen todas las filas del CSV.
+     */
+    private void anadirRegistros(long registros) {
+        //La última página del CSV puede completarse con registros del almacén
+        int ultima = filasCsv / TAMANIO_PAGINA;
+        paginas.remove(ultima);
+        pendientes.remove(ultima);
+        crecer((int) Math.min(Integer.MAX_VALUE, filasCsv + registros));
+    }
+
+    private void crecer(int nuevoTamanio) {
+        if (nuevoTamanio <= tamanio) {
+            return;
+        }
+        int anterior = tamanio;
+        tamanio = nuevoTamanio;
+        beginChange();
+        nextAdd(anterior, nuevoTamanio);
+        endChange();
+    }
+
+    /**
+     * Recorre el CSV apuntando la posición de la primera fila de cada página y
+     * avisando de las filas nuevas cada poco tiempo.
+     */
+    private void indexarCsv(Task<Void> tarea) throws IOException {
+        IndiceCsv indice = new IndiceCsv();
+        long[] ultimoAviso = {0};
+        LectorCsvEstadisticas.recorrerInicios(csv, inicio -> {
+            indice.anadir(inicio);
+            //Avisar en cuanto hay una página y después cada cierto tiempo
+            long ahora = System.currentTimeMillis();
+            if (indice.filas % TAMANIO_PAGINA == 0
+                    && (indice.filas == TAMANIO_PAGINA || ahora - ultimoAviso[0] >= INTERVALO_AVISOS_MS)) {
+                publicar(indice);
+                ultimoAviso[0] = ahora;
+            }
+            return !tarea.isCancelled();
+        });
+        publicar(indice);
+    }
+
+    private void publicar(IndiceCsv indice) {
+        long[] inicios = indice.inicios;
+        int filas = indice.filas;
+        Platform.runLater(() -> anadirFilasCsv(inicios, filas));
+    }
+
+    /**
+     * Posiciones de las páginas del CSV encontradas por el recorrido.
+     * El array solo crece (copiándolo) y nunca se modifican posiciones ya escritas,
+     * así que puede pasarse al hilo de JavaFX sin copiarlo.
+     */
+    private static final class IndiceCsv {
+        long[] inicios = new long[64];
+        int filas;
+
+        void anadir(long inicio) {
+            if (filas % TAMANIO_PAGINA == 0) {
+                int pagina = filas / TAMANIO_PAGINA;
+                if (pagina == inicios.length) {
+                    inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                }
+                inicios[pagina] = inicio;
+            }
+            filas++;
+        }
+    }
+}
@@ -57,6 +57,8 @@ public class Main {
             }
         } while (opcion != 4);
         sc.close();
+        //Terminar los guardados y estadísticas pendientes antes de salir
+        ServicioPersistencia.getInstancia().vaciar(Partida.ESPERA_ESCRITURAS_MS);
         System.out.println("Programa finalizado");
     }
 
@@ -69,6 +71,7 @@ public class Main {
      */
     private static void nuevaPartida(Scanner sc) {
         Partida partida = new Partida();
+        partida.setOyente(new ConsolaPartida());
 
         //metodos antes de empezar a jugar
         partida.generarBaraja();
@@ -87,6 +90,7 @@ public class Main {
     private static void continuarPartida(Scanner sc) {
         Partida partida = Partida.cargarPartida();
         if (partida != null) {
+            partida.setOyente(new ConsolaPartida());
             partida.verEstadoInicial();
             jugarPartida(sc, partida);
         } else {
@@ -0,0 +1,227 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * Mazo de cartas guardado como buffer circular de códigos (un byte por carta).
+ * <p>
+ * La posición 0 es la cima del mazo. Robar de la cima, poner una carta encima o debajo y quitar
+ * la última carta son operaciones O(1), en lugar del desplazamiento de todo el array que
+ * supone {@code ArrayList.remove(0)} o {@code add(0, ...)}. Implementa {@link java.util.List}
+ * para que la interfaz, el bot y Gson lo sigan usando como una lista normal: al guardarse en
+ * JSON se escribe como un array de cartas, igual que antes.
+ * </p>
+ * Solo admite cartas de la baraja (con código de {@link CodigoCarta}).
+ */
+public class Mazo extends AbstractList<Carta> implements RandomAccess {
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    private byte[] codigos = new byte[CAPACIDAD_INICIAL];
+    /** Posición de la cima dentro del buffer */
+    private int inicio;
+    private int tamanio;
+
+    /**
+     * Crea un mazo vacío (también lo usa Gson al cargar una partida).
+     */
+    public Mazo() {
+    }
+
+    /**
+     * Crea un mazo con las cartas indicadas, la primera en la cima.
+     * @param cartas cartas iniciales
+     */
+    public Mazo(Collection<? extends Carta> cartas) {
+        addAll(cartas);
+    }
+
+    @Override
+    public Carta get(int indice) {
+        comprobarIndice(indice, tamanio);
+        return CodigoCarta.carta(codigos[posicion(indice)]);
+    }
+
+    @Override
+    public Carta set(int indice, Carta carta) {
+        comprobarIndice(indice, tamanio);
+        int p = posicion(indice);
+        Carta anterior = CodigoCarta.carta(codigos[p]);
+        codigos[p] = codigo(carta);
+        return anterior;
+    }
+
+    @Override
+    public int size() {
+        return tamanio;
+    }
+
+    @Override
+    public boolean add(Carta carta) {
+        ponerDebajo(carta);
+        return true;
+    }
+
+    @Override
+    public void add(int indice, Carta carta) {
+        comprobarIndice(indice, tamanio + 1);
+        if (indice == 0) {
+            ponerEncima(carta);
+            return;
+        }
+        if (indice == tamanio) {
+            ponerDebajo(carta);
+            return;
+        }
+        asegurarCapacidad();
+        for (int i = tamanio; i > indice; i--) {
+            codigos[posicion(i)] = codigos[posicion(i - 1)];
+        }
+        codigos[posicion(indice)] = codigo(carta);
+        tamanio++;
+        modCount++;
+    }
+
+    @Override
+    public Carta remove(int indice) {
+        comprobarIndice(indice, tamanio);
+        if (indice == 0) {
+            return robar();
+        }
+        if (indice == tamanio - 1) {
+            return quitarUltima();
+        }
+        Carta carta = get(indice);
+        for (int i = indice; i < tamanio - 1; i++) {
+            codigos[posicion(i)] = codigos[posicion(i + 1)];
+        }
+        tamanio--;
+        modCount++;
+        return carta;
+    }
+
+    @Override
+    public void clear() {
+        inicio = 0;
+        tamanio = 0;
+        modCount++;
+    }
+
+    /**
+     * Roba la carta de la cima del mazo.
+     * @return carta robada
+     * @throws NoSuchElementException si el mazo está vacío
+     */
+    public Carta robar() {
+        if (tamanio == 0) {
+            throw new NoSuchElementException("El mazo está vacío");
+        }
+        Carta carta = CodigoCarta.carta(codigos[inicio]);
+        inicio = (inicio + 1) & (codigos.length - 1);
+        tamanio--;
+        modCount++;
+        return carta;
+    }
+
+    /**
+     * Quita la última carta (la del fondo) del mazo.
+     * @return carta quitada
+     * @throws NoSuchElementException si el mazo está vacío
+     */
+    public Carta quitarUltima() {
+        if (tamanio == 0) {
+            throw new NoSuchElementException("El mazo está vacío");
+        }
+        tamanio--;
+        modCount++;
+        return CodigoCarta.carta(codigos[posicion(tamanio)]);
+    }
+
+    /**
+     * Pone una carta en la cima del mazo.
+     * @param carta carta de la baraja
+     */
+    public void ponerEncima(Carta carta) {
+        byte codigo = codigo(carta);
+        asegurarCapacidad();
+        inicio = (inicio - 1) & (codigos.length - 1);
+        codigos[inicio] = codigo;
+        tamanio++;
+        modCount++;
+    }
+
+    /**
+     * Pone una carta en el fondo del mazo.
+     * @param carta carta de la baraja
+     */
+    public void ponerDebajo(Carta carta) {
+        byte codigo = codigo(carta);
+        asegurarCapacidad();
+        codigos[posicion(tamanio)] = codigo;
+        tamanio++;
+        modCount++;
+    }
+
+    /**
+     * Saca cartas al azar de este mazo y las pone en el fondo de otro.
+     * Es una pasada parcial de Fisher–Yates desde el final: en cada paso se elige una carta
+     * entre las que quedan, se intercambia con la última y se quita, de forma que solo se
+     * consumen tantos números aleatorios como cartas se mueven.
+     * @param cantidad número de cartas a mover (como mucho el tamaño del mazo)
+     * @param destino mazo que recibe las cartas, en el orden en que se eligen
+     * @param aleatorio generador usado para elegir las cartas
+     */
+    public void moverAleatorias(int cantidad, Mazo destino, Random aleatorio) {
+        if (cantidad < 0 || cantidad > tamanio) {
+            throw new IllegalArgumentException("No se pueden mover " + cantidad + " cartas de un mazo de " + tamanio);
+        }
+        for (int i = 0; i < cantidad; i++) {
+            int ultima = posicion(tamanio - 1);
+            int elegida = posicion(aleatorio.nextInt(tamanio));
+            byte codigo = codigos[elegida];
+            codigos[elegida] = codigos[ultima];
+            tamanio--;
+            destino.ponerDebajo(CodigoCarta.carta(codigo));
+        }
+        modCount++;
+    }
+
+    /**
+     * Posición en el buffer de un índice del mazo.
+     */
+    private int posicion(int indice) {
+        return (inicio + indice) & (codigos.length - 1);
+    }
+
+    /**
+     * Duplica el buffer si está lleno, dejando la cima en la posición 0.
+     */
+    private void asegurarCapacidad() {
+        if (tamanio < codigos.length) {
+            return;
+        }
+        byte[] nuevo = new byte[codigos.length * 2];
+        for (int i = 0; i < tamanio; i++) {
+            nuevo[i] = codigos[posicion(i)];
+        }
+        codigos = nuevo;
+        inicio = 0;
+    }
+
+    private static byte codigo(Carta carta) {
+        int codigo = carta.getCodigo();
+        if (codigo == CodigoCarta.SIN_CODIGO) {
+            throw new IllegalArgumentException("La carta no pertenece a la baraja: " + carta);
+        }
+        return (byte) codigo;
+    }
+
+    private void comprobarIndice(int indice, int limite) {
+        if (indice < 0 || indice >= limite) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango en un mazo de " + tamanio + " cartas");
+        }
+    }
+}
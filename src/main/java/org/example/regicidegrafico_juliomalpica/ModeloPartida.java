@@ -0,0 +1,142 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estado de una partida tal como se muestra en pantalla, como propiedades de JavaFX.
+ * <p>
+ * {@link Partida} no depende de JavaFX (las partidas simuladas no muestran nada), así que
+ * después de cada acción el controlador copia aquí su estado con {@link #actualizar(Partida)}.
+ * Las propiedades solo avisan cuando su valor cambia: las etiquetas enlazadas y las imágenes
+ * de las cartas se actualizan solo si lo que muestran es distinto, y el resto de la escena no
+ * se vuelve a maquetar. Las cartas se comparan por identidad, que basta porque hay una sola
+ * instancia por carta (ver {@link CodigoCarta#carta(int)}).
+ * </p>
+ * Se usa desde el hilo de JavaFX.
+ */
+public final class ModeloPartida {
+    private final StringProperty nombreJugador = new SimpleStringProperty("");
+    private final IntegerProperty vidaEnemigo = new SimpleIntegerProperty();
+    private final IntegerProperty danioEnemigo = new SimpleIntegerProperty();
+    private final IntegerProperty defensa = new SimpleIntegerProperty();
+    private final IntegerProperty comodines = new SimpleIntegerProperty(Partida.COMODINES_INICIALES);
+    private final IntegerProperty cartasCastillo = new SimpleIntegerProperty();
+    private final IntegerProperty cartasPosada = new SimpleIntegerProperty();
+    private final IntegerProperty cartasJugadas = new SimpleIntegerProperty();
+    private final IntegerProperty cartasDescartadas = new SimpleIntegerProperty();
+    private final ObjectProperty<Carta> enemigo = new SimpleObjectProperty<>();
+    private final ObjectProperty<Carta> ultimaJugada = new SimpleObjectProperty<>();
+    private final List<ObjectProperty<Carta>> mano;
+
+    /**
+     * Crea el modelo vacío.
+     * @param huecosMano número de cartas de la mano que se muestran
+     */
+    public ModeloPartida(int huecosMano) {
+        List<ObjectProperty<Carta>> huecos = new ArrayList<>(huecosMano);
+        for (int i = 0; i < huecosMano; i++) {
+            huecos.add(new SimpleObjectProperty<>());
+        }
+        mano = Collections.unmodifiableList(huecos);
+    }
+
+    /**
+     * Copia el estado de la partida. Solo avisan las propiedades que cambian.
+     * @param partida partida mostrada
+     */
+    public void actualizar(Partida partida) {
+        nombreJugador.set(partida.getNombreJugador());
+        vidaEnemigo.set(partida.getVidaEnemigo());
+        danioEnemigo.set(partida.getDanioEnemigo());
+        comodines.set(partida.getComodinesDisponibles());
+        cartasCastillo.set(partida.getCastillo().size());
+        cartasPosada.set(partida.getMazoPosada().size());
+        cartasJugadas.set(partida.getMazoCartasJugadas().size());
+        cartasDescartadas.set(partida.getMazoCartasDescartadas().size());
+        enemigo.set(partida.getCastillo().isEmpty() ? null : partida.getCastillo().get(0));
+        Mazo jugadas = partida.getMazoCartasJugadas();
+        ultimaJugada.set(jugadas.isEmpty() ? null : jugadas.get(jugadas.size() - 1));
+        List<Carta> cartas = partida.getMano();
+        for (int i = 0; i < mano.size(); i++) {
+            mano.get(i).set(i < cartas.size() ? cartas.get(i) : null);
+        }
+    }
+
+    /**
+     * Cambia la defensa acumulada en el turno, que lleva el controlador y no la partida
+     * @param defensa puntos de defensa
+     */
+    public void setDefensa(int defensa) {
+        this.defensa.set(defensa);
+    }
+
+    public StringProperty nombreJugadorProperty() {
+        return nombreJugador;
+    }
+
+    public IntegerProperty vidaEnemigoProperty() {
+        return vidaEnemigo;
+    }
+
+    public IntegerProperty danioEnemigoProperty() {
+        return danioEnemigo;
+    }
+
+    public IntegerProperty defensaProperty() {
+        return defensa;
+    }
+
+    public IntegerProperty comodinesProperty() {
+        return comodines;
+    }
+
+    public IntegerProperty cartasCastilloProperty() {
+        return cartasCastillo;
+    }
+
+    public IntegerProperty cartasPosadaProperty() {
+        return cartasPosada;
+    }
+
+    public IntegerProperty cartasJugadasProperty() {
+        return cartasJugadas;
+    }
+
+    public IntegerProperty cartasDescartadasProperty() {
+        return cartasDescartadas;
+    }
+
+    /**
+     * Enemigo actual (la primera carta del castillo)
+     * @return propiedad con el enemigo, o null si el castillo está vacío
+     */
+    public ObjectProperty<Carta> enemigoProperty() {
+        return enemigo;
+    }
+
+    /**
+     * Última carta del mazo de cartas jugadas
+     * @return propiedad con la carta, o null si no se ha jugado ninguna
+     */
+    public ObjectProperty<Carta> ultimaJugadaProperty() {
+        return ultimaJugada;
+    }
+
+    /**
+     * Carta de un hueco de la mano
+     * @param hueco posición en la mano
+     * @return propiedad con la carta, o null si el hueco está vacío
+     */
+    public ObjectProperty<Carta> cartaManoProperty(int hueco) {
+        return mano.get(hueco);
+    }
+}
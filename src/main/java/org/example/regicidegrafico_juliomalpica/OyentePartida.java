@@ -0,0 +1,135 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.List;
+
+/**
+ * Recibe los eventos de una partida (cartas jugadas, efectos de palo, enemigos derrotados,
+ * defensas y fin de la partida).
+ * <p>
+ * Todos los métodos tienen una implementación vacía, así que cada oyente solo sobrescribe los
+ * eventos que le interesan. Una partida sin oyentes usa {@link #NINGUNO}: los eventos se envían
+ * con datos que la partida ya tiene calculados, sin construir cadenas, por lo que las partidas
+ * simuladas no pagan nada por ellos.
+ * </p>
+ */
+public interface OyentePartida {
+    /** Oyente que ignora todos los eventos */
+    OyentePartida NINGUNO = new OyentePartida() {
+    };
+
+    /**
+     * Se han jugado cartas contra el enemigo y ya se han aplicado sus efectos.
+     * @param cartas cartas jugadas
+     * @param danio daño causado (con el efecto de Tréboles aplicado)
+     * @param vidaEnemigo vida restante del enemigo
+     */
+    default void cartasJugadas(List<Carta> cartas, int danio, int vidaEnemigo) {
+    }
+
+    /**
+     * Se ha aplicado el efecto de un palo.
+     * @param palo índice del palo (ver {@link CodigoCarta})
+     * @param valor cartas movidas (Corazones), robadas (Diamantes), reducción añadida (Picas)
+     *              o daño resultante (Tréboles)
+     */
+    default void efectoAplicado(int palo, int valor) {
+    }
+
+    /**
+     * El enemigo actual ha sido derrotado.
+     * @param enemigo carta del enemigo
+     * @param capturado true si se ha derrotado con daño exacto y pasa a la cima de la posada,
+     *                  false si va a descartes
+     */
+    default void enemigoDerrotado(Carta enemigo, boolean capturado) {
+    }
+
+    /**
+     * Aparece un nuevo enemigo del castillo.
+     * @param enemigo carta del enemigo
+     * @param vida vida del enemigo
+     */
+    default void nuevoEnemigo(Carta enemigo, int vida) {
+    }
+
+    /**
+     * Se ha resuelto una defensa contra el ataque del enemigo.
+     * @param exito true si la defensa cubre el daño
+     * @param defensa puntos de defensa aportados
+     * @param danio daño del enemigo (con la reducción de Picas aplicada)
+     */
+    default void defensaResuelta(boolean exito, int defensa, int danio) {
+    }
+
+    /**
+     * La partida ha terminado.
+     * @param partida partida terminada
+     */
+    default void partidaTerminada(Partida partida) {
+    }
+
+    /**
+     * Han cambiado los mazos tras una jugada.
+     * @param partida partida con los mazos actualizados
+     */
+    default void coleccionesActualizadas(Partida partida) {
+    }
+
+    /**
+     * Combina dos oyentes en uno que envía cada evento a ambos, en orden.
+     * @param primero primer oyente
+     * @param segundo segundo oyente
+     * @return oyente combinado (o uno de ellos si el otro es {@link #NINGUNO})
+     */
+    static OyentePartida combinar(OyentePartida primero, OyentePartida segundo) {
+        if (primero == NINGUNO) {
+            return segundo;
+        }
+        if (segundo == NINGUNO) {
+            return primero;
+        }
+        return new OyentePartida() {
+            @Override
+            public void cartasJugadas(List<Carta> cartas, int danio, int vidaEnemigo) {
+                primero.cartasJugadas(cartas, danio, vidaEnemigo);
+                segundo.cartasJugadas(cartas, danio, vidaEnemigo);
+            }
+
+            @Override
+            public void efectoAplicado(int palo, int valor) {
+                primero.efectoAplicado(palo, valor);
+                segundo.efectoAplicado(palo, valor);
+            }
+
+            @Override
+            public void enemigoDerrotado(Carta enemigo, boolean capturado) {
+                primero.enemigoDerrotado(enemigo, capturado);
+                segundo.enemigoDerrotado(enemigo, capturado);
+            }
+
+            @Override
+            public void nuevoEnemigo(Carta enemigo, int vida) {
+                primero.nuevoEnemigo(enemigo, vida);
+                segundo.nuevoEnemigo(enemigo, vida);
+            }
+
+            @Override
+            public void defensaResuelta(boolean exito, int defensa, int danio) {
+                primero.defensaResuelta(exito, defensa, danio);
+                segundo.defensaResuelta(exito, defensa, danio);
+            }
+
+            @Override
+            public void partidaTerminada(Partida partida) {
+                primero.partidaTerminada(partida);
+                segundo.partidaTerminada(partida);
+            }
+
+            @Override
+            public void coleccionesActualizadas(Partida partida) {
+                primero.coleccionesActualizadas(partida);
+                segundo.coleccionesActualizadas(partida);
+            }
+        };
+    }
+}
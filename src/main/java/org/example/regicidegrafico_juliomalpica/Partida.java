@@ -2,10 +2,15 @@ package org.example.regicidegrafico_juliomalpica;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 
@@ -21,21 +26,53 @@ import java.util.*;
 public class Partida {
     private ArrayList<Carta> baraja = new ArrayList<>();
     private ArrayList<Carta> mano = new ArrayList<>();
-    private ArrayList<Carta> castillo = new ArrayList<>();
-    private ArrayList<Carta> mazoPosada = new ArrayList<>();
-    private ArrayList<Carta> mazoCartasJugadas = new ArrayList<>();
-    private ArrayList<Carta> mazoCartasDescartadas = new ArrayList<>();
+    private Mazo castillo = new Mazo();
+    private Mazo mazoPosada = new Mazo();
+    private Mazo mazoCartasJugadas = new Mazo();
+    private Mazo mazoCartasDescartadas = new Mazo();
     private int vidaEnemigo;
     private int danioEnemigo;
     private int reduccionDanioEnemigo;
     private boolean partidaTerminada = false;
     protected boolean victoria = false;
     private int cartasJugadas = 0;
-    private static final String ARCHIVO_PARTIDA = "src/main/resources/partida.json";
+    private static final String ARCHIVO_PARTIDA = "src/main/resources/partida.dat";
+    /** Guardado en JSON de versiones anteriores, se carga si no hay guardado binario */
+    private static final String ARCHIVO_PARTIDA_JSON = "src/main/resources/partida.json";
+    /** Estadísticas en CSV de versiones anteriores, solo se leen */
     private static final String ARCHIVO_ESTADISTICAS = "src/main/resources/estadisticas.csv";
-    private static Gson gson = new GsonBuilder().registerTypeAdapter(Carta.class, new CartaAdapter()).create();
+    private static final String ARCHIVO_REGISTROS = "src/main/resources/estadisticas.dat";
+    /** Registros que se leen de una vez al mostrar las estadísticas */
+    private static final int PAGINA_ESTADISTICAS = 1024;
+    private static final String ARCHIVO_DIARIO = "src/main/resources/partida.diario";
+    /** Tiempo máximo que se espera a las escrituras pendientes antes de leer un archivo */
+    static final long ESPERA_ESCRITURAS_MS = 5000;
+    /** Comodines con los que empieza cada partida */
+    public static final int COMODINES_INICIALES = 2;
+    private static Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Carta.class, new CartaAdapter())
+            .registerTypeAdapter(Partida.class, new PartidaAdapter())
+            .create();
     private String nombreJugador;
     private boolean enemigoReciente = false;
+    /** Comodines que le quedan al jugador para renovar la mano */
+    private int comodinesDisponibles = COMODINES_INICIALES;
+    /** Cartas de la cima del mazo Posada que el jugador conoce: enemigos derrotados con daño exacto */
+    private int cartasConocidasPosada;
+    /** En modo simulación no se registran estadísticas */
+    private transient boolean simulacion = false;
+    /** Destino de los eventos de la partida (consola, interfaz...) */
+    private transient OyentePartida oyente = OyentePartida.NINGUNO;
+    /** Diario donde se anotan las jugadas, o null si la partida no lleva diario */
+    private transient DiarioPartida diario;
+    /** Semilla del reparto: la misma semilla produce siempre la misma partida */
+    private long semilla;
+    /** Estado del generador al guardar, para continuar la partida con los mismos barajados */
+    private long estadoAleatorio;
+    /** Generador usado para barajar; se crea a partir de la semilla */
+    private transient Random aleatorio;
+    /** Índice de jugadas legales de la mano, se crea y sincroniza al consultarlo */
+    private transient TablaJugadas tablaJugadas;
 
     /**
      * Obtiene la mano del jugador.
@@ -65,7 +102,7 @@ public class Partida {
      * Obtiene cartas mazo castillo
      * @return cartas mazo castillo
      */
-    public ArrayList<Carta> getCastillo() {
+    public Mazo getCastillo() {
         return castillo;
     }
 
@@ -73,7 +110,7 @@ public class Partida {
      * Obtiene cartas mazo posada
      * @return cartas mazo posada
      */
-    public ArrayList<Carta> getMazoPosada() {
+    public Mazo getMazoPosada() {
         return mazoPosada;
     }
 
@@ -81,7 +118,7 @@ public class Partida {
      * Obtiene cartas mazo cartas jugadas
      * @return cartas mazo cartas jugadas
      */
-    public ArrayList<Carta> getMazoCartasJugadas() {
+    public Mazo getMazoCartasJugadas() {
         return mazoCartasJugadas;
     }
 
@@ -89,7 +126,7 @@ public class Partida {
      * Obtiene cartas mazo cartas descartadas
      * @return cartas mazo cartas descartadas
      */
-    public ArrayList<Carta> getMazoCartasDescartadas() {
+    public Mazo getMazoCartasDescartadas() {
         return mazoCartasDescartadas;
     }
 
@@ -133,6 +170,104 @@ public class Partida {
         return nombreJugador;
     }
 
+    /**
+     * Obtiene el número de cartas jugadas en la partida
+     * @return cartas jugadas
+     */
+    public int getCartasJugadas() {
+        return cartasJugadas;
+    }
+
+    /**
+     * Saber si la partida se juega en modo simulación (sin estadísticas)
+     * @return true o false
+     */
+    public boolean isSimulacion() {
+        return simulacion;
+    }
+
+    /**
+     * Establece el modo simulación. En este modo la partida no registra sus estadísticas
+     * al terminar.
+     * @param simulacion true para partidas sin interfaz
+     */
+    public void setSimulacion(boolean simulacion) {
+        this.simulacion = simulacion;
+    }
+
+    /**
+     * Obtiene el oyente que recibe los eventos de la partida
+     * @return oyente actual ({@link OyentePartida#NINGUNO} si no hay ninguno)
+     */
+    public OyentePartida getOyente() {
+        return oyente;
+    }
+
+    /**
+     * Sustituye el oyente de los eventos de la partida.
+     * @param oyente nuevo oyente, o null para no enviar eventos
+     */
+    public void setOyente(OyentePartida oyente) {
+        this.oyente = oyente == null ? OyentePartida.NINGUNO : oyente;
+    }
+
+    /**
+     * Añade un oyente a los que ya reciben los eventos de la partida.
+     * @param oyente oyente a añadir
+     */
+    public void agregarOyente(OyentePartida oyente) {
+        this.oyente = OyentePartida.combinar(this.oyente, oyente);
+    }
+
+    /**
+     * Obtiene los comodines que le quedan al jugador
+     * @return comodines disponibles
+     */
+    public int getComodinesDisponibles() {
+        return comodinesDisponibles;
+    }
+
+    /**
+     * Obtiene cuántas cartas de la cima del mazo Posada conoce el jugador. Son los enemigos
+     * derrotados con daño exacto que se han puesto encima y aún no se han robado; el resto
+     * del mazo está oculto.
+     * @return cartas conocidas de la cima
+     */
+    public int getCartasConocidasPosada() {
+        return cartasConocidasPosada;
+    }
+
+    /**
+     * Obtiene el diario en el que se anotan las jugadas
+     * @return diario, o null si la partida no lleva diario
+     */
+    public DiarioPartida getDiario() {
+        return diario;
+    }
+
+    /**
+     * Asocia la partida a un diario (lo hace {@link DiarioPartida} al crearlo o abrirlo).
+     */
+    void setDiario(DiarioPartida diario) {
+        this.diario = diario;
+    }
+
+    /**
+     * Obtiene la semilla del reparto
+     * @return semilla de 64 bits
+     */
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Obtiene el generador con el que la partida baraja
+     * @return generador aleatorio
+     */
+    public Random getAleatorio() {
+        return aleatorio;
+    }
+
     /**
      * Saber si enemigo es reciente
      * @return true o false
@@ -154,13 +289,64 @@ public class Partida {
      * @param nombreJugador Nombre del jugador humano
      */
     public Partida(String nombreJugador) {
-        this.nombreJugador = nombreJugador;
+        this(nombreJugador, new Random().nextLong());
     }
 
     /**
-     * Constructor para carga de partida guardada.
+     * Constructor para una partida reproducible: la misma semilla da el mismo reparto
+     * y los mismos efectos de Corazones ante las mismas jugadas.
+     * @param nombreJugador Nombre del jugador
+     * @param semilla semilla de 64 bits del reparto
+     */
+    public Partida(String nombreJugador, long semilla) {
+        this(nombreJugador, semilla, new GeneradorAleatorio(semilla));
+    }
+
+    /**
+     * Constructor para carga de partida guardada. Las partidas JSON antiguas no guardan el
+     * estado del generador y se quedan con el de una semilla nueva.
      */
     public Partida(){
+        this(null, new Random().nextLong());
+    }
+
+    /**
+     * Constructor de {@link #copiar(Random)}: usa el generador que recibe en lugar de crear
+     * uno (ni un {@code Random} para la semilla), porque la búsqueda copia la partida en cada iteración.
+     */
+    private Partida(String nombreJugador, long semilla, Random aleatorio) {
+        this.nombreJugador = nombreJugador;
+        this.semilla = semilla;
+        this.estadoAleatorio = semilla;
+        this.aleatorio = aleatorio;
+    }
+
+    /**
+     * Crea una copia independiente de la partida para simulaciones y búsquedas.
+     * Las cartas se comparten (son inmutables) pero todas las colecciones se copian.
+     * La copia está en modo simulación.
+     * @param aleatorio generador que usará la copia para barajar
+     * @return copia de la partida
+     */
+    public Partida copiar(Random aleatorio) {
+        Partida copia = new Partida(nombreJugador, semilla, aleatorio);
+        copia.baraja.addAll(baraja);
+        copia.mano.addAll(mano);
+        copia.castillo.addAll(castillo);
+        copia.mazoPosada.addAll(mazoPosada);
+        copia.mazoCartasJugadas.addAll(mazoCartasJugadas);
+        copia.mazoCartasDescartadas.addAll(mazoCartasDescartadas);
+        copia.vidaEnemigo = vidaEnemigo;
+        copia.danioEnemigo = danioEnemigo;
+        copia.reduccionDanioEnemigo = reduccionDanioEnemigo;
+        copia.partidaTerminada = partidaTerminada;
+        copia.victoria = victoria;
+        copia.cartasJugadas = cartasJugadas;
+        copia.enemigoReciente = enemigoReciente;
+        copia.comodinesDisponibles = comodinesDisponibles;
+        copia.cartasConocidasPosada = cartasConocidasPosada;
+        copia.simulacion = true;
+        return copia;
     }
 
     //Saber si juego un AS
@@ -168,15 +354,49 @@ public class Partida {
         return carta.getNumero() == 1;
     }
 
+    /**
+     * Obtiene la mano del jugador como máscara de bits (bit = código de la carta).
+     * @return máscara de la mano
+     */
+    public long getMascaraMano() {
+        return CodigoCarta.mascara(mano);
+    }
+
+    /**
+     * Obtiene el índice de jugadas legales de la mano actual. La tabla se actualiza de forma
+     * incremental con las cartas robadas o descartadas desde la última consulta.
+     * @return tabla de jugadas de la mano
+     */
+    public TablaJugadas getTablaJugadas() {
+        if (tablaJugadas == null) {
+            tablaJugadas = new TablaJugadas();
+        }
+        tablaJugadas.sincronizar(mano);
+        return tablaJugadas;
+    }
+
+    /**
+     * Valida una jugada expresada con posiciones de la mano usando la tabla de jugadas.
+     * @param indicesCartas posiciones de la mano
+     * @return true si las posiciones forman una jugada válida
+     */
+    public boolean jugadaValidaIndices(List<Integer> indicesCartas) {
+        int subconjunto = 0;
+        for (int idx : indicesCartas) {
+            if (idx < 0 || idx >= mano.size() || (subconjunto & (1 << idx)) != 0) {
+                return false;
+            }
+            subconjunto |= 1 << idx;
+        }
+        return getTablaJugadas().esValida(subconjunto);
+    }
+
     /**
      * Generar una baraja completa con 52 cartas - 13 cartas de cada palo.
      */
     public void generarBaraja(){
-        String[] palos = {"Picas", "Corazones", "Treboles", "Diamantes"};
-        for (String palo : palos){
-            for (int i=1; i<=13; i++){
-                baraja.add(new CartaNormal(i,palo));
-            }
+        for (int codigo = 0; codigo < CodigoCarta.TOTAL_CARTAS; codigo++){
+            baraja.add(CodigoCarta.carta(codigo));
         }
     }
 
@@ -214,8 +434,22 @@ public class Partida {
      * </ul>
      */
     public void prepararColecciones(){
+        prepararColecciones(aleatorio);
+    }
+
+    /**
+     * Prepara las colecciones barajando con el generador indicado, de forma que la
+     * misma semilla produzca siempre el mismo reparto. Si es un {@link GeneradorAleatorio},
+     * su estado pasa a ser la semilla de la partida.
+     * @param aleatorio generador usado para barajar la baraja y los descartes
+     */
+    public void prepararColecciones(Random aleatorio){
+        this.aleatorio = aleatorio;
+        if (aleatorio instanceof GeneradorAleatorio) {
+            semilla = ((GeneradorAleatorio) aleatorio).getEstado();
+        }
         //Mezclar cartas baraja
-        Collections.shuffle(baraja);
+        Collections.shuffle(baraja, aleatorio);
 
         //Separar figuras para el castillo
         for(Carta carta : baraja){
@@ -231,7 +465,7 @@ public class Partida {
 
         //Robar 8 cartas para la mano de inicio
         for (int i = 0; i < 8; i++){
-            mano.add(mazoPosada.remove(0)); //Agregar primera carta(0) a la mano y quitarla del mazoPosada
+            mano.add(robarPosada()); //Agregar la carta de la cima a la mano y quitarla del mazoPosada
         }
 
         //Configurar primer enemigo
@@ -241,17 +475,6 @@ public class Partida {
         }
     }
 
-    /**
-     * Muestra el estado actual de todas las colecciones de cartas
-     */
-    private void mostrarEstadoColecciones() {
-        System.out.println("\nEstado colecciones: ");
-        System.out.println("\t- Castillo: " + castillo.size() + " enemigos");
-        System.out.println("\t- Mazo de Posada: " + mazoPosada.size() + " cartas");
-        System.out.println("\t- Mazo de Cartas Jugadas: " + mazoCartasJugadas.size() + " cartas");
-        System.out.println("\t- Mazo de Descartes: " + mazoCartasDescartadas.size() + " cartas");
-    }
-
     /**
      * Mostrar el estado de la partida antes de iniciar el juego, mostrando todas las colecciones y
      * la vida del enemigo.
@@ -272,7 +495,7 @@ public class Partida {
             System.out.println(castillo.get(0) + " (Vida: " + vidaEnemigo + ")");
         }
 
-        mostrarEstadoColecciones();
+        ConsolaPartida.mostrarColecciones(this);
         System.out.println("\n****************************************************************");
         System.out.println("\n¡¡COMIENZA LA PELEA!!");
     }
@@ -287,148 +510,438 @@ public class Partida {
     }
 
     /**
-     * Guarda el estado actual de la partida en un archivo JSON.
+     * Guarda el estado actual de la partida en el formato binario de {@link CodecPartida}.
+     * La escritura se hace en segundo plano con {@link ServicioPersistencia}: la partida se copia
+     * ahora y el archivo se sustituye de forma atómica cuando termina de escribirse.
      */
     public void guardarPartida()  {
-        try (FileWriter writer = new FileWriter(ARCHIVO_PARTIDA)) {
-            gson.toJson(this, writer);
+        ServicioPersistencia.getInstancia().guardarPartida(Path.of(ARCHIVO_PARTIDA), this);
+        if (!simulacion) {
             System.out.println("Partida guardada en " + ARCHIVO_PARTIDA);
+        }
+    }
+
+    /**
+     * Guarda el estado actual de la partida en el archivo indicado, esperando a que termine.
+     * Los archivos .json se escriben con Gson y el resto en formato binario.
+     * El archivo se escribe en un temporal y se renombra, así que nunca queda a medio escribir.
+     * @param ruta ruta del archivo de destino
+     */
+    public void guardarPartida(String ruta)  {
+        try {
+            Path destino = Path.of(ruta);
+            ServicioPersistencia.escribirAtomico(destino, serializar(destino));
+            if (!simulacion) {
+                System.out.println("Partida guardada en " + ruta);
+            }
         } catch (IOException e) {
             System.err.println("Error al guardar la partida: " + e.getMessage());
         }
     }
 
     /**
-     * Carga una partida previamente guardada desde un archivo JSON.
+     * Carga la partida guardada. Si todavía no hay guardado binario, se carga el JSON de
+     * versiones anteriores.
      * @return Una instancia de la partida cargada, o null si no se pudo cargar.
      */
     public static Partida cargarPartida() {
-        File file = new File(ARCHIVO_PARTIDA);
+        ServicioPersistencia.getInstancia().vaciar(ESPERA_ESCRITURAS_MS);
+        if (!new File(ARCHIVO_PARTIDA).exists() && new File(ARCHIVO_PARTIDA_JSON).exists()) {
+            return cargarPartida(ARCHIVO_PARTIDA_JSON);
+        }
+        return cargarPartida(ARCHIVO_PARTIDA);
+    }
+
+    /**
+     * Carga una partida guardada desde el archivo indicado. El formato (binario o JSON)
+     * se reconoce por el número mágico del principio del archivo.
+     * @param ruta ruta del archivo de origen
+     * @return Una instancia de la partida cargada, o null si no se pudo cargar.
+     */
+    public static Partida cargarPartida(String ruta) {
+        //Esperar a que se escriba un guardado pendiente
+        ServicioPersistencia.getInstancia().vaciar(ESPERA_ESCRITURAS_MS);
+        File file = new File(ruta);
         if (!file.exists() || file.length() == 0){
             System.out.println("No hay partida guardada");
             return null;
         }
-        try (FileReader reader = new FileReader(ARCHIVO_PARTIDA)){
-            return gson.fromJson(reader, Partida.class);
-        } catch (IOException e){
+        try {
+            return desdeBytes(Files.readAllBytes(file.toPath()));
+        } catch (IOException | IllegalArgumentException | JsonParseException e){
             System.err.println("Error al cargar la partida: " + e.getMessage());
             return null;
         }
     }
 
     /**
-     * Registra las estadísticas de la partida (fecha, cartas jugadas, vida del enemigo, estado de la mano y resultado)
-     * en un archivo CSV.
-     * Cada campo está separado por un delimitador (||)
+     * Carga la última partida sin terminar: la del diario si lo hay (reproduciendo sus jugadas)
+     * y, si no, la guardada con {@link #guardarPartida()}.
+     * @return la partida cargada, o null si no hay ninguna guardada
      */
-    public void registrarEstadisticas() {
-        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        String numeroCartasJugadas = String.valueOf(cartasJugadas);
-        String vidaEnemigoRest = String.valueOf(vidaEnemigo);
-        String estadoMano = gson.toJson(mano);
-        String resultado = victoria ? "Victoria" : "Derrota";
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARCHIVO_ESTADISTICAS, true))) {
-            File archivo = new File(ARCHIVO_ESTADISTICAS);
-            if (archivo.length() == 0) {
-                //Si el archivo está vacío, escribir la cabecera
-                writer.write("Fecha||Cartas Jugadas||Vida Enemigo||Estado Mano||Resultado\n");
+    public static Partida cargarUltimaPartida() {
+        if (new File(ARCHIVO_DIARIO).exists()) {
+            try {
+                Partida partida = DiarioPartida.continuar(ARCHIVO_DIARIO);
+                if (!partida.isPartidaTerminada()) {
+                    return partida;
+                }
+                partida.getDiario().cerrar();
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Error al reproducir el diario de la partida: " + e.getMessage());
             }
-            writer.write(String.join("||",fecha,numeroCartasJugadas,vidaEnemigoRest,estadoMano,resultado)+ "\n");
-        }  catch (IOException e) {
-            System.err.println("Error al guardar estadísticas: " + e.getMessage());
         }
+        return cargarPartida();
     }
 
     /**
-     * Muestra las estadísticas de las partidas guardadas en el archivo CSV.
+     * Empieza a anotar las jugadas de la partida en el diario por defecto, sustituyendo al anterior.
      */
-    public static void mostrarEstadisticas() {
+    public void iniciarDiario() {
         try {
-            BufferedReader br = new BufferedReader(new FileReader(ARCHIVO_ESTADISTICAS));
-            System.out.println("\n------------- ESTADISTICAS DE PARTIDAS -------------");
-            String line = br.readLine();
-
-            while ((line = br.readLine()) != null) {
-                String[] partes = line.split("\\|\\|");
-
-                String fecha = partes[0];
-                int cartasJugadas = Integer.parseInt(partes[1].trim());
-                int vidaEnemigoRest = Integer.parseInt(partes[2].trim());
-                String estadoMano = partes[3];
-                String resultado = partes[4];
-
-                System.out.println("Fecha             : " + fecha);
-                System.out.println("Cartas Jugadas    : " + cartasJugadas);
-                System.out.println("Vida Enemigo      : " + vidaEnemigoRest);
-                System.out.println("Estado Mano       : " + estadoMano);
-                System.out.println("Resultado         : " + resultado);
-                System.out.println("---------------------------------------------------");
-            }
-            br.close();
-        } catch (Exception e){
-            System.out.println("Error: " + e.getMessage());
+            DiarioPartida.crear(ARCHIVO_DIARIO, this);
+        } catch (IOException e) {
+            System.err.println("Error al crear el diario de la partida: " + e.getMessage());
         }
     }
 
     /**
-     * Valida si una combinación de cartas puede jugarse junta.
-     * @param cartasSeleccionadas Lista de cartas a validar
-     * @return true si es una jugada válida según reglas:
-     * <ul>
-     *    <li>Cartas de palos distintos</li>
-     *    <li>Combinaciones numéricas válidas (mismo número, suma <= 10)</li>
-     *    <li>Compañeros animales (As + 1 carta)</li>
-     * </ul>
+     * Crea una copia de la partida para guardarla en segundo plano: no cambia aunque
+     * la partida siga jugándose, e incluye el estado actual del generador.
+     * @return copia de la partida
      */
-    public boolean jugadaValida(List<Carta> cartasSeleccionadas) {
-        //Compañeros animales
-        int numCompanieros = 0;
-        for (Carta carta : cartasSeleccionadas) {
-            if (carta.esCompanieroAnimal()) {
-                numCompanieros++;
-            }
+    Partida instantanea() {
+        Random generador = aleatorio instanceof GeneradorAleatorio ? ((GeneradorAleatorio) aleatorio).copiar() : aleatorio;
+        Partida copia = copiar(generador);
+        copia.simulacion = simulacion;
+        return copia;
+    }
+
+    /**
+     * Serializa la partida completa a JSON, incluido el estado actual del generador.
+     * @return partida en JSON
+     */
+    String aJson() {
+        if (aleatorio instanceof GeneradorAleatorio) {
+            estadoAleatorio = ((GeneradorAleatorio) aleatorio).getEstado();
         }
+        return gson.toJson(this);
+    }
 
-        //Dos compañeros animales juntos
-        if (cartasSeleccionadas.size() == 2 && numCompanieros == 2) {
-            return true;
+    /**
+     * Serializa la partida en el formato binario de {@link CodecPartida}, incluido el estado
+     * actual del generador.
+     * @return partida en binario
+     */
+    byte[] aBytes() {
+        if (aleatorio instanceof GeneradorAleatorio) {
+            estadoAleatorio = ((GeneradorAleatorio) aleatorio).getEstado();
         }
+        return CodecPartida.codificar(this);
+    }
 
-        if (!(cartasSeleccionadas.size() == 2 && numCompanieros == 1)) {
-            List<String> palosVistos = new ArrayList<>();
-            for (Carta c : cartasSeleccionadas) {
-                String palo = c.getPalo();
-                if (palosVistos.contains(palo)) {
-                    return false; //Si juntas dos del mismo palo salgo
-                }
-                palosVistos.add(palo);
-            }
+    /**
+     * Serializa la partida en el formato que corresponde al archivo: JSON si termina en .json
+     * y binario en otro caso.
+     * @param ruta archivo de destino
+     * @return contenido del archivo
+     */
+    byte[] serializar(Path ruta) {
+        if (ruta.getFileName().toString().endsWith(".json")) {
+            return aJson().getBytes(StandardCharsets.UTF_8);
         }
+        return aBytes();
+    }
 
-        if (cartasSeleccionadas.size() == 1) {
-            return true;
+    /**
+     * Reconstruye una partida guardada en binario o en JSON, según su número mágico.
+     * @param datos contenido guardado
+     * @return partida cargada
+     */
+    static Partida desdeBytes(byte[] datos) {
+        if (CodecPartida.esBinario(datos)) {
+            return CodecPartida.decodificar(datos);
         }
+        return desdeJson(new String(datos, StandardCharsets.UTF_8));
+    }
 
-        //AS emparejado con UNA carta
-        if (cartasSeleccionadas.size() == 2 && numCompanieros == 1) {
-            return true;
+    /**
+     * Escribe los campos de la partida en el orden del formato binario.
+     * @param salida destino de la codificación
+     */
+    void escribirCampos(CodecPartida.Salida salida) {
+        salida.escribirTexto(nombreJugador);
+        salida.escribirLong(semilla);
+        salida.escribirLong(estadoAleatorio);
+        salida.escribirVarint(vidaEnemigo);
+        salida.escribirVarint(danioEnemigo);
+        salida.escribirVarint(reduccionDanioEnemigo);
+        salida.escribirVarint(cartasJugadas);
+        salida.escribirVarint(comodinesDisponibles);
+        salida.escribirByte((partidaTerminada ? 1 : 0) | (victoria ? 2 : 0) | (enemigoReciente ? 4 : 0));
+        salida.escribirCartas(baraja);
+        salida.escribirCartas(mano);
+        salida.escribirCartas(castillo);
+        salida.escribirCartas(mazoPosada);
+        salida.escribirCartas(mazoCartasJugadas);
+        salida.escribirCartas(mazoCartasDescartadas);
+        salida.escribirVarint(cartasConocidasPosada);
+    }
+
+    /**
+     * Lee una partida escrita con {@link #escribirCampos(CodecPartida.Salida)}.
+     * @param entrada origen de la decodificación
+     * @param version versión del formato (la 1 no guarda las cartas conocidas de la posada)
+     * @return partida leída
+     */
+    static Partida leerCampos(CodecPartida.Entrada entrada, int version) {
+        Partida partida = new Partida();
+        partida.nombreJugador = entrada.leerTexto();
+        partida.semilla = entrada.leerLong();
+        partida.estadoAleatorio = entrada.leerLong();
+        partida.vidaEnemigo = entrada.leerVarint();
+        partida.danioEnemigo = entrada.leerVarint();
+        partida.reduccionDanioEnemigo = entrada.leerVarint();
+        partida.cartasJugadas = entrada.leerVarint();
+        partida.comodinesDisponibles = entrada.leerVarint();
+        int indicadores = entrada.leerByte();
+        partida.partidaTerminada = (indicadores & 1) != 0;
+        partida.victoria = (indicadores & 2) != 0;
+        partida.enemigoReciente = (indicadores & 4) != 0;
+        entrada.leerCartas(partida.baraja);
+        entrada.leerCartas(partida.mano);
+        entrada.leerCartas(partida.castillo);
+        entrada.leerCartas(partida.mazoPosada);
+        entrada.leerCartas(partida.mazoCartasJugadas);
+        entrada.leerCartas(partida.mazoCartasDescartadas);
+        if (version >= 2) {
+            partida.cartasConocidasPosada = entrada.leerVarint();
+        }
+        return restaurar(partida);
+    }
+
+    /**
+     * Escribe la partida como objeto JSON, campo a campo.
+     * @param out destino
+     * @param adaptador adaptador que escribe los mazos
+     * @throws IOException si falla la escritura
+     */
+    void escribirJson(JsonWriter out, PartidaAdapter adaptador) throws IOException {
+        out.beginObject();
+        adaptador.escribirCartas(out, "baraja", baraja);
+        adaptador.escribirCartas(out, "mano", mano);
+        adaptador.escribirCartas(out, "castillo", castillo);
+        adaptador.escribirCartas(out, "mazoPosada", mazoPosada);
+        adaptador.escribirCartas(out, "mazoCartasJugadas", mazoCartasJugadas);
+        adaptador.escribirCartas(out, "mazoCartasDescartadas", mazoCartasDescartadas);
+        out.name("vidaEnemigo").value(vidaEnemigo);
+        out.name("danioEnemigo").value(danioEnemigo);
+        out.name("reduccionDanioEnemigo").value(reduccionDanioEnemigo);
+        out.name("partidaTerminada").value(partidaTerminada);
+        out.name("victoria").value(victoria);
+        out.name("cartasJugadas").value(cartasJugadas);
+        out.name("nombreJugador").value(nombreJugador);
+        out.name("enemigoReciente").value(enemigoReciente);
+        out.name("comodinesDisponibles").value(comodinesDisponibles);
+        out.name("cartasConocidasPosada").value(cartasConocidasPosada);
+        out.name("semilla").value(semilla);
+        out.name("estadoAleatorio").value(estadoAleatorio);
+        out.endObject();
+    }
+
+    /**
+     * Lee una partida escrita con {@link #escribirJson(JsonWriter, PartidaAdapter)} o con
+     * la serialización por reflexión de versiones anteriores.
+     * @param in origen
+     * @param adaptador adaptador que lee los mazos
+     * @return partida leída (sin generador, ver {@link #restaurar(Partida)})
+     * @throws IOException si falla la lectura
+     */
+    static Partida leerJson(JsonReader in, PartidaAdapter adaptador) throws IOException {
+        Partida partida = new Partida();
+        in.beginObject();
+        while (in.hasNext()) {
+            String nombre = in.nextName();
+            //Un null deja el valor por defecto
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (nombre) {
+                case "baraja":
+                    adaptador.leerCartas(in, partida.baraja);
+                    break;
+                case "mano":
+                    adaptador.leerCartas(in, partida.mano);
+                    break;
+                case "castillo":
+                    adaptador.leerCartas(in, partida.castillo);
+                    break;
+                case "mazoPosada":
+                    adaptador.leerCartas(in, partida.mazoPosada);
+                    break;
+                case "mazoCartasJugadas":
+                    adaptador.leerCartas(in, partida.mazoCartasJugadas);
+                    break;
+                case "mazoCartasDescartadas":
+                    adaptador.leerCartas(in, partida.mazoCartasDescartadas);
+                    break;
+                case "vidaEnemigo":
+                    partida.vidaEnemigo = in.nextInt();
+                    break;
+                case "danioEnemigo":
+                    partida.danioEnemigo = in.nextInt();
+                    break;
+                case "reduccionDanioEnemigo":
+                    partida.reduccionDanioEnemigo = in.nextInt();
+                    break;
+                case "partidaTerminada":
+                    partida.partidaTerminada = in.nextBoolean();
+                    break;
+                case "victoria":
+                    partida.victoria = in.nextBoolean();
+                    break;
+                case "cartasJugadas":
+                    partida.cartasJugadas = in.nextInt();
+                    break;
+                case "nombreJugador":
+                    partida.nombreJugador = in.nextString();
+                    break;
+                case "enemigoReciente":
+                    partida.enemigoReciente = in.nextBoolean();
+                    break;
+                case "comodinesDisponibles":
+                    partida.comodinesDisponibles = in.nextInt();
+                    break;
+                case "cartasConocidasPosada":
+                    partida.cartasConocidasPosada = in.nextInt();
+                    break;
+                case "semilla":
+                    partida.semilla = in.nextLong();
+                    break;
+                case "estadoAleatorio":
+                    partida.estadoAleatorio = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return partida;
+    }
+
+    /**
+     * Reconstruye una partida a partir de su JSON.
+     * @param json partida en JSON
+     * @return partida cargada
+     */
+    static Partida desdeJson(String json) {
+        return restaurar(gson.fromJson(json, Partida.class));
+    }
+
+    /**
+     * Completa una partida recién leída con el estado que no se guarda.
+     */
+    private static Partida restaurar(Partida partida) {
+        //Continuar con los mismos barajados (las partidas antiguas no tienen estado y empiezan uno nuevo)
+        partida.aleatorio = new GeneradorAleatorio(partida.estadoAleatorio);
+        return partida;
+    }
+
+    /**
+     * Anota una jugada en el diario de la partida, si lo tiene.
+     */
+    private void anotar(byte tipo, int dato) {
+        if (diario == null) {
+            return;
+        }
+        try {
+            diario.anotar(tipo, dato, this);
+        } catch (IOException e) {
+            System.err.println("Error al escribir el diario de la partida: " + e.getMessage());
         }
+    }
 
-        //Combinaciones de 2-4 cartas del mismo número, total de puntos <= 10 y sin compañeros
-        if (cartasSeleccionadas.size() >= 2 && cartasSeleccionadas.size() <= 4 && numCompanieros == 0) {
-            int numero = cartasSeleccionadas.get(0).getNumero();
-            int total = 0;
+    /**
+     * Registra las estadísticas de la partida (fecha, jugador, cartas jugadas, vida del enemigo, mano final,
+     * resultado y semilla) en el almacén binario de estadísticas.
+     * El registro se escribe en segundo plano.
+     */
+    public void registrarEstadisticas() {
+        if (simulacion) {
+            return;
+        }
+        AlmacenEstadisticas.de(Path.of(ARCHIVO_REGISTROS)).registrar(RegistroEstadistica.de(this));
+    }
 
-            for (Carta carta : cartasSeleccionadas) {
-                if (carta.getNumero() != numero) {
-                    return false; //No son el mismo numero
+    /**
+     * Muestra las estadísticas de las partidas: primero las del CSV de versiones anteriores
+     * y después las del almacén binario.
+     */
+    public static void mostrarEstadisticas() {
+        ServicioPersistencia.getInstancia().vaciar(ESPERA_ESCRITURAS_MS);
+        System.out.println("\n------------- ESTADISTICAS DE PARTIDAS -------------");
+        if (new File(ARCHIVO_ESTADISTICAS).exists()) {
+            try {
+                //Las filas anteriores a la columna Semilla no la tienen
+                LectorCsvEstadisticas.recorrer(Path.of(ARCHIVO_ESTADISTICAS), fila -> mostrarEstadistica(fila.getFecha(),
+                        fila.getCartasJugadas(), fila.getVidaEnemigo(), fila.getEstadoMano(), fila.getResultado(),
+                        fila.getSemilla().isEmpty() ? "-" : fila.getSemilla()));
+            } catch (IOException e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        try {
+            AlmacenEstadisticas almacen = AlmacenEstadisticas.de(Path.of(ARCHIVO_REGISTROS));
+            long total = almacen.getNumRegistros();
+            for (long desde = 0; desde < total; desde += PAGINA_ESTADISTICAS) {
+                for (RegistroEstadistica registro : almacen.leer(desde, PAGINA_ESTADISTICAS)) {
+                    mostrarEstadistica(registro.getFechaTexto(), registro.getCartasJugadas(), registro.getVidaEnemigo(),
+                            registro.getEstadoMano(), registro.getResultado(), String.valueOf(registro.getSemilla()));
                 }
-                total += carta.getNumero();
             }
-            return total <= 10;
+            almacen.incluirCsv(Path.of(ARCHIVO_ESTADISTICAS));
+            ResumenEstadisticas resumen = almacen.getResumen();
+            System.out.println(resumen.getTextoResumen());
+            if (resumen.getPartidas() > 0) {
+                System.out.println(resumen.getTextoDetalle());
+            }
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
         }
-        return false;
+    }
+
+    /**
+     * Muestra por consola una fila de estadísticas.
+     */
+    private static void mostrarEstadistica(String fecha, int cartasJugadas, int vidaEnemigoRest, String estadoMano,
+                                           String resultado, String semilla) {
+        System.out.println("Fecha             : " + fecha);
+        System.out.println("Cartas Jugadas    : " + cartasJugadas);
+        System.out.println("Vida Enemigo      : " + vidaEnemigoRest);
+        System.out.println("Estado Mano       : " + estadoMano);
+        System.out.println("Resultado         : " + resultado);
+        System.out.println("Semilla           : " + semilla);
+        System.out.println("---------------------------------------------------");
+    }
+
+    /**
+     * Valida si una combinación de cartas puede jugarse junta.
+     * @param cartasSeleccionadas Lista de cartas a validar
+     * @return true si es una jugada válida según reglas:
+     * <ul>
+     *    <li>Cartas de palos distintos</li>
+     *    <li>Combinaciones numéricas válidas (mismo número, suma <= 10)</li>
+     *    <li>Compañeros animales (As + 1 carta)</li>
+     * </ul>
+     */
+    public boolean jugadaValida(List<Carta> cartasSeleccionadas) {
+        long jugada = CodigoCarta.mascara(cartasSeleccionadas);
+        //Una misma carta repetida no forma una jugada
+        if (Long.bitCount(jugada) != cartasSeleccionadas.size()) {
+            return false;
+        }
+        return ReglasJugada.esJugadaValida(jugada);
     }
 
 
@@ -439,140 +952,122 @@ public class Partida {
      * @param indicesCartas índice de las cartas escogidas de la mano del jugador para enfrentar al enemigo
      */
     public void jugarCarta (List<Integer> indicesCartas){
+        int jugada = diario == null ? 0 : DiarioPartida.mascaraPosiciones(indicesCartas);
+        if (resolverAtaque(indicesCartas)) {
+            anotar(DiarioPartida.ATAQUE, jugada);
+        }
+    }
+
+    /**
+     * Resuelve un ataque con las cartas indicadas.
+     * @param indicesCartas posiciones de la mano
+     * @return true si el ataque cambió la partida, false si la jugada no era válida
+     */
+    private boolean resolverAtaque(List<Integer> indicesCartas) {
         //Si no hay cartas en la mano
         if (mano.isEmpty()) {
-            partidaTerminada = true;
-            victoria = false;
-            registrarEstadisticas();
-            return;
+            terminar(false);
+            return true;
         }
 
         if (indicesCartas.isEmpty()) {
-            return;
+            return false;
         }
 
-        //Verificar si la jugada es valida
-        List<Carta> cartasSeleccionadas = new ArrayList<>();
-        for (int idx : indicesCartas) {
+        //Verificar si la jugada es valida. Las cartas se toman por orden de posición en la mano,
+        //pidan como pidan los índices: el diario solo guarda las posiciones, y al reproducirlo
+        //las cartas jugadas tienen que acabar en el mismo orden en el mazo
+        ArrayList<Integer> posiciones = new ArrayList<>(indicesCartas);
+        Collections.sort(posiciones);
+        List<Carta> cartasSeleccionadas = new ArrayList<>(posiciones.size());
+        for (int idx : posiciones) {
             cartasSeleccionadas.add(mano.get(idx));
         }
 
         if (!jugadaValida(cartasSeleccionadas)) {
-            return;
-        }
-
-        //Daño total y aplicar efectos
-        int danioTotal = 0;
-        boolean tieneCorazones = false;
-        boolean tieneDiamantes = false;
-        boolean tienePicas = false;
-        boolean tieneTreboles = false;
-
-        String paloInmune = castillo.isEmpty() ? "" : castillo.get(0).getPalo();
-
-        for (Carta carta : cartasSeleccionadas) {
-            if (carta.esCompanieroAnimal()) {
-                danioTotal += 1;
-            } else {
-                danioTotal += carta.getNumero();
-            }
-
-            mazoCartasJugadas.add(carta);
-
-            //Palo debe activarse (solo si no es inmune)
-            if (!carta.getPalo().equals(paloInmune)) {
-                switch (carta.getPalo()) {
-                    case "Corazones":
-                        tieneCorazones = true;
-                        break;
-                    case "Diamantes":
-                        tieneDiamantes = true;
-                        break;
-                    case "Picas":
-                        tienePicas = true;
-                        break;
-                    case "Treboles":
-                        tieneTreboles = true;
-                        break;
-                }
-            }
+            return false;
         }
 
-        //Eliminar cartas jugadas de la mano
-        indicesCartas.sort(Collections.reverseOrder());
-        for (int idx : indicesCartas) {
-            mano.remove(idx);
+        //Daño total y aplicar efectos (el palo del enemigo es inmune)
+        long jugada = CodigoCarta.mascara(cartasSeleccionadas);
+        int paloInmune = castillo.isEmpty() ? -1 : castillo.get(0).getIndicePalo();
+        int palos = ReglasJugada.palosActivos(jugada, paloInmune);
+        int danioTotal = ReglasJugada.danioBase(jugada);
+        boolean tieneCorazones = ReglasJugada.tienePalo(palos, CodigoCarta.CORAZONES);
+        boolean tieneDiamantes = ReglasJugada.tienePalo(palos, CodigoCarta.DIAMANTES);
+        boolean tienePicas = ReglasJugada.tienePalo(palos, CodigoCarta.PICAS);
+        boolean tieneTreboles = ReglasJugada.tienePalo(palos, CodigoCarta.TREBOLES);
+
+        mazoCartasJugadas.addAll(cartasSeleccionadas);
+
+        //Eliminar cartas jugadas de la mano, de la última posición a la primera
+        for (int i = posiciones.size() - 1; i >= 0; i--) {
+            mano.remove((int) posiciones.get(i));
         }
 
         //Efectos por orden correcto
         //CORAZONES
         if (tieneCorazones) {
+            //Elegir al azar solo las cartas que se mueven, sin barajar todo el mazo de descartes
             int cartasAMover = Math.min(danioTotal, mazoCartasDescartadas.size());
-            Collections.shuffle(mazoCartasDescartadas);
-            for (int i = 0; i < cartasAMover; i++) {
-                mazoPosada.add(mazoCartasDescartadas.remove(0));
-            }
-            System.out.println("¡Efecto Corazones! Movidas " + cartasAMover + " cartas de descartes a posada");
+            mazoCartasDescartadas.moverAleatorias(cartasAMover, mazoPosada, aleatorio);
+            oyente.efectoAplicado(CodigoCarta.CORAZONES, cartasAMover);
         }
 
         //DIAMANTES
         if (tieneDiamantes) {
             int cartasARobar = Math.min(danioTotal, 8 - mano.size());
             for (int i = 0; i < cartasARobar && !mazoPosada.isEmpty(); i++) {
-                mano.add(mazoPosada.remove(0));
+                mano.add(robarPosada());
             }
-            System.out.println("¡Efecto Diamantes! Robadas " + cartasARobar + " cartas");
+            oyente.efectoAplicado(CodigoCarta.DIAMANTES, cartasARobar);
         }
 
         //PICAS
         if (tienePicas) {
             reduccionDanioEnemigo += danioTotal;
-            System.out.println("¡Efecto Picas! Reducción de daño aumentada en " + danioTotal);
+            oyente.efectoAplicado(CodigoCarta.PICAS, danioTotal);
         }
 
         //TREBOLES
         if (tieneTreboles) {
             danioTotal *= 2;
-            System.out.println("¡Efecto Tréboles! Daño duplicado a " + danioTotal);
+            oyente.efectoAplicado(CodigoCarta.TREBOLES, danioTotal);
         }
 
         //Restar vida al enemigo
         vidaEnemigo -= danioTotal;
         cartasJugadas += cartasSeleccionadas.size();
 
-        System.out.println("Daño causado al enemigo: " + danioTotal);
-        System.out.println("Vida restante enemigo: " + vidaEnemigo);
+        oyente.cartasJugadas(cartasSeleccionadas, danioTotal, vidaEnemigo);
 
         //Si enemigo ha sido derrotado
         if (vidaEnemigo <= 0) {
-            Carta enemigoDerrotado = castillo.remove(0);
+            Carta enemigoDerrotado = castillo.robar();
 
             if (vidaEnemigo == 0) {
-                System.out.println("Carta enemiga añadida al mazo Posada: " + enemigoDerrotado);
-                mazoPosada.add(0,enemigoDerrotado);
+                mazoPosada.ponerEncima(enemigoDerrotado);
+                cartasConocidasPosada++;
             } else {
-                System.out.println("Carta enemiga descartada: " + enemigoDerrotado);
-                mazoCartasDescartadas.add(0, enemigoDerrotado);
+                mazoCartasDescartadas.ponerEncima(enemigoDerrotado);
             }
+            oyente.enemigoDerrotado(enemigoDerrotado, vidaEnemigo == 0);
 
-            for (Carta carta : mazoCartasJugadas){
-                mazoCartasDescartadas.add(carta);
-            }
+            mazoCartasDescartadas.addAll(mazoCartasJugadas);
             mazoCartasJugadas.clear();//Limpiar mazo temporal después de eliminar al enemigo
 
             //Si el enemigo ha muerto, preparar uno nuevo o si no quedan mas enemigos terminar partida
             if (!castillo.isEmpty()) {
                 prepararNuevoEnemigo();
-                return;
+                return true;
             } else {
-                partidaTerminada = true;
-                victoria = true;
-                registrarEstadisticas();
+                terminar(true);
             }
         }
 
         //volver a mostrar las cartas restantes
-        mostrarEstadoColecciones();
+        oyente.coleccionesActualizadas(this);
+        return true;
     }
 
     /**
@@ -582,8 +1077,71 @@ public class Partida {
         if (!castillo.isEmpty()) {
             configurarEnemigo(castillo.get(0));
             enemigoReciente = true;
-            System.out.println("\n¡Nuevo enemigo aparece! " + castillo.get(0) + " (Vida: " + vidaEnemigo + ")");
+            oyente.nuevoEnemigo(castillo.get(0), vidaEnemigo);
+        }
+    }
+
+    /**
+     * Termina la partida, registra sus estadísticas y avisa al oyente.
+     * @param victoria true si el jugador ha ganado
+     */
+    private void terminar(boolean victoria) {
+        partidaTerminada = true;
+        this.victoria = victoria;
+        registrarEstadisticas();
+        oyente.partidaTerminada(this);
+    }
+
+    /**
+     * Descarta una carta de la mano para defenderse, una a una (como en la interfaz gráfica).
+     * Quien llama lleva la cuenta de la defensa acumulada.
+     * @param indice posición de la carta en la mano
+     * @return carta descartada
+     */
+    public Carta descartarParaDefensa(int indice) {
+        Carta carta = mano.remove(indice);
+        mazoCartasDescartadas.add(carta);
+        anotar(DiarioPartida.DEFENSA_CARTA, indice);
+        return carta;
+    }
+
+    /**
+     * Roba la carta de la cima del mazo Posada, que deja de ser conocida si lo era.
+     */
+    private Carta robarPosada() {
+        if (cartasConocidasPosada > 0) {
+            cartasConocidasPosada--;
         }
+        return mazoPosada.robar();
+    }
+
+    /**
+     * Usa un comodín: descarta la mano y las cartas jugadas contra el enemigo actual
+     * y roba una mano nueva de hasta 8 cartas del mazo Posada.
+     * @return true si se ha usado, false si no quedaban comodines
+     */
+    public boolean usarComodin() {
+        if (comodinesDisponibles <= 0) {
+            return false;
+        }
+        mazoCartasDescartadas.addAll(mano);
+        mano.clear();
+        mazoCartasDescartadas.addAll(mazoCartasJugadas);
+        mazoCartasJugadas.clear();
+        for (int i = 0; i < TablaJugadas.MAX_MANO && !mazoPosada.isEmpty(); i++) {
+            mano.add(robarPosada());
+        }
+        comodinesDisponibles--;
+        anotar(DiarioPartida.COMODIN, 0);
+        return true;
+    }
+
+    /**
+     * Termina la partida con derrota (rendición o sin cartas para continuar) y registra sus estadísticas.
+     */
+    public void declararDerrota() {
+        terminar(false);
+        anotar(DiarioPartida.DERROTA, 0);
     }
 
     /**
@@ -595,12 +1153,20 @@ public class Partida {
      * @return {@code true} si la defensa fue exitosa, {@code false} si la defensa falló y termina la partida.
      */
     public boolean manejarDefensa (ArrayList<Integer> cartasDefensa, Scanner sc) {
+        boolean exito = resolverDefensa(cartasDefensa, sc);
+        //Se anota el conjunto final (con las cartas añadidas por consola): sin Scanner da el mismo resultado
+        anotar(DiarioPartida.DEFENSA, diario == null ? 0 : DiarioPartida.mascaraPosiciones(cartasDefensa));
+        return exito;
+    }
+
+    /**
+     * Resuelve una defensa, pidiendo más cartas por consola si hay Scanner y no son suficientes.
+     */
+    private boolean resolverDefensa(ArrayList<Integer> cartasDefensa, Scanner sc) {
         //Si no tienes ninguna carta en mano
         if (mano.isEmpty()) {
-            System.out.println("¡No tienes cartas para defenderte! Has perdido.");
-            partidaTerminada = true;
-            victoria = false;
-            registrarEstadisticas();
+            oyente.defensaResuelta(false, 0, getDanioEnemigo());
+            terminar(false);
             return false;
         }
 
@@ -616,9 +1182,8 @@ public class Partida {
         while (defensaTotal < danioReal) {
             if (mano.size() == cartasDefensa.size()) {
                 //No quedan más cartas para defender
-                partidaTerminada = true;
-                victoria = false;
-                registrarEstadisticas();
+                oyente.defensaResuelta(false, defensaTotal, danioReal);
+                terminar(false);
                 return false;
             }
 
@@ -639,9 +1204,8 @@ public class Partida {
                 try {
                     String entrada = sc.nextLine().trim();
                     if (entrada.equals("0")) {
-                        partidaTerminada = true;
-                        victoria = false;
-                        registrarEstadisticas();
+                        oyente.defensaResuelta(false, defensaTotal, danioReal);
+                        terminar(false);
                         return false;
                     }
 
@@ -658,9 +1222,8 @@ public class Partida {
                 }
             } else {
                 //No hay interfaz interactiva, terminar con defensa fallida
-                partidaTerminada = true;
-                victoria = false;
-                registrarEstadisticas();
+                oyente.defensaResuelta(false, defensaTotal, danioReal);
+                terminar(false);
                 return false;
             }
         }
@@ -670,6 +1233,7 @@ public class Partida {
         for (int contador : cartasDefensa) {
             mazoCartasDescartadas.add(mano.remove(contador));
         }
+        oyente.defensaResuelta(true, defensaTotal, danioReal);
         return true;
     }
 }
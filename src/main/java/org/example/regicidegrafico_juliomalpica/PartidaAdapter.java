@@ -0,0 +1,70 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adaptador de Gson para las partidas. Escribe y lee los campos uno a uno sobre el flujo JSON,
+ * con los mismos nombres que generaba la serialización por reflexión, así que los guardados
+ * anteriores se siguen cargando. Los campos que falten conservan su valor por defecto y los
+ * desconocidos se ignoran.
+ */
+public class PartidaAdapter extends TypeAdapter<Partida> {
+    private final CartaAdapter cartas = new CartaAdapter();
+
+    @Override
+    public void write(JsonWriter out, Partida partida) throws IOException {
+        if (partida == null) {
+            out.nullValue();
+            return;
+        }
+        partida.escribirJson(out, this);
+    }
+
+    @Override
+    public Partida read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return Partida.leerJson(in, this);
+    }
+
+    /**
+     * Escribe un mazo como array JSON de cartas con su tipo.
+     * @param out destino
+     * @param nombre nombre del campo
+     * @param mazo cartas del mazo
+     * @throws IOException si falla la escritura
+     */
+    void escribirCartas(JsonWriter out, String nombre, List<Carta> mazo) throws IOException {
+        out.name(nombre).beginArray();
+        for (int i = 0; i < mazo.size(); i++) {
+            cartas.write(out, mazo.get(i));
+        }
+        out.endArray();
+    }
+
+    /**
+     * Lee un array JSON de cartas y lo añade al mazo indicado. Un null deja el mazo vacío.
+     * @param in origen
+     * @param mazo mazo de destino
+     * @throws IOException si falla la lectura
+     */
+    void leerCartas(JsonReader in, List<Carta> mazo) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            mazo.add(cartas.read(in));
+        }
+        in.endArray();
+    }
+}
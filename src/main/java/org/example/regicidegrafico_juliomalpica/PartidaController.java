@@ -1,12 +1,16 @@
 package org.example.regicidegrafico_juliomalpica;
 
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
-import javafx.scene.control.*;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.StackPane;
 
 import javafx.scene.image.ImageView;
@@ -16,9 +20,7 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Collections;
 
 /**
  * Controlador de la interfaz gráfica para la partida del juego Regicide.
@@ -43,22 +45,26 @@ public class PartidaController {
     private Label lblNombreJugador, lblContVida, lblContAtaque, lblContDefensa,
             lblContCastillo, lblContPosada, lblContJugadas, lblContDescartes, lblComodines;
 
+    /** Contenedor raíz de la pantalla, donde se dibujan los avisos */
+    @FXML
+    private AnchorPane raiz;
+
     /** Objeto Partida que contiene la lógica y datos de la partida actual */
     private Partida partida;
     /** Lista de ImageViews que representan las cartas en mano */
     private ArrayList<ImageView> cartasMano = new ArrayList<>();
-    /** Imagen que representa el reverso de las cartas */
-    private Image imagenReverso;
     /** Indica si el jugador está en modo defensa */
     private boolean enModoDefensa = false;
     /** Suma total de defensa acumulada durante el modo defensa */
     private int defensaTotal = 0;
     /** Lista de cartas usadas para defensa en el turno actual */
     private ArrayList<Carta> cartasDefensa = new ArrayList<>();
-    /** Comodines disponibles para utilizar */
-    private int comodinesDisponibles = 2;
     /** Cartas seleccionadas para jugar */
     private ArrayList<Integer> cartasSeleccionadas = new ArrayList<>();
+    /** Datos que muestra la interfaz, enlazados con las etiquetas e imágenes */
+    private ModeloPartida modelo;
+    /** Avisos y preguntas dentro de la pantalla, en lugar de diálogos */
+    private AvisosPartida avisos;
 
     /**
      * Inicializa el controlador, configurando imágenes, listas, y eventos de botones.
@@ -66,13 +72,6 @@ public class PartidaController {
      */
     @FXML
     public void initialize() {
-        //Configurar imagen tapa
-        URL url = getClass().getResource("/org/example/regicidegrafico_juliomalpica/imagenes/tapa.jpg");
-        if (url == null) {
-            throw new IllegalStateException("No se encontró tapa.jpg en el classpath");
-        }
-        imagenReverso = new Image(url.toExternalForm());
-
 
         //Lista de ImageViews para las cartas en mano
         cartasMano.add(imgvCarta1);
@@ -89,14 +88,100 @@ public class PartidaController {
         btnSalir.setOnAction(event -> salir());
         btnReglasJuego.setOnAction(event -> mostrarReglas());
 
-        //Imagenes de los mazos (imagen reverso carta)
-        imgvMazoPosada.setImage(imagenReverso);
-        imgvMazoCastillo.setImage(imagenReverso);
-        imgvMazoCarJugadas.setImage(imagenReverso);
-        imgvMazoCarDescartadas.setImage(imagenReverso);
+        //Imagen del comodín
+        ImagenesCartas.mostrarComodin(imgvComodin);
+
+        enlazarModelo();
+
+        //Avisos y atajos de teclado (la escena se asigna después de cargar el FXML)
+        avisos = new AvisosPartida(raiz);
+        raiz.sceneProperty().addListener((propiedad, antes, escena) -> {
+            if (escena != null) {
+                escena.addEventFilter(KeyEvent.KEY_PRESSED, this::teclaPulsada);
+            }
+        });
+    }
+
+    /**
+     * Atajos de teclado de la partida: del 1 al 8 seleccionan (o juegan en defensa) la carta
+     * de ese hueco, Intro acepta la pregunta a la vista y Escape la cancela.
+     * Las teclas usadas se consumen para que no las reciba el botón con el foco.
+     */
+    private void teclaPulsada(KeyEvent evento) {
+        boolean usada;
+        switch (evento.getCode()) {
+            case ENTER:
+                usada = avisos.aceptar();
+                break;
+            case ESCAPE:
+                usada = avisos.cancelar();
+                break;
+            default:
+                String tecla = evento.getText();
+                int hueco = tecla.length() == 1 ? Character.digit(tecla.charAt(0), 10) - 1 : -1;
+                usada = hueco >= 0 && hueco < cartasMano.size();
+                if (usada && !getStackPaneCarta(cartasMano.get(hueco)).isDisabled()) {
+                    manejarSeleccionCarta(hueco);
+                }
+                break;
+        }
+        if (usada) {
+            evento.consume();
+        }
+    }
+
+    /**
+     * Enlaza las etiquetas y las imágenes con el modelo, de forma que cada una solo se
+     * actualiza cuando cambia el dato que muestra.
+     */
+    private void enlazarModelo() {
+        modelo = new ModeloPartida(cartasMano.size());
+
+        //Jugador, estadísticas del enemigo y defensa total
+        lblNombreJugador.textProperty().bind(modelo.nombreJugadorProperty());
+        lblContVida.textProperty().bind(modelo.vidaEnemigoProperty().asString());
+        lblContAtaque.textProperty().bind(modelo.danioEnemigoProperty().asString());
+        lblContDefensa.textProperty().bind(modelo.defensaProperty().asString());
+
+        //Comodines (se desactiva la imagen si no quedan)
+        lblComodines.textProperty().bind(Bindings.concat("Comodines : ", modelo.comodinesProperty()));
+        BooleanBinding sinComodines = modelo.comodinesProperty().lessThanOrEqualTo(0);
+        imgvComodin.disableProperty().bind(sinComodines);
+        imgvComodin.opacityProperty().bind(Bindings.when(sinComodines).then(0.5).otherwise(1.0));
+
+        //Contadores de mazos, con la imagen del reverso o vacíos si están en 0
+        enlazarMazo(lblContCastillo, imgvMazoCastillo, modelo.cartasCastilloProperty());
+        enlazarMazo(lblContPosada, imgvMazoPosada, modelo.cartasPosadaProperty());
+        enlazarMazo(lblContJugadas, imgvMazoCarJugadas, modelo.cartasJugadasProperty());
+        enlazarMazo(lblContDescartes, imgvMazoCarDescartadas, modelo.cartasDescartadasProperty());
+
+        //Enemigo actual, última carta jugada y cartas de la mano
+        enlazarCarta(imgvCastillo, modelo.enemigoProperty());
+        enlazarCarta(imgvCartaJugada, modelo.ultimaJugadaProperty());
+        for (int i = 0; i < cartasMano.size(); i++) {
+            ImageView imagen = cartasMano.get(i);
+            ObjectProperty<Carta> carta = modelo.cartaManoProperty(i);
+            enlazarCarta(imagen, carta);
+            //Si no hay carta en el hueco no se puede hacer click
+            getStackPaneCarta(imagen).disableProperty().bind(carta.isNull());
+        }
+    }
+
+    /**
+     * Enlaza el contador y la imagen de un mazo con su número de cartas.
+     */
+    private void enlazarMazo(Label contador, ImageView mazo, IntegerProperty cartas) {
+        contador.textProperty().bind(cartas.asString());
+        mostrarMazo(mazo, cartas.get() == 0);
+        cartas.addListener((propiedad, antes, ahora) -> mostrarMazo(mazo, ahora.intValue() == 0));
+    }
 
-        //Iniciar con este texto
-        lblComodines.setText("Comodines : " + comodinesDisponibles);
+    /**
+     * Muestra en una imagen la carta del modelo y la cambia solo cuando cambia la carta.
+     */
+    private void enlazarCarta(ImageView imagen, ObjectProperty<Carta> carta) {
+        ImagenesCartas.mostrar(imagen, carta.get());
+        carta.addListener((propiedad, antes, ahora) -> ImagenesCartas.mostrar(imagen, ahora));
     }
 
     /**
@@ -107,113 +192,52 @@ public class PartidaController {
      */
     public void setPartida(Partida partida) {
         this.partida = partida;
-        lblNombreJugador.setText(partida.getNombreJugador());
+        suscribirEventos();
         actualizarInterfaz();
     }
 
+    /**
+     * Suscribe el controlador a los eventos de la partida. Los eventos se siguen
+     * mostrando por consola como registro de la partida.
+     */
+    private void suscribirEventos() {
+        partida.agregarOyente(new ConsolaPartida());
+    }
+
     /**
      * Carga la última partida guardada desde almacenamiento persistente.
      * Actualiza la interfaz si la partida existe, o muestra un error en caso contrario.
      */
     public void cargarUltimaPartida() {
-        this.partida = Partida.cargarPartida();
+        this.partida = Partida.cargarUltimaPartida();
         if (this.partida != null) {
-            lblNombreJugador.setText(partida.getNombreJugador());
+            suscribirEventos();
             actualizarInterfaz();
         } else {
-            new Alert(Alert.AlertType.ERROR, "No se encontró ninguna partida guardada.").showAndWait();
+            avisos.preguntar("No se encontró ninguna partida guardada.", "Volver al menú", this::volverAlMenu, null, null);
         }
     }
 
     /**
-     * Actualiza todos los componentes visuales de la interfaz con los datos actuales de la partida.
-     * Incluye estadísticas, imágenes de cartas y estado de los mazos.
+     * Copia en el modelo los datos actuales de la partida y la defensa acumulada.
+     * Solo se actualizan las etiquetas e imágenes cuyos datos han cambiado.
      */
     private void actualizarInterfaz() {
-        //Establecer nombre de jugador en el label
-        lblNombreJugador.setText(partida.getNombreJugador());
-
-        //Actualizar estadísticas del enemigo
-        lblContVida.setText(String.valueOf(partida.getVidaEnemigo()));
-        lblContAtaque.setText(String.valueOf(partida.getDanioEnemigo()));
-
-        //Defensa total
-        lblContDefensa.setText(String.valueOf(defensaTotal));
-
-        //Actualizar contadores de mazos
-        lblContCastillo.setText(String.valueOf(partida.getCastillo().size()));
-        lblContPosada.setText(String.valueOf(partida.getMazoPosada().size()));
-        lblContJugadas.setText(String.valueOf(partida.getMazoCartasJugadas().size()));
-        lblContDescartes.setText(String.valueOf(partida.getMazoCartasDescartadas().size()));
-
-        //Mostrar imagen o dejar vacíos los mazos si están en 0
-        imgvMazoCastillo.setImage(partida.getCastillo().isEmpty() ? null : imagenReverso);
-        imgvMazoPosada.setImage(partida.getMazoPosada().isEmpty() ? null : imagenReverso);
-        imgvMazoCarJugadas.setImage(partida.getMazoCartasJugadas().isEmpty() ? null : imagenReverso);
-        imgvMazoCarDescartadas.setImage(partida.getMazoCartasDescartadas().isEmpty() ? null : imagenReverso);
-
-        actualizarCartasMano();
-
-        //Actualizar carta jugada (si hay alguna)
-        if (!partida.getMazoCartasJugadas().isEmpty()) {
-            Carta ultimaCarta = partida.getMazoCartasJugadas().get(partida.getMazoCartasJugadas().size() - 1);
-            imgvCartaJugada.setImage(cargarImagenCarta(ultimaCarta));
-        } else {
-            imgvCartaJugada.setImage(null);
-        }
-
-        //Actualizar imagen del castillo (enemigo actual)
-        if (!partida.getCastillo().isEmpty()) {
-            imgvCastillo.setImage(cargarImagenCarta(partida.getCastillo().get(0)));
-        } else {
-            imgvCastillo.setImage(null);
-        }
-    }
-
-    /**
-     * Actualiza las cartas visibles en la mano del jugador.
-     * Habilita o deshabilita las cartas según la cantidad disponible(si hay imagen se podra hacer click,
-     * en caso contrario se deshabilita).
-     */
-    private void actualizarCartasMano() {
-        ArrayList<Carta> mano = partida.getMano();
-        for (int i = 0; i < cartasMano.size(); i++) {
-            StackPane contenedor = getStackPaneCarta(cartasMano.get(i));
-            if (i < mano.size()) {
-                cartasMano.get(i).setImage(cargarImagenCarta(mano.get(i)));
-                contenedor.setDisable(false);
-            } else {
-                cartasMano.get(i).setImage(null);
-                contenedor.setDisable(true);
-            }
-        }
+        modelo.actualizar(partida);
+        modelo.setDefensa(defensaTotal);
     }
 
     /**
-     * Carga la imagen asociada a una carta específica.
-     * Si no encuentra la imagen, devuelve la imagen del reverso.
+     * Muestra el reverso en la imagen de un mazo, o la deja vacía si el mazo no tiene cartas.
      *
-     * @param carta la carta de la que se quiere cargar la imagen
-     * @return la imagen de la carta o el reverso en caso de error
+     * @param mazo la ImageView del mazo
+     * @param vacio si el mazo está vacío
      */
-    private Image cargarImagenCarta(Carta carta) {
-        if (carta == null) return null;
-
-        try {
-            String nombreArchivo = carta.getNumero() + "_" + carta.getPalo() + ".jpg";
-            String rutaCompleta = "/org/example/regicidegrafico_juliomalpica/cartas/" + nombreArchivo;
-
-            URL url = getClass().getResource(rutaCompleta);
-            if (url != null) {
-                return new Image(url.toExternalForm());
-            } else {
-                System.err.println("No se encontró la imagen: " + rutaCompleta);
-                return imagenReverso;
-            }
-
-        } catch (Exception e) {
-            System.err.println("Error al cargar imagen de carta: " + e.getMessage());
-            return imagenReverso;
+    private void mostrarMazo(ImageView mazo, boolean vacio) {
+        if (vacio) {
+            mazo.setImage(null);
+        } else {
+            ImagenesCartas.mostrarReverso(mazo);
         }
     }
 
@@ -248,10 +272,10 @@ public class PartidaController {
 
             //Si no quedan cartas en la mano
             if (partida.getMano().isEmpty()) {
-                if (comodinesDisponibles > 0) {
+                if (partida.getComodinesDisponibles() > 0) {
                     usarComodin();
                 } else {
-                    partida.setPartidaTerminada(true);
+                    partida.declararDerrota();
                     mostrarResultadoPartida();
                     return;
                 }
@@ -273,40 +297,32 @@ public class PartidaController {
             cartasDefensa.add(cartaSeleccionada);
 
             //Quitar carta de la mano y agregarla al mazo de descartes
-            partida.getMano().remove(indiceCarta);
-            //partida.getMazoCartasJugadas().add(cartaSeleccionada);
-            partida.getMazoCartasDescartadas().add(cartaSeleccionada);
+            partida.descartarParaDefensa(indiceCarta);
 
             //Actualizar defensa en pantalla
-            lblContDefensa.setText(String.valueOf(defensaTotal));
             actualizarInterfaz();
 
             if (defensaTotal >= partida.getDanioEnemigo()) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION, "¡Defensa exitosa!");
-                alert.showAndWait();
+                avisos.avisar("¡Defensa exitosa!");
                 desactivarModoDefensa();
 
                 if (partida.getMano().isEmpty()) {
-                    if (comodinesDisponibles > 0) {
+                    if (partida.getComodinesDisponibles() > 0) {
                         usarComodin();
                     } else {
-                        Alert sinCartas = new Alert(Alert.AlertType.INFORMATION, "Te has defendido con éxito, pero ya no te quedan cartas para continuar. Has perdido.");
-                        sinCartas.showAndWait();
-                        partida.setPartidaTerminada(true);
-                        partida.registrarEstadisticas();
+                        avisos.avisar("Te has defendido con éxito, pero ya no te quedan cartas para continuar.");
+                        partida.declararDerrota();
                         mostrarResultadoPartida();
                     }
                 }
 
             } else if (partida.getMano().isEmpty()) {
-                if (comodinesDisponibles > 0) {
+                if (partida.getComodinesDisponibles() > 0) {
                     usarComodin();
                 } else {
                     //Si no hay cartas para defender
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION, "No tienes cartas suficientes para defenderte. Has perdido.");
-                    alert.showAndWait();
-                    partida.setPartidaTerminada(true);
-                    partida.registrarEstadisticas();
+                    avisos.avisar("No tienes cartas suficientes para defenderte.");
+                    partida.declararDerrota();
                     mostrarResultadoPartida();
                 }
             }
@@ -314,14 +330,10 @@ public class PartidaController {
     }
 
     /**
-     * Muestra un diálogo informativo alertando al jugador que debe defenderse.
+     * Avisa al jugador de que debe defenderse.
      */
     private void mostrarDialogoDefensa() {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Defensa");
-        alert.setHeaderText("¡El enemigo contraataca!");
-        alert.setContentText("Necesitas defenderte de " + partida.getDanioEnemigo() + " de daño.");
-        alert.showAndWait();
+        avisos.avisar("¡El enemigo contraataca! Necesitas defenderte de " + partida.getDanioEnemigo() + " de daño.");
     }
 
     /**
@@ -331,7 +343,7 @@ public class PartidaController {
         enModoDefensa = true;
         defensaTotal = 0;
         cartasDefensa.clear();
-        lblContDefensa.setText("0");
+        modelo.setDefensa(0);
     }
 
     /**
@@ -341,21 +353,26 @@ public class PartidaController {
         enModoDefensa = false;
         defensaTotal = 0;
         cartasDefensa.clear();
-        lblContDefensa.setText("0");
+        modelo.setDefensa(0);
     }
 
     /**
-     * Muestra un diálogo con el resultado final de la partida (victoria o derrota).
-     * Luego, carga la pantalla principal del juego.
+     * Muestra el resultado final de la partida (victoria o derrota) con la opción de
+     * volver a la pantalla principal del juego. Desde aquí ya no se puede seguir jugando.
      */
     private void mostrarResultadoPartida() {
+        if (partida.getDiario() != null) {
+            partida.getDiario().cerrar();
+        }
+        limpiarSeleccion();
         String mensaje = partida.isVictoria() ? "¡Felicidades! Has ganado la partida." : "¡Has perdido la partida!";
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Fin de la partida");
-        alert.setHeaderText(null);
-        alert.setContentText(mensaje);
-        alert.showAndWait();
+        avisos.preguntar(mensaje, "Volver al menú", this::volverAlMenu, null, null);
+    }
 
+    /**
+     * Carga la pantalla principal del juego.
+     */
+    private void volverAlMenu() {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("menu.fxml"));
             Stage stage = (Stage) btnSalir.getScene().getWindow();
@@ -375,40 +392,17 @@ public class PartidaController {
      * Si ya no quedan comodines, desactiva la opción visualmente.
      */
     private void usarComodin(){
-        if (comodinesDisponibles <= 0) return;
-
-        //Mover cartas mano a descartes
-        ArrayList<Carta> manoActual = partida.getMano();
-        partida.getMazoCartasDescartadas().addAll(manoActual);
-        manoActual.clear();
-
-        //Mover carta jugada a descartes
-        ArrayList<Carta> mazoJugadas = partida.getMazoCartasJugadas();
-        if (!mazoJugadas.isEmpty()) {
-            partida.getMazoCartasDescartadas().addAll(mazoJugadas);
-            mazoJugadas.clear();
-        }
-
-        //Robar cartas del mazo posada
-        ArrayList<Carta> mazoPosada = partida.getMazoPosada();
-        for (int i = 0; i < 8 && !mazoPosada.isEmpty(); i++) {
-            manoActual.add(mazoPosada.remove(0));
-        }
+        //Descartar mano y cartas jugadas y robar una mano nueva
+        if (!partida.usarComodin()) return;
 
-        //Reducir contador
-        comodinesDisponibles--;
-        lblComodines.setText("Comodines : " + comodinesDisponibles);
-
-        //Desactivar imagen si no quedan comodines
-        if (comodinesDisponibles <= 0) {
-            imgvComodin.setDisable(true);
-            imgvComodin.setOpacity(0.5);
-        }
+        //La mano es otra: la selección y la pregunta para jugarla ya no valen
+        limpiarSeleccion();
+        avisos.cerrarPregunta();
 
         //Reiniciar contador de defensa
         defensaTotal = 0;
         cartasDefensa.clear();
-        lblContDefensa.setText("0");
+        modelo.setDefensa(0);
 
         actualizarInterfaz();
     }
@@ -419,31 +413,20 @@ public class PartidaController {
      */
     @FXML
     private void onComodinClicked() {
+        if (partida == null || partida.isPartidaTerminada()) return;
         usarComodin();
     }
 
     /**
      * Acción para rendirse en la partida.
-     * Marca la partida como terminada, registra estadísticas y vuelve al menú principal.
+     * Marca la partida como terminada, registra estadísticas y muestra el resultado.
      */
     @FXML
     private void rendirse() {
-        partida.setPartidaTerminada(true);
-        partida.registrarEstadisticas();
+        //Si ya ha terminado la derrota ya está registrada
+        if (partida == null || partida.isPartidaTerminada()) return;
+        partida.declararDerrota();
         mostrarResultadoPartida();
-
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("menu.fxml"));
-            Stage stage = (Stage) btnRendirse.getScene().getWindow();
-
-            if (stage != null) {
-                stage.setScene(new Scene(fxmlLoader.load()));
-            }
-        } catch (IOException e) {
-            System.out.println("Error al cargar el menú principal: " + e);
-            e.printStackTrace();
-        }
-
     }
 
     /**
@@ -451,21 +434,14 @@ public class PartidaController {
      */
     @FXML
     private void salir() {
-        partida.guardarPartida();
-        partida.setPartidaTerminada(true);
-
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("menu.fxml"));
-            Stage stage = (Stage) btnSalir.getScene().getWindow();
-
-            if (stage != null) {
-                stage.setScene(new Scene(fxmlLoader.load()));
-            }
-        } catch (IOException e) {
-            System.out.println("Error al cargar el menú principal: " + e);
-            e.printStackTrace();
+        //Con diario basta con cerrarlo (las jugadas ya están anotadas); si no, guardar en JSON
+        if (partida.getDiario() != null) {
+            partida.getDiario().cerrar(partida);
+        } else {
+            partida.guardarPartida();
         }
-
+        partida.setPartidaTerminada(true);
+        volverAlMenu();
     }
 
     /**
@@ -478,18 +454,21 @@ public class PartidaController {
             File archivoReglas = new File("src/main/resources/Reglas_Regicide.pdf");
             Desktop.getDesktop().open(archivoReglas);
         } catch (Exception e) {
-            new Alert(Alert.AlertType.ERROR, "No se pudo abrir el archivo de reglas").showAndWait();
+            avisos.avisar("No se pudo abrir el archivo de reglas");
         }
     }
 
     /**
      * Maneja la lógica al seleccionar una carta de la mano.
      * Si está en modo defensa, la carta se juega directamente.
-     * Si está en modo ataque, permite seleccionar múltiples cartas y confirmar su uso.
+     * Si está en modo ataque, permite seleccionar múltiples cartas y muestra la pregunta
+     * para jugarlas, que se actualiza con cada carta sin impedir seguir seleccionando.
      *
      * @param indiceCarta índice de la carta seleccionada en la mano
      */
     private void manejarSeleccionCarta(int indiceCarta) {
+        if (partida == null || partida.isPartidaTerminada()) return;
+
         if (enModoDefensa) {
             //En modo defensa, jugar la carta directamente
             jugarCarta(indiceCarta);
@@ -512,57 +491,46 @@ public class PartidaController {
 
         //Si hay cartas seleccionadas, mostrar opcion para jugarlas
         if (!cartasSeleccionadas.isEmpty()) {
-            ButtonType jugar = new ButtonType("Jugar", ButtonBar.ButtonData.OK_DONE);
-            ButtonType cancelar = new ButtonType("Cancelar", ButtonBar.ButtonData.CANCEL_CLOSE);
-
-            Alert alert = new Alert(Alert.AlertType.CONFIRMATION,"¿Jugar estas " + cartasSeleccionadas.size() + " cartas?", jugar, cancelar);
-
-            alert.showAndWait().ifPresent(response -> {
-                if (response == jugar) {
-                    //Comprobar si la combinación es válida
-                    ArrayList<Carta> cartasParaJugar = new ArrayList<>();
-                    for (int idx : cartasSeleccionadas) {
-                        cartasParaJugar.add(partida.getMano().get(idx));
-                    }
-
-                    if (partida.jugadaValida(cartasParaJugar)) {
-                        //Ordenar cartas seleccionadas de mayor a menor para evitar problemas al eliminar
-                        cartasSeleccionadas.sort(Collections.reverseOrder());
-
-                        ArrayList<Carta> cartasAJugar = new ArrayList<>();
-                        for (int idx : cartasSeleccionadas) {
-                            cartasAJugar.add(partida.getMano().get(idx));
-                        }
-                        partida.jugarCarta(cartasSeleccionadas);
-                        for (int idx : cartasSeleccionadas) {
-                            getStackPaneCarta(cartasMano.get(idx)).setStyle("-fx-border-color: black;");
-                        }
-
-                        cartasSeleccionadas.clear();
-                        actualizarInterfaz();
-
-                        //Comprobar si la partida ha terminado
-                        if (partida.isPartidaTerminada()) {
-                            mostrarResultadoPartida();
-                        } else if (partida.getVidaEnemigo() > 0 && partida.getDanioEnemigo() > 0 && !partida.isEnemigoReciente()) {
-                            mostrarDialogoDefensa();
-                            activarModoDefensa();
-                        }
+            String mensaje = cartasSeleccionadas.size() == 1 ? "¿Jugar esta carta?"
+                    : "¿Jugar estas " + cartasSeleccionadas.size() + " cartas?";
+            avisos.preguntar(mensaje, "Jugar", this::jugarSeleccion, "Cancelar", this::limpiarSeleccion);
+        } else {
+            avisos.cerrarPregunta();
+        }
+    }
 
-                    } else {
-                        Alert error = new Alert(Alert.AlertType.ERROR, "¡Combinación no válida!");
-                        error.showAndWait();
-                    }
+    /**
+     * Juega las cartas seleccionadas si forman una combinación válida, o avisa de que no lo es.
+     * En ambos casos se quita la selección.
+     */
+    private void jugarSeleccion() {
+        //Comprobar si la combinación es válida
+        if (partida.jugadaValidaIndices(cartasSeleccionadas)) {
+            partida.jugarCarta(cartasSeleccionadas);
+            limpiarSeleccion();
+            actualizarInterfaz();
 
-                    for (int idx : cartasSeleccionadas) {
-                        getStackPaneCarta(cartasMano.get(idx)).setStyle("-fx-border-color: black;");
-                    }
+            //Comprobar si la partida ha terminado
+            if (partida.isPartidaTerminada()) {
+                mostrarResultadoPartida();
+            } else if (partida.getVidaEnemigo() > 0 && partida.getDanioEnemigo() > 0 && !partida.isEnemigoReciente()) {
+                mostrarDialogoDefensa();
+                activarModoDefensa();
+            }
+        } else {
+            avisos.avisar("¡Combinación no válida!");
+            limpiarSeleccion();
+        }
+    }
 
-                    cartasSeleccionadas.clear();
-                    actualizarInterfaz();
-                }
-            });
+    /**
+     * Quita la selección de cartas y su marca en pantalla.
+     */
+    private void limpiarSeleccion() {
+        for (int idx : cartasSeleccionadas) {
+            getStackPaneCarta(cartasMano.get(idx)).setStyle("-fx-border-color: black;");
         }
+        cartasSeleccionadas.clear();
     }
 
     //Clic cartas
@@ -0,0 +1,35 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Política de decisión de un jugador automático.
+ * Permite conducir una Partida sin interfaz eligiendo qué cartas jugar en cada ataque
+ * y con qué cartas defenderse del contraataque del enemigo.
+ */
+public interface PoliticaJugador {
+
+    /**
+     * Elige las cartas de la mano con las que atacar al enemigo actual.
+     * @param partida partida en curso
+     * @return índices de la mano que forman una jugada válida
+     */
+    List<Integer> elegirAtaque(Partida partida);
+
+    /**
+     * Elige las cartas de la mano con las que defenderse del ataque del enemigo.
+     * @param partida partida en curso
+     * @return índices de la mano usados para la defensa
+     */
+    ArrayList<Integer> elegirDefensa(Partida partida);
+
+    /**
+     * Avisa de que empieza una partida nueva. Las políticas aleatorias deben derivar de esta
+     * semilla su azar para la partida, de modo que el resultado no dependa de qué hilo la juegue
+     * ni de las partidas que ese hilo haya jugado antes.
+     * @param semilla semilla de la partida
+     */
+    default void nuevaPartida(long semilla) {
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Política voraz sencilla para partidas automáticas.
+ * <ul>
+ *     <li>Ataca con la jugada válida que más daño base causa (a igualdad, la de menos cartas)</li>
+ *     <li>Se defiende con el conjunto de cartas cuya suma cubre el daño con el menor exceso</li>
+ * </ul>
+ */
+public class PoliticaVoraz implements PoliticaJugador {
+
+    @Override
+    public List<Integer> elegirAtaque(Partida partida) {
+        TablaJugadas tabla = partida.getTablaJugadas();
+        int mejor = 0;
+        int mejorDanio = -1;
+
+        //Recorrer solo las jugadas válidas de la mano
+        for (int jugada = tabla.primeraJugada(); jugada >= 0; jugada = tabla.siguienteJugada(jugada)) {
+            int danio = tabla.getDanio(jugada);
+            if (danio > mejorDanio || (danio == mejorDanio && Integer.bitCount(jugada) < Integer.bitCount(mejor))) {
+                mejor = jugada;
+                mejorDanio = danio;
+            }
+        }
+        return indices(mejor, tabla.getTamanio());
+    }
+
+    @Override
+    public ArrayList<Integer> elegirDefensa(Partida partida) {
+        ArrayList<Carta> mano = partida.getMano();
+        int danio = partida.getDanioEnemigo();
+        int mejor = (1 << mano.size()) - 1; //Si nada alcanza, se entrega toda la mano
+        int mejorTotal = Integer.MAX_VALUE;
+
+        for (int subconjunto = 1; subconjunto < (1 << mano.size()); subconjunto++) {
+            int total = 0;
+            for (int i = 0; i < mano.size(); i++) {
+                if ((subconjunto & (1 << i)) != 0) {
+                    total += mano.get(i).getNumero();
+                }
+            }
+            if (total >= danio && (total < mejorTotal
+                    || (total == mejorTotal && Integer.bitCount(subconjunto) < Integer.bitCount(mejor)))) {
+                mejor = subconjunto;
+                mejorTotal = total;
+            }
+        }
+        return indices(mejor, mano.size());
+    }
+
+    /**
+     * Convierte una máscara de posiciones de la mano en una lista de índices.
+     * @param subconjunto máscara de bits (bit i = carta i de la mano)
+     * @param tamanio tamaño de la mano
+     * @return lista de índices seleccionados
+     */
+    static ArrayList<Integer> indices(int subconjunto, int tamanio) {
+        ArrayList<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < tamanio; i++) {
+            if ((subconjunto & (1 << i)) != 0) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.regicidegrafico_juliomalpica;
+
+/**
+ * Resultado previsto de una jugada, calculado por {@link EvaluadorJugadas} sin modificar la partida.
+ * El objeto es reutilizable: cada predicción sobrescribe todos sus valores, de forma que una
+ * búsqueda puede evaluar miles de jugadas sin crear objetos nuevos.
+ */
+public class PrediccionJugada {
+    int danioBase;
+    int danioTotal;
+    int palosActivos;
+    int escudo;
+    int cartasRobadas;
+    int cartasRecicladas;
+    int vidaEnemigoRestante;
+    boolean enemigoDerrotado;
+    boolean capturaExacta;
+    boolean victoria;
+    int danioEnemigoRestante;
+    int cartasEnManoTras;
+    int defensaTotal;
+    boolean defensaExitosa;
+
+    /**
+     * Obtiene el daño base de las cartas (antes de Tréboles)
+     * @return daño base
+     */
+    public int getDanioBase() {
+        return danioBase;
+    }
+
+    /**
+     * Obtiene el daño causado al enemigo tras duplicar por Tréboles
+     * @return daño total
+     */
+    public int getDanioTotal() {
+        return danioTotal;
+    }
+
+    /**
+     * Obtiene los palos cuyo efecto se activa (el palo del enemigo es inmune)
+     * @return máscara de 4 bits (bit = índice del palo)
+     */
+    public int getPalosActivos() {
+        return palosActivos;
+    }
+
+    /**
+     * Obtiene la reducción de daño que añade el efecto Picas
+     * @return escudo añadido
+     */
+    public int getEscudo() {
+        return escudo;
+    }
+
+    /**
+     * Obtiene las cartas que se robarán de la posada por el efecto Diamantes
+     * @return cartas robadas
+     */
+    public int getCartasRobadas() {
+        return cartasRobadas;
+    }
+
+    /**
+     * Obtiene las cartas que volverán de descartes a la posada por el efecto Corazones
+     * @return cartas recicladas
+     */
+    public int getCartasRecicladas() {
+        return cartasRecicladas;
+    }
+
+    /**
+     * Obtiene la vida que le quedará al enemigo
+     * @return vida restante (negativa si se le hace más daño del necesario)
+     */
+    public int getVidaEnemigoRestante() {
+        return vidaEnemigoRestante;
+    }
+
+    /**
+     * Saber si el enemigo será derrotado
+     * @return true o false
+     */
+    public boolean isEnemigoDerrotado() {
+        return enemigoDerrotado;
+    }
+
+    /**
+     * Saber si el enemigo se derrota con el daño exacto y pasa a la posada
+     * @return true o false
+     */
+    public boolean isCapturaExacta() {
+        return capturaExacta;
+    }
+
+    /**
+     * Saber si la jugada derrota al último enemigo del castillo
+     * @return true o false
+     */
+    public boolean isVictoria() {
+        return victoria;
+    }
+
+    /**
+     * Obtiene el daño del contraataque que habrá que defender (0 si el enemigo es derrotado)
+     * @return daño del enemigo tras la jugada
+     */
+    public int getDanioEnemigoRestante() {
+        return danioEnemigoRestante;
+    }
+
+    /**
+     * Saber si después de la jugada habrá que defenderse
+     * @return true o false
+     */
+    public boolean requiereDefensa() {
+        return danioEnemigoRestante > 0;
+    }
+
+    /**
+     * Obtiene el número de cartas que quedarán en la mano
+     * @return cartas en mano tras la jugada
+     */
+    public int getCartasEnManoTras() {
+        return cartasEnManoTras;
+    }
+
+    /**
+     * Obtiene los puntos de defensa de las cartas (solo en predicciones de defensa)
+     * @return defensa total
+     */
+    public int getDefensaTotal() {
+        return defensaTotal;
+    }
+
+    /**
+     * Saber si la defensa cubre el daño del enemigo (solo en predicciones de defensa)
+     * @return true o false
+     */
+    public boolean isDefensaExitosa() {
+        return defensaExitosa;
+    }
+
+    /**
+     * Pone todos los valores a cero antes de una nueva predicción.
+     */
+    void limpiar() {
+        danioBase = 0;
+        danioTotal = 0;
+        palosActivos = 0;
+        escudo = 0;
+        cartasRobadas = 0;
+        cartasRecicladas = 0;
+        vidaEnemigoRestante = 0;
+        enemigoDerrotado = false;
+        capturaExacta = false;
+        victoria = false;
+        danioEnemigoRestante = 0;
+        cartasEnManoTras = 0;
+        defensaTotal = 0;
+        defensaExitosa = false;
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una partida terminada tal como se guarda en {@link AlmacenEstadisticas}.
+ * La mano final se guarda como máscara de bits de los códigos de {@link CodigoCarta} y los
+ * enemigos (las 12 figuras) se numeran con {@link #indiceEnemigo(Carta)}.
+ */
+public final class RegistroEstadistica {
+    /** Formato de fecha de las estadísticas */
+    public static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /** Bits de la máscara que corresponden a cartas de la baraja */
+    public static final long MASCARA_CARTAS = (1L << CodigoCarta.TOTAL_CARTAS) - 1;
+    /** Número de enemigos del castillo */
+    public static final int TOTAL_ENEMIGOS = 12;
+    /** Máscara con todos los enemigos */
+    public static final int MASCARA_ENEMIGOS = (1 << TOTAL_ENEMIGOS) - 1;
+    /** Valor de {@link #getEnemigoFinal()} cuando no hay enemigo (victoria o partida antigua) */
+    public static final int SIN_ENEMIGO = -1;
+
+    private final long fecha;
+    private final String jugador;
+    private final int cartasJugadas;
+    private final int vidaEnemigo;
+    private final long mano;
+    private final boolean victoria;
+    private final long semilla;
+    private final int enemigosDerrotados;
+    private final int enemigoFinal;
+
+    /**
+     * Crea un registro.
+     * @param fecha milisegundos desde 1970 en que terminó la partida
+     * @param jugador nombre del jugador (vacío si no tiene)
+     * @param cartasJugadas cartas jugadas durante la partida
+     * @param vidaEnemigo vida que le quedaba al enemigo
+     * @param mano máscara de las cartas de la mano final
+     * @param victoria si la partida se ganó
+     * @param semilla semilla del reparto
+     */
+    public RegistroEstadistica(long fecha, String jugador, int cartasJugadas, int vidaEnemigo, long mano,
+                               boolean victoria, long semilla) {
+        this(fecha, jugador, cartasJugadas, vidaEnemigo, mano, victoria, semilla, 0, SIN_ENEMIGO);
+    }
+
+    /**
+     * Crea un registro con los enemigos de la partida.
+     * @param fecha milisegundos desde 1970 en que terminó la partida
+     * @param jugador nombre del jugador (vacío si no tiene)
+     * @param cartasJugadas cartas jugadas durante la partida
+     * @param vidaEnemigo vida que le quedaba al enemigo
+     * @param mano máscara de las cartas de la mano final
+     * @param victoria si la partida se ganó
+     * @param semilla semilla del reparto
+     * @param enemigosDerrotados máscara de los enemigos derrotados
+     * @param enemigoFinal enemigo que ganó la partida, o {@link #SIN_ENEMIGO}
+     */
+    public RegistroEstadistica(long fecha, String jugador, int cartasJugadas, int vidaEnemigo, long mano,
+                               boolean victoria, long semilla, int enemigosDerrotados, int enemigoFinal) {
+        if (enemigoFinal < SIN_ENEMIGO || enemigoFinal >= TOTAL_ENEMIGOS) {
+            throw new IllegalArgumentException("Enemigo no válido: " + enemigoFinal);
+        }
+        this.fecha = fecha;
+        this.jugador = jugador == null ? "" : jugador;
+        this.cartasJugadas = cartasJugadas;
+        this.vidaEnemigo = vidaEnemigo;
+        this.mano = mano & MASCARA_CARTAS;
+        this.victoria = victoria;
+        this.semilla = semilla;
+        this.enemigosDerrotados = enemigosDerrotados & MASCARA_ENEMIGOS;
+        this.enemigoFinal = enemigoFinal;
+    }
+
+    /**
+     * Crea el registro de una partida que acaba de terminar.
+     * @param partida partida terminada
+     * @return registro con la fecha actual
+     */
+    public static RegistroEstadistica de(Partida partida) {
+        long mano = 0;
+        for (Carta carta : partida.getMano()) {
+            if (carta.getCodigo() != CodigoCarta.SIN_CODIGO) {
+                mano |= 1L << carta.getCodigo();
+            }
+        }
+        //Los enemigos que quedan en el castillo no se han derrotado; el primero es el actual
+        int derrotados = MASCARA_ENEMIGOS;
+        for (Carta enemigo : partida.getCastillo()) {
+            int indice = indiceEnemigo(enemigo);
+            if (indice != SIN_ENEMIGO) {
+                derrotados &= ~(1 << indice);
+            }
+        }
+        int enemigoFinal = partida.isVictoria() || partida.getCastillo().isEmpty()
+                ? SIN_ENEMIGO : indiceEnemigo(partida.getCastillo().get(0));
+        return new RegistroEstadistica(System.currentTimeMillis(), partida.getNombreJugador(), partida.getCartasJugadas(),
+                partida.getVidaEnemigo(), mano, partida.isVictoria(), partida.getSemilla(), derrotados, enemigoFinal);
+    }
+
+    /**
+     * Obtiene el número de un enemigo: Jotas de 0 a 3, Reinas de 4 a 7 y Reyes de 8 a 11,
+     * cada figura en el orden de palos de {@link CodigoCarta}.
+     * @param carta figura
+     * @return número del enemigo, o {@link #SIN_ENEMIGO} si la carta no es una figura de la baraja
+     */
+    public static int indiceEnemigo(Carta carta) {
+        if (carta.getNumero() < 11 || carta.getNumero() > 13 || carta.getCodigo() == CodigoCarta.SIN_CODIGO) {
+            return SIN_ENEMIGO;
+        }
+        return (carta.getNumero() - 11) * 4 + carta.getIndicePalo();
+    }
+
+    /**
+     * Obtiene la carta de un enemigo a partir de su número.
+     * @param indice número del enemigo (de 0 a 11)
+     * @return carta del enemigo
+     */
+    public static Carta enemigo(int indice) {
+        return CodigoCarta.carta(CodigoCarta.codificar(11 + indice / 4, indice % 4));
+    }
+
+    /**
+     * Obtiene la fecha en que terminó la partida
+     * @return milisegundos desde 1970
+     */
+    public long getFecha() {
+        return fecha;
+    }
+
+    /**
+     * Obtiene la fecha en el formato de las estadísticas (yyyy-MM-dd HH:mm:ss, hora local)
+     * @return fecha como texto
+     */
+    public String getFechaTexto() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(fecha), ZoneId.systemDefault()).format(FORMATO_FECHA);
+    }
+
+    /**
+     * Obtiene el nombre del jugador
+     * @return nombre, o cadena vacía si no tiene
+     */
+    public String getJugador() {
+        return jugador;
+    }
+
+    /**
+     * Obtiene las cartas jugadas durante la partida
+     * @return número de cartas jugadas
+     */
+    public int getCartasJugadas() {
+        return cartasJugadas;
+    }
+
+    /**
+     * Obtiene la vida que le quedaba al enemigo al terminar
+     * @return vida del enemigo
+     */
+    public int getVidaEnemigo() {
+        return vidaEnemigo;
+    }
+
+    /**
+     * Obtiene la mano final como máscara de bits
+     * @return máscara con un bit por código de carta
+     */
+    public long getMascaraMano() {
+        return mano;
+    }
+
+    /**
+     * Obtiene las cartas de la mano final, ordenadas por código
+     * @return cartas de la mano
+     */
+    public List<Carta> getMano() {
+        List<Carta> cartas = new ArrayList<>(Long.bitCount(mano));
+        for (long resto = mano; resto != 0; resto &= resto - 1) {
+            cartas.add(CodigoCarta.carta(Long.numberOfTrailingZeros(resto)));
+        }
+        return cartas;
+    }
+
+    /**
+     * Obtiene la mano final en el formato JSON de la columna Estado Mano
+     * @return array JSON de las cartas
+     */
+    public String getEstadoMano() {
+        return CartaAdapter.aJsonSinTipo(getMano());
+    }
+
+    /**
+     * Indica si la partida se ganó
+     * @return true si fue victoria
+     */
+    public boolean isVictoria() {
+        return victoria;
+    }
+
+    /**
+     * Obtiene el resultado como texto
+     * @return "Victoria" o "Derrota"
+     */
+    public String getResultado() {
+        return victoria ? "Victoria" : "Derrota";
+    }
+
+    /**
+     * Obtiene los enemigos derrotados durante la partida
+     * @return máscara con un bit por número de enemigo
+     */
+    public int getEnemigosDerrotados() {
+        return enemigosDerrotados;
+    }
+
+    /**
+     * Obtiene el enemigo contra el que se perdió la partida
+     * @return número del enemigo, o {@link #SIN_ENEMIGO} si se ganó o no se sabe
+     */
+    public int getEnemigoFinal() {
+        return enemigoFinal;
+    }
+
+    /**
+     * Obtiene la semilla del reparto
+     * @return semilla
+     */
+    public long getSemilla() {
+        return semilla;
+    }
+}
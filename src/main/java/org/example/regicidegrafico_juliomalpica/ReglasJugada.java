@@ -0,0 +1,78 @@
+package org.example.regicidegrafico_juliomalpica;
+
+/**
+ * Reglas de una jugada de ataque expresadas sobre máscaras de bits de cartas
+ * (ver {@link CodigoCarta}), sin cadenas ni listas intermedias.
+ */
+public final class ReglasJugada {
+
+    private ReglasJugada() {
+    }
+
+    /**
+     * Valida si una combinación de cartas puede jugarse junta.
+     * <ul>
+     *    <li>Una sola carta</li>
+     *    <li>Compañero animal (As) + una carta cualquiera, o dos Ases</li>
+     *    <li>De 2 a 4 cartas del mismo número (palos distintos) con un total de puntos &lt;= 10</li>
+     * </ul>
+     * @param jugada máscara de las cartas jugadas
+     * @return true si la jugada es válida
+     */
+    public static boolean esJugadaValida(long jugada) {
+        int numCartas = Long.bitCount(jugada);
+        if (numCartas == 1) {
+            return true;
+        }
+        int numCompanieros = Long.bitCount(jugada & CodigoCarta.MASCARA_ASES);
+        if (numCartas == 2 && numCompanieros >= 1) {
+            return true;
+        }
+        if (numCartas < 2 || numCartas > 4 || numCompanieros > 0) {
+            return false;
+        }
+        //Mismo número implica palos distintos
+        int numero = CodigoCarta.numero(Long.numberOfTrailingZeros(jugada));
+        return (jugada & ~CodigoCarta.mascaraNumero(numero)) == 0 && numero * numCartas <= 10;
+    }
+
+    /**
+     * Calcula el daño base de una jugada (suma de los números, los Ases valen 1).
+     * @param jugada máscara de las cartas jugadas
+     * @return daño antes de aplicar efectos
+     */
+    public static int danioBase(long jugada) {
+        int danio = 0;
+        while (jugada != 0) {
+            danio += CodigoCarta.numero(Long.numberOfTrailingZeros(jugada));
+            jugada &= jugada - 1;
+        }
+        return danio;
+    }
+
+    /**
+     * Calcula qué palos activan su efecto en una jugada.
+     * @param jugada máscara de las cartas jugadas
+     * @param paloInmune índice del palo del enemigo (su efecto no se activa), o -1
+     * @return máscara de 4 bits (bit = índice del palo)
+     */
+    public static int palosActivos(long jugada, int paloInmune) {
+        int palos = 0;
+        for (int palo = 0; palo < 4; palo++) {
+            if (palo != paloInmune && (jugada & CodigoCarta.mascaraPalo(palo)) != 0) {
+                palos |= 1 << palo;
+            }
+        }
+        return palos;
+    }
+
+    /**
+     * Comprueba si un palo está presente en una máscara de palos.
+     * @param palos máscara de palos activos
+     * @param palo índice del palo
+     * @return true si el palo está activo
+     */
+    public static boolean tienePalo(int palos, int palo) {
+        return (palos & (1 << palo)) != 0;
+    }
+}
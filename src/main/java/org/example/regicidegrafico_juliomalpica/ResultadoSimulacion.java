@@ -0,0 +1,101 @@
+package org.example.regicidegrafico_juliomalpica;
+
+/**
+ * Resultados agregados de una tanda de partidas simuladas.
+ * Acumula victorias, derrotas, cartas jugadas y vida restante de los enemigos,
+ * y puede combinarse con los resultados de otros hilos.
+ */
+public class ResultadoSimulacion {
+    private long partidas;
+    private long victorias;
+    private long cartasJugadas;
+    private long vidaEnemigoRestante;
+    private long enemigosDerrotados;
+
+    /**
+     * Añade el resultado de una partida terminada.
+     * @param partida partida ya terminada
+     */
+    public void agregar(Partida partida) {
+        partidas++;
+        if (partida.isVictoria()) {
+            victorias++;
+        }
+        cartasJugadas += partida.getCartasJugadas();
+        vidaEnemigoRestante += Math.max(0, partida.getVidaEnemigo());
+        enemigosDerrotados += 12 - partida.getCastillo().size();
+    }
+
+    /**
+     * Suma a este resultado los acumulados de otro.
+     * @param otro resultado a combinar
+     */
+    public void combinar(ResultadoSimulacion otro) {
+        partidas += otro.partidas;
+        victorias += otro.victorias;
+        cartasJugadas += otro.cartasJugadas;
+        vidaEnemigoRestante += otro.vidaEnemigoRestante;
+        enemigosDerrotados += otro.enemigosDerrotados;
+    }
+
+    /**
+     * Obtiene el número de partidas simuladas
+     * @return partidas simuladas
+     */
+    public long getPartidas() {
+        return partidas;
+    }
+
+    /**
+     * Obtiene el número de victorias
+     * @return victorias
+     */
+    public long getVictorias() {
+        return victorias;
+    }
+
+    /**
+     * Obtiene el número de derrotas
+     * @return derrotas
+     */
+    public long getDerrotas() {
+        return partidas - victorias;
+    }
+
+    /**
+     * Obtiene el total de cartas jugadas en todas las partidas
+     * @return cartas jugadas
+     */
+    public long getCartasJugadas() {
+        return cartasJugadas;
+    }
+
+    /**
+     * Obtiene la suma de la vida restante del enemigo al terminar cada partida
+     * @return vida restante acumulada
+     */
+    public long getVidaEnemigoRestante() {
+        return vidaEnemigoRestante;
+    }
+
+    /**
+     * Obtiene el total de enemigos derrotados en todas las partidas
+     * @return enemigos derrotados
+     */
+    public long getEnemigosDerrotados() {
+        return enemigosDerrotados;
+    }
+
+    /**
+     * Representación en cadena con los valores totales y medios.
+     * @return resumen de la simulación
+     */
+    @Override
+    public String toString() {
+        double n = Math.max(1, partidas);
+        return String.format("Partidas: %d | Victorias: %d (%.2f%%) | Derrotas: %d%n"
+                        + "Cartas jugadas (media): %.2f | Vida enemigo restante (media): %.2f | Enemigos derrotados (media): %.2f",
+                partidas, victorias, 100.0 * victorias / n, getDerrotas(),
+                cartasJugadas / n, vidaEnemigoRestante / n, enemigosDerrotados / n);
+    }
+}
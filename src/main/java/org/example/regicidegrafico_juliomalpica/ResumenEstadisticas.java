@@ -0,0 +1,286 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.io.*;
+import java.util.Locale;
+
+/**
+ * Resumen de todas las partidas registradas, mantenido al añadir cada registro para que
+ * mostrarlo no obligue a leer los registros.
+ * <p>
+ * Incluye el porcentaje de victorias, la media, el mínimo y el máximo de cartas jugadas,
+ * un histograma de la vida que le quedaba al enemigo, las rachas de victorias y derrotas
+ * y, para cada enemigo, cuántas veces se le derrotó y cuántas partidas ganó.
+ * Se guarda en un archivo pequeño de tamaño fijo (ver {@link #aBytes()}).
+ * </p>
+ */
+public final class ResumenEstadisticas {
+    /** "RGDS" */
+    public static final int MAGIA = 0x52474453;
+    public static final int VERSION = 1;
+    /** Vida máxima de un enemigo (los Reyes); las vidas mayores se cuentan aquí */
+    public static final int VIDA_MAXIMA = 40;
+
+    private long partidas;
+    private long victorias;
+    private long sumaCartas;
+    private int minCartas;
+    private int maxCartas;
+    private final long[] histogramaVida = new long[VIDA_MAXIMA + 1];
+    /** Positiva: victorias seguidas al final; negativa: derrotas seguidas */
+    private long rachaActual;
+    private long mejorRachaVictorias;
+    private long peorRachaDerrotas;
+    private final long[] vecesDerrotado = new long[RegistroEstadistica.TOTAL_ENEMIGOS];
+    private final long[] partidasGanadas = new long[RegistroEstadistica.TOTAL_ENEMIGOS];
+
+    /**
+     * Añade una partida al resumen. Las rachas dependen del orden, así que los registros
+     * deben añadirse en el orden en que se guardaron.
+     * @param registro partida terminada
+     */
+    public void agregar(RegistroEstadistica registro) {
+        agregar(registro.getCartasJugadas(), registro.getVidaEnemigo(), registro.isVictoria());
+        for (int derrotados = registro.getEnemigosDerrotados(); derrotados != 0; derrotados &= derrotados - 1) {
+            vecesDerrotado[Integer.numberOfTrailingZeros(derrotados)]++;
+        }
+        if (registro.getEnemigoFinal() != RegistroEstadistica.SIN_ENEMIGO) {
+            partidasGanadas[registro.getEnemigoFinal()]++;
+        }
+    }
+
+    /**
+     * Añade una partida de la que no se sabe contra qué enemigos se jugó (las del CSV antiguo).
+     * Cuenta en todo salvo en los resultados contra cada enemigo.
+     * @param cartas cartas jugadas
+     * @param vidaEnemigo vida que le quedaba al enemigo
+     * @param victoria si se ganó la partida
+     */
+    public void agregar(int cartas, int vidaEnemigo, boolean victoria) {
+        minCartas = partidas == 0 ? cartas : Math.min(minCartas, cartas);
+        maxCartas = partidas == 0 ? cartas : Math.max(maxCartas, cartas);
+        partidas++;
+        sumaCartas += cartas;
+        histogramaVida[Math.min(Math.max(vidaEnemigo, 0), VIDA_MAXIMA)]++;
+
+        if (victoria) {
+            victorias++;
+            rachaActual = rachaActual > 0 ? rachaActual + 1 : 1;
+            mejorRachaVictorias = Math.max(mejorRachaVictorias, rachaActual);
+        } else {
+            rachaActual = rachaActual < 0 ? rachaActual - 1 : -1;
+            peorRachaDerrotas = Math.max(peorRachaDerrotas, -rachaActual);
+        }
+    }
+
+    /**
+     * Crea una copia independiente del resumen
+     * @return copia
+     */
+    public ResumenEstadisticas copiar() {
+        try {
+            return desdeBytes(aBytes());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Obtiene el número de partidas del resumen
+     * @return partidas registradas
+     */
+    public long getPartidas() {
+        return partidas;
+    }
+
+    /**
+     * Obtiene el número de victorias
+     * @return partidas ganadas
+     */
+    public long getVictorias() {
+        return victorias;
+    }
+
+    /**
+     * Obtiene el porcentaje de partidas ganadas
+     * @return porcentaje de 0 a 100 (0 si no hay partidas)
+     */
+    public double getPorcentajeVictorias() {
+        return partidas == 0 ? 0 : 100.0 * victorias / partidas;
+    }
+
+    /**
+     * Obtiene la media de cartas jugadas por partida
+     * @return media (0 si no hay partidas)
+     */
+    public double getMediaCartas() {
+        return partidas == 0 ? 0 : (double) sumaCartas / partidas;
+    }
+
+    /**
+     * Obtiene el mínimo de cartas jugadas en una partida
+     * @return mínimo (0 si no hay partidas)
+     */
+    public int getMinCartas() {
+        return minCartas;
+    }
+
+    /**
+     * Obtiene el máximo de cartas jugadas en una partida
+     * @return máximo (0 si no hay partidas)
+     */
+    public int getMaxCartas() {
+        return maxCartas;
+    }
+
+    /**
+     * Obtiene cuántas partidas terminaron con cada vida del enemigo
+     * @return histograma indexado por vida, de 0 a {@link #VIDA_MAXIMA}
+     */
+    public long[] getHistogramaVida() {
+        return histogramaVida.clone();
+    }
+
+    /**
+     * Obtiene la racha de las últimas partidas
+     * @return victorias seguidas (positivo) o derrotas seguidas (negativo)
+     */
+    public long getRachaActual() {
+        return rachaActual;
+    }
+
+    /**
+     * Obtiene la racha más larga de victorias seguidas
+     * @return partidas
+     */
+    public long getMejorRachaVictorias() {
+        return mejorRachaVictorias;
+    }
+
+    /**
+     * Obtiene la racha más larga de derrotas seguidas
+     * @return partidas
+     */
+    public long getPeorRachaDerrotas() {
+        return peorRachaDerrotas;
+    }
+
+    /**
+     * Obtiene cuántas veces se derrotó a un enemigo
+     * @param enemigo número del enemigo (ver {@link RegistroEstadistica#indiceEnemigo(Carta)})
+     * @return veces derrotado
+     */
+    public long getVecesDerrotado(int enemigo) {
+        return vecesDerrotado[enemigo];
+    }
+
+    /**
+     * Obtiene cuántas partidas terminaron en derrota frente a un enemigo
+     * @param enemigo número del enemigo (ver {@link RegistroEstadistica#indiceEnemigo(Carta)})
+     * @return partidas ganadas por el enemigo
+     */
+    public long getPartidasGanadas(int enemigo) {
+        return partidasGanadas[enemigo];
+    }
+
+    /**
+     * Describe en dos líneas los datos principales: partidas, victorias, cartas y rachas.
+     * @return texto del resumen
+     */
+    public String getTextoResumen() {
+        if (partidas == 0) {
+            return "Todavía no hay partidas registradas";
+        }
+        String racha = rachaActual >= 0 ? rachaActual + " victorias" : -rachaActual + " derrotas";
+        return String.format(Locale.ROOT, "Partidas: %d | Victorias: %d (%.1f %%) | Cartas jugadas: media %.1f (mín. %d, máx. %d)%n"
+                        + "Racha actual: %s | Mejor racha: %d victorias | Peor racha: %d derrotas",
+                partidas, victorias, getPorcentajeVictorias(), getMediaCartas(), minCartas, maxCartas,
+                racha, mejorRachaVictorias, peorRachaDerrotas);
+    }
+
+    /**
+     * Describe el histograma de vida del enemigo (en tramos de 5) y los resultados contra cada enemigo.
+     * @return texto del detalle
+     */
+    public String getTextoDetalle() {
+        StringBuilder texto = new StringBuilder("Vida restante del enemigo:");
+        for (int desde = 0; desde <= VIDA_MAXIMA; desde += 5) {
+            int hasta = Math.min(desde + 4, VIDA_MAXIMA);
+            long total = 0;
+            for (int vida = desde; vida <= hasta; vida++) {
+                total += histogramaVida[vida];
+            }
+            texto.append(String.format(Locale.ROOT, "%n  %2d-%-2d: %d", desde, hasta, total));
+        }
+        texto.append(String.format("%nEnemigos (derrotado / ganó):"));
+        for (int enemigo = 0; enemigo < RegistroEstadistica.TOTAL_ENEMIGOS; enemigo++) {
+            texto.append(String.format(Locale.ROOT, "%n  %-14s %d / %d", RegistroEstadistica.enemigo(enemigo),
+                    vecesDerrotado[enemigo], partidasGanadas[enemigo]));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Codifica el resumen para guardarlo
+     * @return bytes del resumen
+     */
+    public byte[] aBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeLong(partidas);
+            salida.writeLong(victorias);
+            salida.writeLong(sumaCartas);
+            salida.writeInt(minCartas);
+            salida.writeInt(maxCartas);
+            salida.writeLong(rachaActual);
+            salida.writeLong(mejorRachaVictorias);
+            salida.writeLong(peorRachaDerrotas);
+            escribir(salida, histogramaVida);
+            escribir(salida, vecesDerrotado);
+            escribir(salida, partidasGanadas);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lee un resumen guardado con {@link #aBytes()}
+     * @param datos bytes del resumen
+     * @return resumen leído
+     * @throws IOException si los datos no son un resumen válido
+     */
+    public static ResumenEstadisticas desdeBytes(byte[] datos) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos))) {
+            if (entrada.readInt() != MAGIA || entrada.readInt() != VERSION) {
+                throw new IOException("Resumen de estadísticas no válido");
+            }
+            ResumenEstadisticas resumen = new ResumenEstadisticas();
+            resumen.partidas = entrada.readLong();
+            resumen.victorias = entrada.readLong();
+            resumen.sumaCartas = entrada.readLong();
+            resumen.minCartas = entrada.readInt();
+            resumen.maxCartas = entrada.readInt();
+            resumen.rachaActual = entrada.readLong();
+            resumen.mejorRachaVictorias = entrada.readLong();
+            resumen.peorRachaDerrotas = entrada.readLong();
+            leer(entrada, resumen.histogramaVida);
+            leer(entrada, resumen.vecesDerrotado);
+            leer(entrada, resumen.partidasGanadas);
+            return resumen;
+        }
+    }
+
+    private static void escribir(DataOutputStream salida, long[] valores) throws IOException {
+        for (long valor : valores) {
+            salida.writeLong(valor);
+        }
+    }
+
+    private static void leer(DataInputStream entrada, long[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = entrada.readLong();
+        }
+    }
+}
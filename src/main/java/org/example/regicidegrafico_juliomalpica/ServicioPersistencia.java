@@ -0,0 +1,221 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Servicio de escritura en segundo plano para partidas, instantáneas y estadísticas.
+ * <p>
+ * Un único hilo virtual hace todas las escrituras, así que el hilo de JavaFX solo prepara
+ * una copia inmutable de lo que hay que guardar y vuelve enseguida. Para que un cierre a
+ * mitad de escritura nunca deje un archivo corrupto, los archivos completos se escriben en
+ * un temporal del mismo directorio, se fuerzan a disco y se renombran de forma atómica sobre
+ * el original. Si se piden varios guardados del mismo archivo antes de que el hilo llegue a
+ * ellos, solo se escribe el último. Las estadísticas las escribe {@link AlmacenEstadisticas}
+ * con {@link #ejecutar(Path, Escritura, long)}, que junta en una sola escritura los registros
+ * de las partidas que terminan mientras tanto.
+ * </p>
+ * Antes de leer un archivo que puede tener escrituras pendientes, o al salir de la aplicación,
+ * hay que llamar a {@link #vaciar()}.
+ */
+public final class ServicioPersistencia {
+    private static final ServicioPersistencia INSTANCIA = new ServicioPersistencia();
+
+    /** Archivos con trabajo pendiente y barreras de {@link #vaciar()}, en orden de llegada */
+    private final BlockingQueue<Object> cola = new LinkedBlockingQueue<>();
+    /** Último contenido pedido para cada archivo que se reescribe entero */
+    private final Map<Path, Callable<byte[]>> contenidos = new ConcurrentHashMap<>();
+    /** Escrituras propias de otras clases pendientes para cada archivo */
+    private final Map<Path, Escritura> escrituras = new ConcurrentHashMap<>();
+    /** Archivos con una escritura retrasada que todavía no se ha puesto en la cola */
+    private final Set<Path> retrasadas = ConcurrentHashMap.newKeySet();
+
+    private ServicioPersistencia() {
+        Thread.ofVirtual().name("persistencia").start(this::escribir);
+    }
+
+    /**
+     * Obtiene el servicio de la aplicación
+     * @return servicio de persistencia
+     */
+    public static ServicioPersistencia getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Pide reescribir un archivo completo. El contenido se genera en el hilo de escritura,
+     * así que debe depender solo de datos que ya no cambien (por ejemplo, una copia de la partida).
+     * @param ruta archivo de destino
+     * @param contenido genera los bytes del archivo
+     */
+    public void reemplazar(Path ruta, Callable<byte[]> contenido) {
+        if (contenidos.put(ruta, contenido) == null) {
+            cola.add(ruta);
+        }
+    }
+
+    /**
+     * Pide guardar una partida (en JSON si el archivo termina en .json y en binario si no).
+     * Se copia en el momento de la llamada y se serializa en segundo plano.
+     * @param ruta archivo de destino
+     * @param partida partida a guardar
+     */
+    public void guardarPartida(Path ruta, Partida partida) {
+        Partida copia = partida.instantanea();
+        reemplazar(ruta, () -> copia.serializar(ruta));
+    }
+
+    /**
+     * Pide hacer una escritura propia sobre un archivo en el hilo de escritura, en orden con
+     * el resto. Si ya hay una pendiente para el mismo archivo no se repite, así que la escritura
+     * debe volcar todo lo que haya pendiente en el momento de ejecutarse.
+     * @param ruta archivo afectado
+     * @param escritura escritura a hacer
+     */
+    public void ejecutar(Path ruta, Escritura escritura) {
+        if (escrituras.putIfAbsent(ruta, escritura) == null) {
+            cola.add(ruta);
+        }
+    }
+
+    /**
+     * Como {@link #ejecutar(Path, Escritura)}, pero la escritura espera el tiempo indicado
+     * antes de ponerse en la cola, para que junte todo lo que se pida mientras tanto.
+     * {@link #vaciar()} no espera a que pase el tiempo: adelanta las escrituras retrasadas.
+     * @param ruta archivo afectado
+     * @param escritura escritura a hacer
+     * @param milisegundos tiempo de espera (0 para ponerla en la cola ya)
+     */
+    public void ejecutar(Path ruta, Escritura escritura, long milisegundos) {
+        if (milisegundos <= 0) {
+            ejecutar(ruta, escritura);
+            return;
+        }
+        if (escrituras.putIfAbsent(ruta, escritura) == null) {
+            retrasadas.add(ruta);
+            CompletableFuture.delayedExecutor(milisegundos, TimeUnit.MILLISECONDS).execute(() -> encolarRetrasada(ruta));
+        }
+    }
+
+    private void encolarRetrasada(Path ruta) {
+        if (retrasadas.remove(ruta)) {
+            cola.add(ruta);
+        }
+    }
+
+    /**
+     * Espera a que terminen todas las escrituras pedidas hasta este momento.
+     * @return futuro que se completa al terminar
+     */
+    public CompletableFuture<Void> vaciar() {
+        for (Path ruta : retrasadas) {
+            encolarRetrasada(ruta);
+        }
+        CompletableFuture<Void> barrera = new CompletableFuture<>();
+        cola.add(barrera);
+        return barrera;
+    }
+
+    /**
+     * Espera (como mucho el tiempo indicado) a que terminen las escrituras pendientes.
+     * @param milisegundos tiempo máximo de espera
+     * @return true si se han completado todas
+     */
+    public boolean vaciar(long milisegundos) {
+        try {
+            vaciar().get(milisegundos, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Bucle del hilo de escritura.
+     */
+    @SuppressWarnings("unchecked")
+    private void escribir() {
+        while (true) {
+            Object tarea;
+            try {
+                tarea = cola.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (tarea instanceof CompletableFuture) {
+                ((CompletableFuture<Void>) tarea).complete(null);
+                continue;
+            }
+            Path ruta = (Path) tarea;
+            Callable<byte[]> contenido = contenidos.remove(ruta);
+            if (contenido != null) {
+                try {
+                    escribirAtomico(ruta, contenido.call());
+                } catch (Exception e) {
+                    System.err.println("Error al guardar " + ruta + ": " + e.getMessage());
+                }
+            }
+            Escritura escritura = escrituras.remove(ruta);
+            if (escritura != null) {
+                try {
+                    escritura.escribir();
+                } catch (Exception e) {
+                    System.err.println("Error al guardar " + ruta + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe un archivo completo de forma segura: temporal en el mismo directorio,
+     * volcado a disco y renombrado atómico sobre el destino.
+     * @param ruta archivo de destino
+     * @param bytes contenido
+     * @throws IOException si no se puede escribir
+     */
+    public static void escribirAtomico(Path ruta, byte[] bytes) throws IOException {
+        Path destino = ruta.toAbsolutePath();
+        Files.createDirectories(destino.getParent());
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(true);
+            }
+            try {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Escritura que se hace en el hilo de persistencia.
+     */
+    @FunctionalInterface
+    public interface Escritura {
+        /**
+         * Hace la escritura.
+         * @throws IOException si falla
+         */
+        void escribir() throws IOException;
+    }
+}
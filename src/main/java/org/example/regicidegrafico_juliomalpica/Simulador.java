@@ -0,0 +1,131 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Simulador de partidas sin interfaz gráfica.
+ * Crea partidas a partir de semillas, las juega completas con una {@link PoliticaJugador}
+ * y reparte el trabajo entre todos los núcleos mediante un ForkJoinPool.
+ * Al terminar informa de los resultados agregados y del rendimiento (partidas/s).
+ */
+public class Simulador {
+    private final Supplier<PoliticaJugador> fabricaPoliticas;
+
+    /**
+     * Crea un simulador.
+     * @param fabricaPoliticas crea una política por hilo (las políticas pueden tener estado)
+     */
+    public Simulador(Supplier<PoliticaJugador> fabricaPoliticas) {
+        this.fabricaPoliticas = fabricaPoliticas;
+    }
+
+    /**
+     * Juega una tanda de partidas en paralelo.
+     * @param numPartidas número de partidas a jugar
+     * @param hilos número de hilos del pool
+     * @param semillaBase semilla de la simulación: la partida i usa el flujo i-ésimo dividido de ella
+     *                    ({@link GeneradorAleatorio#semillaFlujo}), así que los resultados son los
+     *                    mismos con cualquier número de hilos
+     * @return resultados agregados de todas las partidas
+     */
+    public ResultadoSimulacion simular(long numPartidas, int hilos, long semillaBase) {
+        ThreadLocal<PoliticaJugador> politicas = ThreadLocal.withInitial(fabricaPoliticas);
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            return pool.submit(() -> LongStream.range(0, numPartidas).parallel()
+                    .mapToObj(i -> jugarPartida(GeneradorAleatorio.semillaFlujo(semillaBase, i), politicas.get()))
+                    .collect(ResultadoSimulacion::new, ResultadoSimulacion::agregar, ResultadoSimulacion::combinar)
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error durante la simulación", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Crea una partida a partir de una semilla y la juega hasta el final.
+     * @param semilla semilla del reparto
+     * @param politica política que decide las jugadas
+     * @return la partida terminada
+     */
+    public static Partida jugarPartida(long semilla, PoliticaJugador politica) {
+        Partida partida = new Partida("Simulador", semilla);
+        partida.setSimulacion(true);
+        partida.generarBaraja();
+        partida.prepararColecciones();
+        politica.nuevaPartida(semilla);
+        jugarHastaFinal(partida, politica);
+        return partida;
+    }
+
+    /**
+     * Conduce una partida hasta que termina, siguiendo el mismo flujo que la interfaz:
+     * ataque, y si el enemigo sigue vivo y causa daño, defensa.
+     * @param partida partida a jugar
+     * @param politica política que decide las jugadas
+     */
+    public static void jugarHastaFinal(Partida partida, PoliticaJugador politica) {
+        while (!partida.isPartidaTerminada()) {
+            partida.setEnemigoReciente(false);
+            List<Integer> ataque = new ArrayList<>(politica.elegirAtaque(partida));
+            if (!partida.getMano().isEmpty() && !esJugadaValida(partida, ataque)) {
+                throw new IllegalStateException("La política ha elegido una jugada no válida: " + ataque);
+            }
+            partida.jugarCarta(ataque);
+
+            if (partida.isPartidaTerminada()) {
+                return;
+            }
+            //Tras derrotar a un enemigo el nuevo no contraataca en este turno
+            if (partida.isEnemigoReciente() || partida.getDanioEnemigo() <= 0) {
+                continue;
+            }
+            partida.manejarDefensa(politica.elegirDefensa(partida), null);
+        }
+    }
+
+    /**
+     * Comprueba que los índices elegidos forman una jugada válida de la mano actual.
+     */
+    private static boolean esJugadaValida(Partida partida, List<Integer> indices) {
+        List<Carta> cartas = new ArrayList<>();
+        for (int idx : indices) {
+            cartas.add(partida.getMano().get(idx));
+        }
+        return partida.jugadaValida(cartas);
+    }
+
+    /**
+     * Ejecuta una simulación desde la línea de comandos e informa del rendimiento.
+     * @param args [partidas] [hilos] [semilla] [voraz | mcts [rollouts por decisión]]
+     */
+    public static void main(String[] args) {
+        long numPartidas = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+
+        boolean mcts = args.length > 3 && args[3].equalsIgnoreCase("mcts");
+        long rollouts = args.length > 4 ? Long.parseLong(args[4]) : 200;
+
+        //Cada hilo del simulador usa un bot de un solo hilo para no anidar pools
+        Simulador simulador = new Simulador(mcts
+                ? () -> BotMCTS.porIteraciones(rollouts, 1, semilla)
+                : PoliticaVoraz::new);
+        long inicio = System.nanoTime();
+        ResultadoSimulacion resultado = simulador.simular(numPartidas, hilos, semilla);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.println(resultado);
+        System.out.printf("Tiempo: %.2f s | %.0f partidas/s | %.0f partidas/s por núcleo (%d hilos)%n",
+                segundos, numPartidas / segundos, numPartidas / segundos / hilos, hilos);
+    }
+}
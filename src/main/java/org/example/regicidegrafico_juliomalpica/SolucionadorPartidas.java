@@ -0,0 +1,365 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solucionador exacto de repartos: determina si una partida barajada con semilla
+ * se puede ganar jugando perfectamente (sin comodines).
+ * <p>
+ * Hace una búsqueda en profundidad sobre el árbol completo de la partida usando el estado
+ * compacto {@link EstadoSolver}. Como el orden de la posada y los barajados de Corazones
+ * están fijados por la semilla, el juego es determinista y basta con encontrar una línea
+ * ganadora. Las posiciones repetidas se detectan con hashing Zobrist (mano, posición en el
+ * castillo, vida y escudo del enemigo, contenido de los mazos y estado del generador) en una
+ * {@link TablaTransposicion} acotada. Los ataques se ordenan probando primero los que derrotan
+ * al enemigo (captura exacta antes) y después los de más daño; las defensas, de menor a mayor
+ * coste. Los primeros niveles del árbol se reparten entre los núcleos con fork/join.
+ * </p>
+ */
+public class SolucionadorPartidas {
+    /** Resultado de la búsqueda */
+    public enum Veredicto { GANABLE, IMPOSIBLE, DESCONOCIDO }
+
+    /** Niveles del árbol que se reparten como tareas fork/join */
+    private static final int PROFUNDIDAD_PARALELA = 2;
+    /** Nodos que cuenta cada hilo antes de sumarlos al contador global */
+    private static final int LOTE_NODOS = 1024;
+
+    private static final int POSICIONES = CodigoCarta.TOTAL_CARTAS;
+    private static final long[] ZOBRIST_MANO = new long[TablaJugadas.MAX_MANO * POSICIONES];
+    private static final long[] ZOBRIST_POSADA = new long[POSICIONES * POSICIONES];
+    private static final long[] ZOBRIST_DESCARTES = new long[POSICIONES * POSICIONES];
+    private static final long[] ZOBRIST_JUGADAS = new long[POSICIONES * POSICIONES];
+
+    static {
+        SplittableRandom aleatorio = new SplittableRandom(0x5EED_2EC1C1DEL);
+        for (long[] tabla : new long[][]{ZOBRIST_MANO, ZOBRIST_POSADA, ZOBRIST_DESCARTES, ZOBRIST_JUGADAS}) {
+            for (int i = 0; i < tabla.length; i++) {
+                tabla[i] = aleatorio.nextLong();
+            }
+        }
+    }
+
+    private final int bitsTabla;
+    private final long limiteNodos;
+    private final int hilos;
+
+    /**
+     * Crea un solucionador.
+     * @param bitsTabla logaritmo en base 2 de las entradas de la tabla de transposición
+     * @param limiteNodos nodos máximos a explorar (0 = sin límite)
+     * @param hilos número de hilos del pool fork/join
+     */
+    public SolucionadorPartidas(int bitsTabla, long limiteNodos, int hilos) {
+        this.bitsTabla = bitsTabla;
+        this.limiteNodos = limiteNodos <= 0 ? Long.MAX_VALUE : limiteNodos;
+        this.hilos = Math.max(1, hilos);
+    }
+
+    /**
+     * Determina si la partida se puede ganar desde su estado actual (en fase de ataque).
+     * @param partida partida cuyo generador es un {@link GeneradorAleatorio}
+     * @return veredicto y estadísticas de la búsqueda
+     */
+    public Resultado resolver(Partida partida) {
+        EstadoSolver inicial = EstadoSolver.desde(partida);
+        Busqueda busqueda = new Busqueda(new TablaTransposicion(bitsTabla));
+        long inicio = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        int resultado;
+        try {
+            resultado = pool.invoke(new Tarea(busqueda, inicial, 0));
+        } finally {
+            pool.shutdown();
+        }
+        Veredicto veredicto = busqueda.ganado.get() || resultado == TablaTransposicion.GANA ? Veredicto.GANABLE
+                : resultado == TablaTransposicion.PIERDE ? Veredicto.IMPOSIBLE : Veredicto.DESCONOCIDO;
+        return new Resultado(veredicto, busqueda.nodos.get(), System.nanoTime() - inicio);
+    }
+
+    /**
+     * Calcula el hash Zobrist de un estado.
+     * @param e estado
+     * @return hash de 64 bits
+     */
+    static long hash(EstadoSolver e) {
+        long h = 0;
+        for (int i = 0; i < e.numMano; i++) {
+            h ^= ZOBRIST_MANO[i * POSICIONES + e.mano[i]];
+        }
+        for (int i = 0; i < e.numPosada; i++) {
+            h ^= ZOBRIST_POSADA[i * POSICIONES + e.posada(i)];
+        }
+        for (int i = 0; i < e.numDescartes; i++) {
+            h ^= ZOBRIST_DESCARTES[i * POSICIONES + e.descarte(i)];
+        }
+        for (int i = 0; i < e.numJugadas; i++) {
+            h ^= ZOBRIST_JUGADAS[i * POSICIONES + e.jugadas[i]];
+        }
+        long escalares = (e.vidaEnemigo & 0xFFFFL) | (long) (e.escudo & 0xFFFF) << 16
+                | (long) e.enemigo << 32 | (e.defensaPendiente ? 1L << 40 : 0);
+        h ^= GeneradorAleatorio.mezclar(escalares + GeneradorAleatorio.GAMMA);
+        h ^= GeneradorAleatorio.mezclar(e.aleatorio ^ 0x6A09E667F3BCC909L);
+        return h;
+    }
+
+    /**
+     * Genera las jugadas de un estado ya ordenadas (las más prometedoras primero).
+     * @param e estado no terminado
+     * @param jugadas destino de los subconjuntos de posiciones de la mano
+     * @param puntos array auxiliar para la ordenación
+     * @param cartas array auxiliar con las cartas de cada subconjunto
+     * @return número de jugadas (siempre al menos una: si no hay ninguna legal se genera la que pierde)
+     */
+    static int generar(EstadoSolver e, int[] jugadas, int[] puntos, long[] cartas) {
+        int total = 1 << e.numMano;
+        int n = 0;
+        cartas[0] = 0;
+        int paloInmune = e.enemigo < e.castillo.length ? CodigoCarta.palo(e.castillo[e.enemigo]) : -1;
+        for (int s = 1; s < total; s++) {
+            cartas[s] = cartas[s & (s - 1)] | 1L << e.mano[Integer.numberOfTrailingZeros(s)];
+            int valor = ReglasJugada.danioBase(cartas[s]);
+            int puntuacion;
+            if (e.defensaPendiente) {
+                if (valor < e.danioEfectivo()) {
+                    continue;
+                }
+                //Defender gastando lo mínimo
+                puntuacion = -valor * 16 - Integer.bitCount(s);
+            } else {
+                if (!ReglasJugada.esJugadaValida(cartas[s])) {
+                    continue;
+                }
+                int palos = ReglasJugada.palosActivos(cartas[s], paloInmune);
+                int danio = ReglasJugada.tienePalo(palos, CodigoCarta.TREBOLES) ? valor * 2 : valor;
+                int vida = e.vidaEnemigo - danio;
+                puntuacion = vida == 0 ? 1 << 20 : vida < 0 ? (1 << 19) + vida : danio * 16 - Integer.bitCount(s);
+            }
+            jugadas[n] = s;
+            puntos[n] = puntuacion;
+            n++;
+        }
+        if (n == 0) {
+            //Sin ataque ni defensa posibles: la única jugada es perder
+            jugadas[0] = total - 1;
+            return 1;
+        }
+        //Ordenación por inserción (como mucho 255 jugadas)
+        for (int i = 1; i < n; i++) {
+            int jugada = jugadas[i];
+            int puntuacion = puntos[i];
+            int j = i - 1;
+            while (j >= 0 && puntos[j] < puntuacion) {
+                jugadas[j + 1] = jugadas[j];
+                puntos[j + 1] = puntos[j];
+                j--;
+            }
+            jugadas[j + 1] = jugada;
+            puntos[j + 1] = puntuacion;
+        }
+        return n;
+    }
+
+    /**
+     * Crea el estado hijo resultante de aplicar una jugada.
+     */
+    static EstadoSolver aplicar(EstadoSolver e, int jugada) {
+        EstadoSolver hijo = e.copiar();
+        if (hijo.defensaPendiente) {
+            hijo.defender(jugada);
+        } else {
+            hijo.atacar(jugada);
+        }
+        return hijo;
+    }
+
+    /**
+     * Estado compartido de una búsqueda: tabla, contador de nodos y señal de parada.
+     */
+    private final class Busqueda {
+        final TablaTransposicion tabla;
+        final AtomicLong nodos = new AtomicLong();
+        final AtomicBoolean ganado = new AtomicBoolean();
+        final AtomicBoolean agotado = new AtomicBoolean();
+        final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+        Busqueda(TablaTransposicion tabla) {
+            this.tabla = tabla;
+        }
+
+        /**
+         * Búsqueda secuencial en profundidad.
+         * @return GANA, PIERDE o DESCONOCIDO (presupuesto agotado o búsqueda cancelada)
+         */
+        int buscar(EstadoSolver e, int profundidad, Buffers b) {
+            if (e.terminada) {
+                return e.victoria ? TablaTransposicion.GANA : TablaTransposicion.PIERDE;
+            }
+            if (ganado.get() || agotado.get()) {
+                return TablaTransposicion.DESCONOCIDO;
+            }
+            long clave = hash(e);
+            int conocido = tabla.consultar(clave);
+            if (conocido != TablaTransposicion.DESCONOCIDO) {
+                return conocido;
+            }
+            if (++b.nodosLocales == LOTE_NODOS) {
+                b.nodosLocales = 0;
+                if (nodos.addAndGet(LOTE_NODOS) > limiteNodos) {
+                    agotado.set(true);
+                }
+            }
+
+            long inicio = b.nodosTotales++;
+            int[] jugadas = b.jugadas(profundidad);
+            int n = generar(e, jugadas, b.puntos, b.cartas);
+            boolean desconocido = false;
+            for (int i = 0; i < n; i++) {
+                int resultado = buscar(aplicar(e, jugadas[i]), profundidad + 1, b);
+                if (resultado == TablaTransposicion.GANA) {
+                    tabla.guardar(clave, TablaTransposicion.GANA, b.nodosTotales - inicio);
+                    return TablaTransposicion.GANA;
+                }
+                desconocido |= resultado == TablaTransposicion.DESCONOCIDO;
+            }
+            if (desconocido) {
+                return TablaTransposicion.DESCONOCIDO;
+            }
+            tabla.guardar(clave, TablaTransposicion.PIERDE, b.nodosTotales - inicio);
+            return TablaTransposicion.PIERDE;
+        }
+    }
+
+    /**
+     * Tarea fork/join: en los primeros niveles crea una subtarea por jugada; después busca en secuencia.
+     */
+    private final class Tarea extends RecursiveTask<Integer> {
+        private final Busqueda busqueda;
+        private final EstadoSolver estado;
+        private final int profundidad;
+
+        Tarea(Busqueda busqueda, EstadoSolver estado, int profundidad) {
+            this.busqueda = busqueda;
+            this.estado = estado;
+            this.profundidad = profundidad;
+        }
+
+        @Override
+        protected Integer compute() {
+            Buffers b = busqueda.buffers.get();
+            if (estado.terminada || profundidad >= PROFUNDIDAD_PARALELA) {
+                int resultado = busqueda.buscar(estado, profundidad, b);
+                if (resultado == TablaTransposicion.GANA) {
+                    busqueda.ganado.set(true);
+                }
+                return resultado;
+            }
+
+            int[] jugadas = new int[EvaluadorJugadas.MAX_JUGADAS];
+            int n = generar(estado, jugadas, b.puntos, b.cartas);
+            List<Tarea> subtareas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                subtareas.add(new Tarea(busqueda, aplicar(estado, jugadas[i]), profundidad + 1));
+            }
+            boolean desconocido = false;
+            for (Tarea subtarea : invokeAll(subtareas)) {
+                int resultado = subtarea.join();
+                if (resultado == TablaTransposicion.GANA) {
+                    return resultado;
+                }
+                desconocido |= resultado == TablaTransposicion.DESCONOCIDO;
+            }
+            return desconocido ? TablaTransposicion.DESCONOCIDO : TablaTransposicion.PIERDE;
+        }
+    }
+
+    /**
+     * Arrays de trabajo de un hilo, para no crear objetos en cada nodo salvo los estados hijos.
+     */
+    private static final class Buffers {
+        final int[] puntos = new int[EvaluadorJugadas.MAX_JUGADAS + 1];
+        final long[] cartas = new long[EvaluadorJugadas.MAX_JUGADAS + 1];
+        final List<int[]> jugadasPorNivel = new ArrayList<>();
+        int nodosLocales;
+        long nodosTotales;
+
+        int[] jugadas(int profundidad) {
+            while (jugadasPorNivel.size() <= profundidad) {
+                jugadasPorNivel.add(new int[EvaluadorJugadas.MAX_JUGADAS]);
+            }
+            return jugadasPorNivel.get(profundidad);
+        }
+    }
+
+    /**
+     * Resultado de resolver un reparto.
+     */
+    public static final class Resultado {
+        private final Veredicto veredicto;
+        private final long nodos;
+        private final long nanos;
+
+        Resultado(Veredicto veredicto, long nodos, long nanos) {
+            this.veredicto = veredicto;
+            this.nodos = nodos;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Obtiene el veredicto
+         * @return GANABLE, IMPOSIBLE o DESCONOCIDO si se agotó el límite de nodos
+         */
+        public Veredicto getVeredicto() {
+            return veredicto;
+        }
+
+        /**
+         * Obtiene los nodos explorados (aproximado, se cuentan por lotes)
+         * @return nodos explorados
+         */
+        public long getNodos() {
+            return nodos;
+        }
+
+        /**
+         * Obtiene el tiempo de la búsqueda
+         * @return nanosegundos
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            double segundos = nanos / 1e9;
+            return String.format("%s | %d nodos | %.2f s | %.0f nodos/s", veredicto, nodos, segundos, nodos / Math.max(segundos, 1e-9));
+        }
+    }
+
+    /**
+     * Resuelve desde la línea de comandos los repartos de un rango de semillas.
+     * @param args [semilla inicial] [número de repartos] [límite de nodos] [hilos] [bits de la tabla]
+     */
+    public static void main(String[] args) {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 0L;
+        int repartos = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long limite = args.length > 2 ? Long.parseLong(args[2]) : 10_000_000L;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int bits = args.length > 4 ? Integer.parseInt(args[4]) : 22;
+
+        SolucionadorPartidas solucionador = new SolucionadorPartidas(bits, limite, hilos);
+        for (long s = semilla; s < semilla + repartos; s++) {
+            Partida partida = new Partida("Solucionador", s);
+            partida.setSimulacion(true);
+            partida.generarBaraja();
+            partida.prepararColecciones();
+            System.out.println("Semilla " + s + ": " + solucionador.resolver(partida));
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice de jugadas legales de una mano de hasta 8 cartas.
+ * Cada subconjunto de posiciones de la mano se representa con una máscara de 8 bits
+ * (bit i = carta i de la mano), por lo que hay como máximo 255 jugadas posibles.
+ * Para cada subconjunto se guarda si es una jugada válida, sus cartas (máscara de códigos),
+ * su daño base y los palos que contiene. La tabla se actualiza de forma incremental
+ * cuando se roban o se quitan cartas, sin volver a validar las jugadas ya calculadas.
+ */
+public class TablaJugadas {
+    /** Tamaño máximo de la mano */
+    public static final int MAX_MANO = 8;
+    private static final int SUBCONJUNTOS = 1 << MAX_MANO;
+
+    /** Códigos de las cartas de la mano, en orden */
+    private final int[] codigos = new int[MAX_MANO];
+    private int tamanio;
+
+    /** Datos de cada subconjunto de posiciones */
+    private final long[] cartas = new long[SUBCONJUNTOS];
+    private final byte[] danio = new byte[SUBCONJUNTOS];
+    private final byte[] palos = new byte[SUBCONJUNTOS];
+    /** Conjunto de subconjuntos válidos (256 bits) */
+    private final long[] validas = new long[SUBCONJUNTOS / 64];
+    /** Posiciones pendientes de quitar durante la sincronización */
+    private final int[] posicionesQuitar = new int[MAX_MANO];
+
+    /**
+     * Obtiene el número de cartas de la mano indexada.
+     * @return tamaño de la mano
+     */
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Comprueba si un subconjunto de posiciones es una jugada válida.
+     * @param subconjunto máscara de posiciones de la mano
+     * @return true si es válida
+     */
+    public boolean esValida(int subconjunto) {
+        return subconjunto > 0 && subconjunto < (1 << tamanio)
+                && (validas[subconjunto >>> 6] & (1L << subconjunto)) != 0;
+    }
+
+    /**
+     * Obtiene las cartas de un subconjunto como máscara de códigos.
+     * @param subconjunto máscara de posiciones de la mano
+     * @return máscara de cartas (ver CodigoCarta)
+     */
+    public long getCartas(int subconjunto) {
+        return cartas[subconjunto];
+    }
+
+    /**
+     * Obtiene el daño base de un subconjunto (antes de efectos).
+     * @param subconjunto máscara de posiciones de la mano
+     * @return daño base
+     */
+    public int getDanio(int subconjunto) {
+        return danio[subconjunto];
+    }
+
+    /**
+     * Obtiene los palos que contiene un subconjunto.
+     * @param subconjunto máscara de posiciones de la mano
+     * @return máscara de 4 bits (bit = índice del palo)
+     */
+    public int getPalos(int subconjunto) {
+        return palos[subconjunto];
+    }
+
+    /**
+     * Obtiene los palos cuyo efecto se activa con un subconjunto contra un enemigo.
+     * @param subconjunto máscara de posiciones de la mano
+     * @param paloInmune índice del palo del enemigo, o -1
+     * @return máscara de 4 bits con los palos activos
+     */
+    public int getPalosActivos(int subconjunto, int paloInmune) {
+        return paloInmune < 0 ? palos[subconjunto] : palos[subconjunto] & ~(1 << paloInmune);
+    }
+
+    /**
+     * Obtiene el número de jugadas válidas de la mano.
+     * @return número de jugadas válidas
+     */
+    public int getNumJugadas() {
+        int total = 0;
+        for (long bloque : validas) {
+            total += Long.bitCount(bloque);
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene la primera jugada válida.
+     * @return subconjunto de posiciones, o -1 si no hay ninguna
+     */
+    public int primeraJugada() {
+        return siguienteJugada(0);
+    }
+
+    /**
+     * Obtiene la siguiente jugada válida después de la indicada.
+     * Permite recorrer todas las jugadas sin crear listas:
+     * {@code for (int j = tabla.primeraJugada(); j >= 0; j = tabla.siguienteJugada(j))}
+     * @param subconjunto jugada actual
+     * @return siguiente subconjunto válido, o -1 si no hay más
+     */
+    public int siguienteJugada(int subconjunto) {
+        int desde = subconjunto + 1;
+        int bloque = desde >>> 6;
+        if (bloque >= validas.length) {
+            return -1;
+        }
+        long bits = validas[bloque] & (-1L << desde);
+        while (true) {
+            if (bits != 0) {
+                return (bloque << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++bloque == validas.length) {
+                return -1;
+            }
+            bits = validas[bloque];
+        }
+    }
+
+    /**
+     * Añade una carta al final de la mano y calcula solo los subconjuntos que la contienen.
+     * @param codigo código de la carta robada
+     */
+    public void agregar(int codigo) {
+        if (tamanio == MAX_MANO) {
+            throw new IllegalStateException("La mano no puede tener más de " + MAX_MANO + " cartas");
+        }
+        int bitPosicion = 1 << tamanio;
+        long bitCarta = 1L << codigo;
+        int numero = CodigoCarta.numero(codigo);
+        int palo = 1 << CodigoCarta.palo(codigo);
+
+        for (int s = 0; s < bitPosicion; s++) {
+            int t = s | bitPosicion;
+            cartas[t] = cartas[s] | bitCarta;
+            danio[t] = (byte) (danio[s] + numero);
+            palos[t] = (byte) (palos[s] | palo);
+            marcar(t, ReglasJugada.esJugadaValida(cartas[t]));
+        }
+        codigos[tamanio++] = codigo;
+    }
+
+    /**
+     * Quita la carta de una posición de la mano. Las posiciones posteriores se desplazan
+     * y sus subconjuntos se copian de la tabla anterior sin recalcularlos.
+     * @param posicion posición de la carta en la mano
+     */
+    public void quitar(int posicion) {
+        int bajos = (1 << posicion) - 1;
+        int nuevos = 1 << (tamanio - 1);
+        //Cada subconjunto nuevo procede de uno antiguo con índice mayor o igual, así que
+        //recorrer en orden ascendente nunca lee una entrada ya sobrescrita
+        for (int s = 0; s < nuevos; s++) {
+            int antiguo = (s & bajos) | ((s & ~bajos) << 1);
+            cartas[s] = cartas[antiguo];
+            danio[s] = danio[antiguo];
+            palos[s] = palos[antiguo];
+            marcar(s, (validas[antiguo >>> 6] & (1L << antiguo)) != 0);
+        }
+        for (int s = nuevos; s < (nuevos << 1); s++) {
+            marcar(s, false);
+        }
+        System.arraycopy(codigos, posicion + 1, codigos, posicion, tamanio - posicion - 1);
+        tamanio--;
+    }
+
+    /**
+     * Vacía la tabla.
+     */
+    public void vaciar() {
+        tamanio = 0;
+        Arrays.fill(validas, 0L);
+    }
+
+    /**
+     * Pone la tabla al día con la mano indicada. Las cartas que ya no están se quitan y
+     * las nuevas se añaden de forma incremental; solo si la mano se ha reordenado se
+     * recalculan más subconjuntos de los necesarios.
+     * @param mano mano actual del jugador
+     */
+    public void sincronizar(List<Carta> mano) {
+        if (mano.size() > MAX_MANO) {
+            throw new IllegalStateException("La mano no puede tener más de " + MAX_MANO + " cartas");
+        }
+        //Quitar (de la última a la primera) las cartas que no siguen el orden de la mano
+        int coincidentes = 0;
+        int numQuitar = 0;
+        for (int i = 0; i < tamanio; i++) {
+            if (coincidentes < mano.size() && mano.get(coincidentes).getCodigo() == codigos[i]) {
+                coincidentes++;
+            } else {
+                posicionesQuitar[numQuitar++] = i;
+            }
+        }
+        for (int i = numQuitar - 1; i >= 0; i--) {
+            quitar(posicionesQuitar[i]);
+        }
+        for (int i = coincidentes; i < mano.size(); i++) {
+            agregar(mano.get(i).getCodigo());
+        }
+    }
+
+    /**
+     * Marca o desmarca un subconjunto como válido.
+     */
+    private void marcar(int subconjunto, boolean valida) {
+        if (valida) {
+            validas[subconjunto >>> 6] |= 1L << subconjunto;
+        } else {
+            validas[subconjunto >>> 6] &= ~(1L << subconjunto);
+        }
+    }
+}
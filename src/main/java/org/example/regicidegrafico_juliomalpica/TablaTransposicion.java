@@ -0,0 +1,77 @@
+package org.example.regicidegrafico_juliomalpica;
+
+/**
+ * Tabla de transposición de tamaño fijo para el solucionador de repartos.
+ * <p>
+ * Cada cubo tiene dos entradas. Al guardar, si la clave ya está en el cubo se actualiza; si no,
+ * se reemplaza la entrada cuyo subárbol costó menos nodos resolver, de forma que se conservan
+ * los resultados más caros de recalcular. La tabla no usa bloqueos: cada entrada guarda
+ * {@code clave ^ datos}, y una lectura solo se acepta si la comprobación XOR coincide, así que
+ * una escritura concurrente a medias se descarta en lugar de devolver un resultado erróneo.
+ * </p>
+ */
+final class TablaTransposicion {
+    static final int DESCONOCIDO = 0;
+    static final int GANA = 1;
+    static final int PIERDE = 2;
+
+    private static final long TRABAJO_MAXIMO = (1L << 61) - 1;
+
+    private final long[] claves;
+    private final long[] datos;
+    private final int mascara;
+
+    /**
+     * Crea una tabla con 2^bits entradas.
+     * @param bits logaritmo en base 2 del número de entradas (16 bytes por entrada)
+     */
+    TablaTransposicion(int bits) {
+        claves = new long[1 << bits];
+        datos = new long[1 << bits];
+        mascara = (1 << bits) - 1;
+    }
+
+    /**
+     * Busca el resultado de una posición.
+     * @param clave hash Zobrist de la posición
+     * @return GANA, PIERDE o DESCONOCIDO si no está en la tabla
+     */
+    int consultar(long clave) {
+        int cubo = indice(clave);
+        for (int i = cubo; i <= cubo + 1; i++) {
+            long dato = datos[i];
+            if (dato != 0 && (claves[i] ^ dato) == clave) {
+                return (int) (dato & 3);
+            }
+        }
+        return DESCONOCIDO;
+    }
+
+    /**
+     * Guarda el resultado demostrado de una posición.
+     * @param clave hash Zobrist de la posición
+     * @param resultado GANA o PIERDE
+     * @param trabajo nodos visitados para resolver la posición (prioridad de reemplazo)
+     */
+    void guardar(long clave, int resultado, long trabajo) {
+        long dato = (Math.min(trabajo, TRABAJO_MAXIMO) << 2) | resultado;
+        int cubo = indice(clave);
+        int destino;
+        if ((claves[cubo] ^ datos[cubo]) == clave) {
+            destino = cubo;
+        } else if ((claves[cubo + 1] ^ datos[cubo + 1]) == clave) {
+            destino = cubo + 1;
+        } else {
+            destino = (datos[cubo] >>> 2) <= (datos[cubo + 1] >>> 2) ? cubo : cubo + 1;
+        }
+        datos[destino] = dato;
+        claves[destino] = clave ^ dato;
+    }
+
+    /**
+     * Primera entrada del cubo de una clave.
+     */
+    private int indice(long clave) {
+        return (int) (clave >>> 32) & mascara & ~1;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.regicidegrafico_juliomalpica;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Comprueba que el diario reconstruye exactamente las partidas que anota.
+ */
+class DiarioPartidaTest {
+    private static final int PARTIDAS = 300;
+
+    @TempDir
+    Path carpeta;
+
+    /**
+     * Juega partidas con la política voraz anotando las jugadas, pasando las cartas de cada ataque
+     * de la última posición a la primera como hace la interfaz, las reproduce desde el diario
+     * y compara las dos partidas codificadas.
+     */
+    @Test
+    void reproducePartidasJugadasComoLaInterfaz() throws IOException {
+        Path archivo = carpeta.resolve("partida.diario");
+        for (long i = 0; i < PARTIDAS; i++) {
+            long semilla = GeneradorAleatorio.semillaFlujo(0L, i);
+            Partida partida = new Partida("Simulador", semilla);
+            partida.setSimulacion(true);
+            partida.generarBaraja();
+            partida.prepararColecciones();
+            PoliticaJugador politica = new ComoInterfaz(new PoliticaVoraz());
+            politica.nuevaPartida(semilla);
+            try (DiarioPartida diario = DiarioPartida.crear(archivo.toString(), partida)) {
+                Simulador.jugarHastaFinal(partida, politica);
+            }
+            //Las instantáneas se escriben en segundo plano
+            ServicioPersistencia.getInstancia().vaciar(Partida.ESPERA_ESCRITURAS_MS);
+
+            Partida reproducida = DiarioPartida.reproducir(archivo.toString());
+            assertArrayEquals(CodecPartida.codificar(partida), CodecPartida.codificar(reproducida),
+                    "El diario no reproduce la partida con semilla " + semilla);
+        }
+    }
+
+    /**
+     * Pasa los índices de cada ataque de mayor a menor, como la interfaz.
+     */
+    private static final class ComoInterfaz implements PoliticaJugador {
+        private final PoliticaJugador politica;
+
+        ComoInterfaz(PoliticaJugador politica) {
+            this.politica = politica;
+        }
+
+        @Override
+        public List<Integer> elegirAtaque(Partida partida) {
+            List<Integer> ataque = new ArrayList<>(politica.elegirAtaque(partida));
+            ataque.sort(Collections.reverseOrder());
+            return ataque;
+        }
+
+        @Override
+        public ArrayList<Integer> elegirDefensa(Partida partida) {
+            return politica.elegirDefensa(partida);
+        }
+    }
+}